@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.client.hdfs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import stargate.commons.utils.DateTimeUtils;
+
+/**
+ *
+ * @author iychoi
+ */
+public class ExpiringCache<V> {
+    
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    
+    private int maxEntries;
+    private long ttl;
+    private LinkedHashMap<String, CacheEntry<V>> entries;
+    
+    private static class CacheEntry<V> {
+        private V value;
+        private long cachedTime;
+        private long updateTime;
+        
+        CacheEntry(V value, long cachedTime, long updateTime) {
+            this.value = value;
+            this.cachedTime = cachedTime;
+            this.updateTime = updateTime;
+        }
+    }
+    
+    /*
+     * ttl is in milliseconds
+     */
+    public ExpiringCache(int maxEntries, long ttl) {
+        if(maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries is invalid");
+        }
+        
+        if(ttl < 0) {
+            throw new IllegalArgumentException("ttl is invalid");
+        }
+        
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        // access ordered for LRU
+        this.entries = new LinkedHashMap<String, CacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<V>> eldest) {
+                return size() > ExpiringCache.this.maxEntries;
+            }
+        };
+    }
+    
+    /*
+     * returns null if not cached or expired
+     */
+    public synchronized V get(String key) {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        CacheEntry<V> entry = this.entries.get(key);
+        if(entry == null) {
+            return null;
+        }
+        
+        if(DateTimeUtils.getCurrentTime() - entry.cachedTime >= this.ttl) {
+            return null;
+        }
+        return entry.value;
+    }
+    
+    /*
+     * returns true if an entry exists and can be revalidated
+     */
+    public synchronized boolean isRevalidatable(String key) {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        CacheEntry<V> entry = this.entries.get(key);
+        return entry != null && entry.updateTime >= 0;
+    }
+    
+    /*
+     * renews an expired entry if nothing has changed at the server since it was cached
+     */
+    public synchronized V revalidate(String key, long updateTime) {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        CacheEntry<V> entry = this.entries.get(key);
+        if(entry == null) {
+            return null;
+        }
+        
+        if(entry.updateTime < 0 || entry.updateTime != updateTime) {
+            this.entries.remove(key);
+            return null;
+        }
+        
+        entry.cachedTime = DateTimeUtils.getCurrentTime();
+        return entry.value;
+    }
+    
+    /*
+     * updateTime is a server-side update stamp observed before the value was fetched
+     * negative updateTime means the entry can only expire
+     */
+    public synchronized void put(String key, V value, long updateTime) {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        if(value == null) {
+            throw new IllegalArgumentException("value is null");
+        }
+        
+        if(this.ttl == 0) {
+            return;
+        }
+        
+        this.entries.put(key, new CacheEntry<V>(value, DateTimeUtils.getCurrentTime(), updateTime));
+    }
+    
+    public synchronized void remove(String key) {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        this.entries.remove(key);
+    }
+    
+    public synchronized int size() {
+        return this.entries.size();
+    }
+    
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+}
@@ -26,12 +26,18 @@ package stargate.client.hdfs;
 
 import stargate.drivers.userinterface.http.HTTPChunkInputStream;
 import stargate.drivers.userinterface.http.HTTPUserInterfaceClient;
+import java.io.EOFException;
 import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.PositionedReadable;
 import org.apache.hadoop.fs.Seekable;
+import stargate.commons.recipe.ChunkData;
 import stargate.commons.recipe.Recipe;
+import stargate.commons.recipe.RecipeChunk;
+import stargate.drivers.userinterface.http.ChunkDataCache;
 
 /**
  *
@@ -41,8 +47,28 @@ public class FSChunkInputStream extends HTTPChunkInputStream implements Seekable
 
     private static final Log LOG = LogFactory.getLog(FSChunkInputStream.class);
     
+    private ChunkDataCache positionalReadCache;
+    
     public FSChunkInputStream(HTTPUserInterfaceClient client, Recipe recipe) {
         super(client, recipe);
+        
+        this.positionalReadCache = new ChunkDataCache();
+    }
+    
+    public FSChunkInputStream(HTTPUserInterfaceClient client, Recipe recipe, ExecutorService readAheadExecutor, int maxReadAheadWindow) {
+        super(client, recipe, readAheadExecutor, maxReadAheadWindow);
+        
+        this.positionalReadCache = new ChunkDataCache();
+    }
+    
+    public FSChunkInputStream(HTTPUserInterfaceClient client, Recipe recipe, ExecutorService readAheadExecutor, int maxReadAheadWindow, ChunkDataCache positionalReadCache) {
+        super(client, recipe, readAheadExecutor, maxReadAheadWindow);
+        
+        if(positionalReadCache == null) {
+            throw new IllegalArgumentException("positionalReadCache is null");
+        }
+        
+        this.positionalReadCache = positionalReadCache;
     }
     
     @Override
@@ -59,37 +85,75 @@ public class FSChunkInputStream extends HTTPChunkInputStream implements Seekable
     public boolean seekToNewSource(long l) throws IOException {
         return false;
     }
+    
+    private ChunkData getPositionalChunkData(final RecipeChunk chunk) throws IOException {
+        return this.positionalReadCache.get(chunk.getHashString(), new Callable<ChunkData>() {
+
+            @Override
+            public ChunkData call() throws Exception {
+                // cached chunks are shared by concurrent readers, so do not pool them
+                return fetchChunkData(chunk, null);
+            }
+        });
+    }
 
+    /*
+     * positional reads do not move the stream cursor and can run concurrently
+     */
     @Override
-    public synchronized int read(long pos, byte[] bytes, int off, int len) throws IOException {
-        super.seek(pos);
-        if(super.getPos() != pos) {
-            throw new IOException("Cannot find position : " + pos);
+    public int read(long pos, byte[] bytes, int off, int len) throws IOException {
+        if(pos < 0) {
+            throw new IOException("cannot read at negative offset : " + pos);
+        }
+        
+        long size = getSize();
+        if(pos >= size) {
+            return -1;
         }
-        int available = super.available();
         
-        if(available > 0) {
-            return super.read(bytes, off, Math.min(len, available));
-        } else {
-            return super.read(bytes, off, len);
+        Recipe recipe = getRecipe();
+        long offset = pos;
+        int remain = (int) Math.min(len, size - pos);
+        int doff = off;
+        while(remain > 0) {
+            RecipeChunk chunk = recipe.getChunk(offset);
+            if(this.positionalReadCache.get(chunk.getHashString()) == null && isSmallRead(chunk, remain)) {
+                // small read of an uncached chunk - fetch only the requested range
+                int inlength = readChunkRange(chunk, offset, bytes, doff, remain);
+                offset += inlength;
+                doff += inlength;
+                remain -= inlength;
+                continue;
+            }
+            
+            ChunkData chunkData = getPositionalChunkData(chunk);
+            
+            // same content can appear at different offsets, use the offset of the chunk in this recipe
+            int inoffset = (int) (offset - chunk.getOffset());
+            int inlength = (int) Math.min(chunkData.getLength() - inoffset, remain);
+            
+            System.arraycopy(chunkData.getData(), inoffset, bytes, doff, inlength);
+            offset += inlength;
+            doff += inlength;
+            remain -= inlength;
         }
+        return (int) (offset - pos);
     }
 
     @Override
-    public synchronized void readFully(long pos, byte[] bytes, int off, int len) throws IOException {
-        super.seek(pos);
-        if(super.getPos() != pos) {
-            throw new IOException("Cannot find position : " + pos);
+    public void readFully(long pos, byte[] bytes, int off, int len) throws IOException {
+        int read = 0;
+        while(read < len) {
+            int readLen = read(pos + read, bytes, off + read, len - read);
+            if(readLen < 0) {
+                throw new EOFException("End of file reached before reading fully : " + (pos + read));
+            }
+            read += readLen;
         }
-        super.read(bytes, off, len);
     }
 
     @Override
-    public synchronized void readFully(long pos, byte[] bytes) throws IOException {
-        super.seek(pos);
-        if(super.getPos() != pos) {
-            throw new IOException("Cannot find position : " + pos);
-        }
-        super.read(bytes, 0, bytes.length);
+    public void readFully(long pos, byte[] bytes) throws IOException {
+        readFully(pos, bytes, 0, bytes.length);
     }
 }
@@ -27,9 +27,11 @@ package stargate.client.hdfs;
 import java.net.URI;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.codehaus.jackson.annotate.JsonIgnore;
 import org.codehaus.jackson.annotate.JsonProperty;
 import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.Recipe;
+import stargate.commons.recipe.RecipeChunk;
 
 /**
  *
@@ -96,7 +98,7 @@ public class StargateFileStatus {
             throw new IllegalArgumentException("redirectionPath is null");
         }
         
-        initialize(recipe.getMetadata(), recipe.getChunkSize(), path, redirectionPath);
+        initialize(recipe.getMetadata(), getBlockSize(recipe), path, redirectionPath);
     }
     
     public StargateFileStatus(Recipe recipe, URI path) {
@@ -108,7 +110,22 @@ public class StargateFileStatus {
             throw new IllegalArgumentException("path is null");
         }
         
-        initialize(recipe.getMetadata(), recipe.getChunkSize(), null, path);
+        initialize(recipe.getMetadata(), getBlockSize(recipe), null, path);
+    }
+    
+    /*
+     * recipes of variable-sized chunks have no chunk size, use the largest chunk instead
+     */
+    private static long getBlockSize(Recipe recipe) {
+        if(recipe.getChunkSize() != 0) {
+            return recipe.getChunkSize();
+        }
+        
+        long blockSize = 0;
+        for(RecipeChunk chunk : recipe.getChunk()) {
+            blockSize = Math.max(blockSize, chunk.getLength());
+        }
+        return blockSize;
     }
     
     private void initialize(DataObjectMetadata metadata, long blockSize, URI path, URI redirectionPath) {
@@ -138,6 +155,19 @@ public class StargateFileStatus {
         this.metadata = metadata;
     }
     
+    /*
+     * pending or indexing while the recipe of the file is being generated
+     */
+    @JsonIgnore
+    public String getStatus() {
+        return this.metadata.getStatus();
+    }
+    
+    @JsonIgnore
+    public boolean isReady() {
+        return this.metadata.isReady();
+    }
+    
     @JsonProperty("block_size")
     public long getBlockSize() {
         return this.blockSize;
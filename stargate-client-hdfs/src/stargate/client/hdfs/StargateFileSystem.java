@@ -25,6 +25,7 @@
 package stargate.client.hdfs;
 
 import java.io.FileNotFoundException;
+import stargate.drivers.userinterface.http.ChunkDataCache;
 import stargate.drivers.userinterface.http.HTTPChunkInputStream;
 import stargate.drivers.userinterface.http.HTTPUserInterfaceClient;
 import java.io.IOException;
@@ -33,6 +34,10 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -40,6 +45,7 @@ import stargate.commons.cluster.RemoteCluster;
 import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
+import stargate.commons.utils.DateTimeUtils;
 
 /**
  *
@@ -50,27 +56,57 @@ public class StargateFileSystem {
     private static final Log LOG = LogFactory.getLog(StargateFileSystem.class);
     
     private static final int DEFAULT_BLOCK_SIZE = 1024*1024;
+    public static final int DEFAULT_READ_AHEAD_WINDOW = HTTPChunkInputStream.DEFAULT_READ_AHEAD_WINDOW;
+    private static final int READ_AHEAD_THREAD_POOL_SIZE = 8;
+    public static final int DEFAULT_METADATA_CACHE_TTL_SEC = 60;
+    // minimum interval between checks of server update time
+    private static final long UPDATE_TIME_CHECK_INTERVAL = 1000;
     
     private HTTPUserInterfaceClient userInterfaceClient;
     private RemoteCluster localCluster;
+    private int readAheadWindow;
+    private ExecutorService readAheadThreadPool;
+    private ChunkDataCache positionalReadCache;
+    private ExpiringCache<DataObjectMetadata> metadataCache;
+    private ExpiringCache<Collection<DataObjectMetadata>> listingCache;
+    private ExpiringCache<Recipe> recipeCache;
+    private ExpiringCache<URI> localResourcePathCache;
+    private long serverUpdateTime;
+    private long serverUpdateTimeCheckedTime;
     
     public StargateFileSystem(String stargateUIServiceURL) throws IOException {
+        this(stargateUIServiceURL, DEFAULT_READ_AHEAD_WINDOW, DEFAULT_METADATA_CACHE_TTL_SEC);
+    }
+    
+    public StargateFileSystem(String stargateUIServiceURL, int readAheadWindow) throws IOException {
+        this(stargateUIServiceURL, readAheadWindow, DEFAULT_METADATA_CACHE_TTL_SEC);
+    }
+    
+    public StargateFileSystem(String stargateUIServiceURL, int readAheadWindow, int metadataCacheTTLSec) throws IOException {
         if(stargateUIServiceURL == null) {
             throw new IllegalArgumentException("stargateUIServiceURL is null");
         }
         
+        if(readAheadWindow < 0) {
+            throw new IllegalArgumentException("readAheadWindow is invalid");
+        }
+        
+        if(metadataCacheTTLSec < 0) {
+            throw new IllegalArgumentException("metadataCacheTTLSec is invalid");
+        }
+        
         if(!stargateUIServiceURL.startsWith("http://")) {
             stargateUIServiceURL = "http://" + stargateUIServiceURL;
         }
         
         try {
-            initialize(new URI(stargateUIServiceURL));
+            initialize(new URI(stargateUIServiceURL), readAheadWindow, metadataCacheTTLSec);
         } catch (URISyntaxException ex) {
             throw new IOException(ex);
         }
     }
     
-    public void initialize(URI stargateUIServiceURL) throws IOException {
+    public void initialize(URI stargateUIServiceURL, int readAheadWindow, int metadataCacheTTLSec) throws IOException {
         if(stargateUIServiceURL == null) {
             throw new IllegalArgumentException("stargateUIServiceURL is null");
         }
@@ -78,6 +114,34 @@ public class StargateFileSystem {
         LOG.info("connecting to Stargate : " + stargateUIServiceURL.toASCIIString());
         
         this.userInterfaceClient = new HTTPUserInterfaceClient(stargateUIServiceURL);
+        
+        this.positionalReadCache = new ChunkDataCache();
+        
+        long metadataCacheTTL = metadataCacheTTLSec * 1000L;
+        this.metadataCache = new ExpiringCache<DataObjectMetadata>(ExpiringCache.DEFAULT_MAX_ENTRIES, metadataCacheTTL);
+        this.listingCache = new ExpiringCache<Collection<DataObjectMetadata>>(ExpiringCache.DEFAULT_MAX_ENTRIES, metadataCacheTTL);
+        this.recipeCache = new ExpiringCache<Recipe>(ExpiringCache.DEFAULT_MAX_ENTRIES, metadataCacheTTL);
+        this.localResourcePathCache = new ExpiringCache<URI>(ExpiringCache.DEFAULT_MAX_ENTRIES, metadataCacheTTL);
+        this.serverUpdateTime = -1;
+        this.serverUpdateTimeCheckedTime = 0;
+        
+        this.readAheadWindow = readAheadWindow;
+        if(readAheadWindow > 0) {
+            // daemon threads do not keep client JVMs alive
+            this.readAheadThreadPool = Executors.newFixedThreadPool(READ_AHEAD_THREAD_POOL_SIZE, new ThreadFactory() {
+                
+                private final AtomicInteger threadNumber = new AtomicInteger(1);
+                
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "StargateFileSystem-readahead-" + this.threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        } else {
+            this.readAheadThreadPool = null;
+        }
 
         if(!this.userInterfaceClient.isLive()) {
             throw new IOException("cannot connect to Stargate : " + stargateUIServiceURL.toASCIIString());
@@ -146,6 +210,106 @@ public class StargateFileSystem {
         return false;
     }
     
+    private boolean isLocalCluster(DataObjectPath path) {
+        String clusterName = path.getClusterName();
+        if(clusterName == null || clusterName.isEmpty()) {
+            // root
+            return false;
+        }
+        
+        return this.localCluster.getName().equalsIgnoreCase(clusterName) || clusterName.equals("localhost");
+    }
+    
+    private synchronized long getServerUpdateTime() throws IOException {
+        long now = DateTimeUtils.getCurrentTime();
+        if(this.serverUpdateTime < 0 || now - this.serverUpdateTimeCheckedTime >= UPDATE_TIME_CHECK_INTERVAL) {
+            this.serverUpdateTime = this.userInterfaceClient.getLastUpdateTime();
+            this.serverUpdateTimeCheckedTime = now;
+        }
+        return this.serverUpdateTime;
+    }
+    
+    /*
+     * returns an update stamp to be stored with cached values of the path
+     * changes at remote clusters are not stamped locally, so their entries can only expire
+     */
+    private long getCacheUpdateTime(DataObjectPath path) throws IOException {
+        if(!isLocalCluster(path)) {
+            return -1;
+        }
+        return getServerUpdateTime();
+    }
+    
+    private <V> V getCachedValue(ExpiringCache<V> cache, DataObjectPath path) throws IOException {
+        String key = path.toString();
+        V value = cache.get(key);
+        if(value == null && cache.isRevalidatable(key)) {
+            value = cache.revalidate(key, getServerUpdateTime());
+        }
+        return value;
+    }
+    
+    private DataObjectMetadata getDataObjectMetadata(DataObjectPath path) throws IOException {
+        DataObjectMetadata metadata = getCachedValue(this.metadataCache, path);
+        if(metadata == null) {
+            long updateTime = getCacheUpdateTime(path);
+            metadata = this.userInterfaceClient.getDataObjectMetadata(path);
+            // files being indexed change size and gain recipes soon, not cached
+            if(metadata != null && metadata.isReady()) {
+                this.metadataCache.put(path.toString(), metadata, updateTime);
+            }
+        }
+        return metadata;
+    }
+    
+    private Collection<DataObjectMetadata> listDataObjectMetadata(DataObjectPath path) throws IOException {
+        Collection<DataObjectMetadata> metadata = getCachedValue(this.listingCache, path);
+        if(metadata == null) {
+            long updateTime = getCacheUpdateTime(path);
+            metadata = this.userInterfaceClient.listDataObjectMetadata(path);
+            if(metadata != null) {
+                boolean ready = true;
+                // listing is often followed by status lookups of entries
+                for(DataObjectMetadata m : metadata) {
+                    if(m.isReady()) {
+                        this.metadataCache.put(m.getPath().toString(), m, updateTime);
+                    } else {
+                        ready = false;
+                    }
+                }
+                
+                if(ready) {
+                    this.listingCache.put(path.toString(), metadata, updateTime);
+                }
+            }
+        }
+        return metadata;
+    }
+    
+    private Recipe getRecipe(DataObjectPath path) throws IOException {
+        Recipe recipe = getCachedValue(this.recipeCache, path);
+        if(recipe == null) {
+            long updateTime = getCacheUpdateTime(path);
+            recipe = this.userInterfaceClient.getRecipe(path);
+            if(recipe != null) {
+                this.recipeCache.put(path.toString(), recipe, updateTime);
+            }
+        }
+        return recipe;
+    }
+    
+    private URI getLocalResourcePath(DataObjectPath path) throws IOException {
+        URI resourcePath = getCachedValue(this.localResourcePathCache, path);
+        if(resourcePath == null) {
+            long updateTime = getCacheUpdateTime(path);
+            resourcePath = this.userInterfaceClient.getLocalResourcePath(path);
+            if(resourcePath != null) {
+                this.localResourcePathCache.put(path.toString(), resourcePath, updateTime);
+            }
+        }
+        return resourcePath;
+    }
+    
     private DataObjectPath makeDataObjectPath(URI path) {
         return new DataObjectPath(getClusterName(path), getPathPart(path));
     }
@@ -170,7 +334,7 @@ public class StargateFileSystem {
             try {
                 URI metaURI = urify(metadata.getPath());
                 URI absURI = resourceURI.resolve(metaURI);
-                return new StargateFileStatus(metadata, DEFAULT_BLOCK_SIZE, absURI, this.userInterfaceClient.getLocalResourcePath(metadata.getPath()));
+                return new StargateFileStatus(metadata, DEFAULT_BLOCK_SIZE, absURI, getLocalResourcePath(metadata.getPath()));
             } catch (URISyntaxException ex) {
                 throw new IOException(ex);
             }
@@ -193,7 +357,7 @@ public class StargateFileSystem {
         try {
             DataObjectPath path = makeDataObjectPath(resourceURI);
             List<StargateFileStatus> status = new ArrayList<StargateFileStatus>();
-            Collection<DataObjectMetadata> metadata = this.userInterfaceClient.listDataObjectMetadata(path);
+            Collection<DataObjectMetadata> metadata = listDataObjectMetadata(path);
             if(metadata != null) {
                 for(DataObjectMetadata m : metadata) {
                     status.add(makeStargateFileStatus(m, resourceURI));
@@ -211,10 +375,10 @@ public class StargateFileSystem {
         }
         
         DataObjectPath path = makeDataObjectPath(resourceURI);
-        Recipe recipe = this.userInterfaceClient.getRecipe(path);
+        Recipe recipe = getRecipe(path);
         if(recipe != null) {
             this.userInterfaceClient.schedulePreloadFile(path);
-            return new FSDataInputStream(new HTTPChunkInputStream(this.userInterfaceClient, recipe));
+            return new FSDataInputStream(new FSChunkInputStream(this.userInterfaceClient, recipe, this.readAheadThreadPool, this.readAheadWindow, this.positionalReadCache));
         } else {
             throw new IOException("unable to retrieve a recipe of " + path.getPath());
         }
@@ -227,7 +391,7 @@ public class StargateFileSystem {
         
         try {
             DataObjectPath path = makeDataObjectPath(resourceURI);
-            DataObjectMetadata metadata = this.userInterfaceClient.getDataObjectMetadata(path);
+            DataObjectMetadata metadata = getDataObjectMetadata(path);
             return makeStargateFileStatus(metadata, resourceURI);
         } catch (FileNotFoundException ex) {
             throw ex;
@@ -241,6 +405,15 @@ public class StargateFileSystem {
     }
     
     public synchronized void close() {
+        if(this.readAheadThreadPool != null) {
+            this.readAheadThreadPool.shutdownNow();
+            this.readAheadThreadPool = null;
+        }
+        this.positionalReadCache.clear();
+        this.metadataCache.clear();
+        this.listingCache.clear();
+        this.recipeCache.clear();
+        this.localResourcePathCache.clear();
         this.userInterfaceClient.close();
     }
 }
@@ -49,6 +49,9 @@ public class StargateHDFS extends FileSystem {
     
     private static final int DEFAULT_SERVICE_PORT = 41010;
     
+    public static final String CONFIG_READ_AHEAD_WINDOW = "fs.stargate.readahead.window";
+    public static final String CONFIG_METADATA_CACHE_TTL = "fs.stargate.metadata.cache.ttl";
+    
     private StargateFileSystem filesystem;
     private URI uri;
     private Path workingDir;
@@ -92,7 +95,9 @@ public class StargateHDFS extends FileSystem {
         LOG.info("initializing uri for StargateFS : " + uri.toString());
         
         if(this.filesystem == null) {
-            this.filesystem = new StargateFileSystem(getStargateHost(uri));
+            int readAheadWindow = conf.getInt(CONFIG_READ_AHEAD_WINDOW, StargateFileSystem.DEFAULT_READ_AHEAD_WINDOW);
+            int metadataCacheTTLSec = conf.getInt(CONFIG_METADATA_CACHE_TTL, StargateFileSystem.DEFAULT_METADATA_CACHE_TTL_SEC);
+            this.filesystem = new StargateFileSystem(getStargateHost(uri), readAheadWindow, metadataCacheTTLSec);
         }
         
         setConf(conf);
@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.userinterface.http;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import stargate.commons.recipe.ChunkData;
+
+/**
+ *
+ * @author iychoi
+ */
+public class ChunkDataCache {
+    
+    public static final long DEFAULT_CAPACITY = 64 * 1024 * 1024;
+    
+    private long capacity;
+    private long cachedSize;
+    // access ordered for LRU
+    private LinkedHashMap<String, ChunkData> chunks = new LinkedHashMap<String, ChunkData>(16, 0.75f, true);
+    private ConcurrentHashMap<String, FutureTask<ChunkData>> pendingLoads = new ConcurrentHashMap<String, FutureTask<ChunkData>>();
+    
+    public ChunkDataCache() {
+        this.capacity = DEFAULT_CAPACITY;
+        this.cachedSize = 0;
+    }
+    
+    public ChunkDataCache(long capacity) {
+        if(capacity < 0) {
+            throw new IllegalArgumentException("capacity is invalid");
+        }
+        
+        this.capacity = capacity;
+        this.cachedSize = 0;
+    }
+    
+    public synchronized ChunkData get(String hash) {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        return this.chunks.get(hash);
+    }
+    
+    /*
+     * cached chunk data must not be pooled as concurrent readers may still 
+     * be copying from it when it is evicted
+     */
+    public synchronized void put(String hash, ChunkData data) {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        if(data == null) {
+            throw new IllegalArgumentException("data is null");
+        }
+        
+        if(data.getLength() > this.capacity) {
+            return;
+        }
+        
+        ChunkData old = this.chunks.put(hash, data);
+        if(old != null) {
+            this.cachedSize -= old.getLength();
+        }
+        this.cachedSize += data.getLength();
+        
+        Iterator<Map.Entry<String, ChunkData>> iterator = this.chunks.entrySet().iterator();
+        while(this.cachedSize > this.capacity && iterator.hasNext()) {
+            Map.Entry<String, ChunkData> entry = iterator.next();
+            if(entry.getKey().equals(hash)) {
+                continue;
+            }
+            
+            this.cachedSize -= entry.getValue().getLength();
+            iterator.remove();
+        }
+    }
+    
+    public ChunkData get(String hash, Callable<ChunkData> loader) throws IOException {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        if(loader == null) {
+            throw new IllegalArgumentException("loader is null");
+        }
+        
+        ChunkData data = get(hash);
+        if(data != null) {
+            return data;
+        }
+        
+        // readers of the same chunk share a single download
+        FutureTask<ChunkData> task = new FutureTask<ChunkData>(loader);
+        FutureTask<ChunkData> existingTask = this.pendingLoads.putIfAbsent(hash, task);
+        if(existingTask == null) {
+            try {
+                task.run();
+                data = task.get();
+                put(hash, data);
+                return data;
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            } catch (ExecutionException ex) {
+                throw new IOException(ex.getCause());
+            } finally {
+                this.pendingLoads.remove(hash, task);
+            }
+        } else {
+            try {
+                return existingTask.get();
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            } catch (ExecutionException ex) {
+                throw new IOException(ex.getCause());
+            }
+        }
+    }
+    
+    public synchronized void clear() {
+        this.chunks.clear();
+        this.cachedSize = 0;
+    }
+}
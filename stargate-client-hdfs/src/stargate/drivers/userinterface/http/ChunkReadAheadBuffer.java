@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.userinterface.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import stargate.commons.recipe.ChunkData;
+
+/**
+ *
+ * @author iychoi
+ */
+public class ChunkReadAheadBuffer {
+    
+    private long[] offsets;
+    private List<Future<ChunkData>> chunks;
+    private int head;
+    private int count;
+    
+    public ChunkReadAheadBuffer(int capacity) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("capacity is invalid");
+        }
+        
+        this.offsets = new long[capacity];
+        this.chunks = new ArrayList<Future<ChunkData>>(capacity);
+        for(int i=0;i<capacity;i++) {
+            this.chunks.add(null);
+        }
+        this.head = 0;
+        this.count = 0;
+    }
+    
+    public int getCapacity() {
+        return this.offsets.length;
+    }
+    
+    public int size() {
+        return this.count;
+    }
+    
+    public boolean isFull() {
+        return this.count == this.offsets.length;
+    }
+    
+    public boolean contains(long offset) {
+        for(int i=0;i<this.count;i++) {
+            int idx = (this.head + i) % this.offsets.length;
+            if(this.offsets[idx] == offset) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public long getLastOffset() {
+        if(this.count == 0) {
+            return -1;
+        }
+        
+        int idx = (this.head + this.count - 1) % this.offsets.length;
+        return this.offsets[idx];
+    }
+    
+    public boolean add(long offset, Future<ChunkData> chunk) {
+        if(chunk == null) {
+            throw new IllegalArgumentException("chunk is null");
+        }
+        
+        if(isFull()) {
+            return false;
+        }
+        
+        int idx = (this.head + this.count) % this.offsets.length;
+        this.offsets[idx] = offset;
+        this.chunks.set(idx, chunk);
+        this.count++;
+        return true;
+    }
+    
+    /*
+     * returns prefetched chunk at the offset, entries prior to the offset are discarded
+     */
+    public Future<ChunkData> take(long offset) {
+        while(this.count > 0) {
+            long headOffset = this.offsets[this.head];
+            Future<ChunkData> chunk = this.chunks.set(this.head, null);
+            this.head = (this.head + 1) % this.offsets.length;
+            this.count--;
+            
+            if(headOffset == offset) {
+                return chunk;
+            }
+            
+            discard(chunk);
+        }
+        return null;
+    }
+    
+    public void clear() {
+        while(this.count > 0) {
+            Future<ChunkData> chunk = this.chunks.set(this.head, null);
+            this.head = (this.head + 1) % this.offsets.length;
+            this.count--;
+            
+            discard(chunk);
+        }
+        this.head = 0;
+    }
+    
+    private void discard(Future<ChunkData> chunk) {
+        if(chunk.isDone()) {
+            try {
+                ChunkData data = chunk.get();
+                if(data != null) {
+                    data.close();
+                }
+            } catch (InterruptedException ex) {
+                // ignore
+            } catch (ExecutionException ex) {
+                // ignore
+            }
+        } else {
+            // buffer of in-flight fetch is left to GC
+            chunk.cancel(false);
+        }
+    }
+}
@@ -26,11 +26,21 @@ package stargate.drivers.userinterface.http;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FSInputStream;
+import stargate.commons.recipe.ChunkBufferPool;
 import stargate.commons.recipe.ChunkData;
+import stargate.commons.recipe.DataChunkBatchReader;
 import stargate.commons.recipe.Recipe;
 import stargate.commons.recipe.RecipeChunk;
 
@@ -42,10 +52,18 @@ public class HTTPChunkInputStream extends FSInputStream {
 
     private static final Log LOG = LogFactory.getLog(HTTPChunkInputStream.class);
     
+    public static final int DEFAULT_READ_AHEAD_WINDOW = 4;
+    public static final int SMALL_READ_THRESHOLD = 64 * 1024;
+    
     private HTTPUserInterfaceClient httpUserInterfaceClient;
     private Recipe recipe;
+    private ChunkBufferPool bufferPool;
+    private ExecutorService readAheadExecutor;
+    private ChunkReadAheadBuffer readAheadBuffer;
+    private int readAheadWindow;
     private ChunkData cachedChunkData;
     private long offset;
+    private long lastReadEnd;
     private long size;
     
     public HTTPChunkInputStream(HTTPUserInterfaceClient client, Recipe recipe) {
@@ -57,10 +75,26 @@ public class HTTPChunkInputStream extends FSInputStream {
             throw new IllegalArgumentException("recipe is null or empty");
         }
         
-        initialize(client, recipe);
+        initialize(client, recipe, null, 0);
+    }
+    
+    public HTTPChunkInputStream(HTTPUserInterfaceClient client, Recipe recipe, ExecutorService readAheadExecutor, int maxReadAheadWindow) {
+        if(client == null) {
+            throw new IllegalArgumentException("client is null");
+        }
+        
+        if(recipe == null || recipe.isEmpty()) {
+            throw new IllegalArgumentException("recipe is null or empty");
+        }
+        
+        if(maxReadAheadWindow < 0) {
+            throw new IllegalArgumentException("maxReadAheadWindow is invalid");
+        }
+        
+        initialize(client, recipe, readAheadExecutor, maxReadAheadWindow);
     }
 
-    private void initialize(HTTPUserInterfaceClient client, Recipe recipe) {
+    private void initialize(HTTPUserInterfaceClient client, Recipe recipe, ExecutorService readAheadExecutor, int maxReadAheadWindow) {
         if(client == null) {
             throw new IllegalArgumentException("client is null");
         }
@@ -71,11 +105,30 @@ public class HTTPChunkInputStream extends FSInputStream {
         
         this.httpUserInterfaceClient = client;
         this.recipe = recipe;
+        this.bufferPool = ChunkBufferPool.getSharedInstance();
+        if(readAheadExecutor != null && maxReadAheadWindow > 0) {
+            this.readAheadExecutor = readAheadExecutor;
+            this.readAheadBuffer = new ChunkReadAheadBuffer(maxReadAheadWindow);
+        } else {
+            this.readAheadExecutor = null;
+            this.readAheadBuffer = null;
+        }
+        // start small and grow while access is sequential
+        this.readAheadWindow = 1;
         this.cachedChunkData = null;
         this.offset = 0;
+        this.lastReadEnd = 0;
         this.size = recipe.getMetadata().getObjectSize();
     }
     
+    protected Recipe getRecipe() {
+        return this.recipe;
+    }
+    
+    protected long getSize() {
+        return this.size;
+    }
+    
     @Override
     public synchronized long getPos() throws IOException {
         return this.offset;
@@ -137,30 +190,270 @@ public class HTTPChunkInputStream extends FSInputStream {
     }
     
     private synchronized void loadChunkData(long offset) throws IOException {
+        if(isChunkDataCached(offset)) {
+            // safe to reuse
+            return;
+        }
+        
+        boolean sequential = isSequentialRead(offset);
+        
+        RecipeChunk chunk = this.recipe.getChunk(offset);
+        
+        // reuse buffer of a previous chunk
+        releaseChunkData();
+        
+        if(this.readAheadBuffer == null) {
+            this.cachedChunkData = fetchChunkData(chunk);
+            return;
+        }
+        
+        if(sequential) {
+            this.readAheadWindow = Math.min(this.readAheadWindow * 2, this.readAheadBuffer.getCapacity());
+        } else {
+            this.readAheadWindow = Math.max(this.readAheadWindow / 2, 1);
+        }
+        
+        Future<ChunkData> prefetched = this.readAheadBuffer.take(chunk.getOffset());
+        if(prefetched != null) {
+            this.cachedChunkData = waitChunkData(prefetched);
+        } else {
+            this.cachedChunkData = fetchChunkData(chunk);
+        }
+        
+        if(sequential || prefetched != null) {
+            readAhead(chunk);
+        }
+    }
+    
+    private synchronized boolean isChunkDataCached(long offset) {
         if(this.cachedChunkData != null) {
             if(this.cachedChunkData.getOffset() <= offset &&
-                    this.cachedChunkData.getOffset() + this.cachedChunkData.getLength() > this.offset) {
-                // safe to reuse
-                return;
+                    this.cachedChunkData.getOffset() + this.cachedChunkData.getLength() > offset) {
+                return true;
             }
         }
+        return false;
+    }
+    
+    private synchronized boolean isSequentialRead(long offset) {
+        if(offset == this.lastReadEnd) {
+            return true;
+        }
         
-        byte[] data = null;
-        RecipeChunk chunk = this.recipe.getChunk(offset);
+        if(this.cachedChunkData != null) {
+            if(this.cachedChunkData.getOffset() + this.cachedChunkData.getLength() == offset) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    protected boolean isSmallRead(RecipeChunk chunk, int len) {
+        if(len <= SMALL_READ_THRESHOLD && (long) len * 4 <= chunk.getLength()) {
+            return true;
+        }
+        return false;
+    }
+    
+    /*
+     * reads a part of a chunk using a ranged request without caching the chunk
+     */
+    protected int readChunkRange(RecipeChunk chunk, long offset, byte[] bytes, int off, int len) throws IOException {
+        long inoffset = offset - chunk.getOffset();
+        int readSize = (int) Math.min(len, chunk.getLength() - inoffset);
+        
+        int readLen = 0;
+        InputStream dataChunkIS = null;
         try {
-            InputStream dataChunkIS = this.httpUserInterfaceClient.getDataChunk(this.recipe.getMetadata().getPath().getClusterName(), chunk.getHashString());
-            data = IOUtils.toByteArray(dataChunkIS);
+            dataChunkIS = this.httpUserInterfaceClient.getDataChunk(this.recipe.getMetadata().getPath().getClusterName(), this.recipe.getHashAlgorithm(), chunk.getHashString(), inoffset, readSize);
+            while(readLen < readSize) {
+                int read = dataChunkIS.read(bytes, off + readLen, readSize - readLen);
+                if(read < 0) {
+                    break;
+                }
+                readLen += read;
+            }
+        } catch (Exception ex) {
+            throw new IOException(ex);
+        } finally {
             IOUtils.closeQuietly(dataChunkIS);
+        }
+        
+        if(readLen != readSize) {
+            throw new IOException("received chunk data does not match to requested size");
+        }
+        return readSize;
+    }
+    
+    private synchronized void readAhead(RecipeChunk chunk) throws IOException {
+        long nextOffset = chunk.getOffset() + chunk.getLength();
+        if(this.readAheadBuffer.size() > 0) {
+            long lastOffset = this.readAheadBuffer.getLastOffset();
+            RecipeChunk lastChunk = this.recipe.getChunk(lastOffset);
+            nextOffset = lastChunk.getOffset() + lastChunk.getLength();
+        }
+        
+        final List<RecipeChunk> nextChunks = new ArrayList<RecipeChunk>();
+        while(this.readAheadBuffer.size() + nextChunks.size() < this.readAheadWindow && nextOffset < this.size) {
+            RecipeChunk nextChunk = this.recipe.getChunk(nextOffset);
+            if(nextChunk == null) {
+                break;
+            }
+            
+            nextChunks.add(nextChunk);
+            nextOffset = nextChunk.getOffset() + nextChunk.getLength();
+        }
+        
+        if(nextChunks.isEmpty()) {
+            return;
+        }
+        
+        // chunks in the window are fetched in a single batch request
+        final ChunkData[] batchChunkData = new ChunkData[nextChunks.size()];
+        final List<FutureTask<ChunkData>> tasks = new ArrayList<FutureTask<ChunkData>>();
+        for(int i=0;i<nextChunks.size();i++) {
+            final RecipeChunk nextChunk = nextChunks.get(i);
+            final int index = i;
+            tasks.add(new FutureTask<ChunkData>(new Callable<ChunkData>() {
+
+                @Override
+                public ChunkData call() throws Exception {
+                    ChunkData chunkData = batchChunkData[index];
+                    if(chunkData == null) {
+                        // not included in the batch
+                        chunkData = fetchChunkData(nextChunk);
+                    }
+                    return chunkData;
+                }
+            }));
+        }
+        
+        try {
+            this.readAheadExecutor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    if(nextChunks.size() > 1) {
+                        try {
+                            fetchChunkDataBatch(nextChunks, batchChunkData, bufferPool);
+                        } catch (IOException ex) {
+                            LOG.error("Unable to read-ahead chunks in a batch", ex);
+                        }
+                    }
+                    
+                    for(FutureTask<ChunkData> task : tasks) {
+                        task.run();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            LOG.error("Unable to schedule read-ahead", ex);
+            return;
+        }
+        
+        for(int i=0;i<nextChunks.size();i++) {
+            this.readAheadBuffer.add(nextChunks.get(i).getOffset(), tasks.get(i));
+        }
+    }
+    
+    private ChunkData waitChunkData(Future<ChunkData> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            throw new IOException(ex.getCause());
+        }
+    }
+    
+    private ChunkData fetchChunkData(RecipeChunk chunk) throws IOException {
+        return fetchChunkData(chunk, this.bufferPool);
+    }
+    
+    protected ChunkData fetchChunkData(RecipeChunk chunk, ChunkBufferPool pool) throws IOException {
+        InputStream dataChunkIS = null;
+        try {
+            dataChunkIS = this.httpUserInterfaceClient.getDataChunk(this.recipe.getMetadata().getPath().getClusterName(), this.recipe.getHashAlgorithm(), chunk.getHashString());
+            return readChunkData(chunk, dataChunkIS, pool);
+        } finally {
+            IOUtils.closeQuietly(dataChunkIS);
+        }
+    }
+    
+    /*
+     * results are matched to chunks by position, missing entries are left null
+     */
+    protected void fetchChunkDataBatch(List<RecipeChunk> chunks, ChunkData[] results, ChunkBufferPool pool) throws IOException {
+        List<String> hashes = new ArrayList<String>();
+        for(RecipeChunk chunk : chunks) {
+            hashes.add(chunk.getHashString());
+        }
+        
+        DataChunkBatchReader reader = this.httpUserInterfaceClient.getDataChunks(this.recipe.getMetadata().getPath().getClusterName(), this.recipe.getHashAlgorithm(), hashes);
+        try {
+            int index = 0;
+            while(index < chunks.size() && reader.next()) {
+                RecipeChunk chunk = chunks.get(index);
+                if(reader.isAvailable() && reader.getHash().equalsIgnoreCase(chunk.getHashString())) {
+                    try {
+                        results[index] = readChunkData(chunk, reader.getInputStream(), pool);
+                    } catch (IOException ex) {
+                        LOG.error("Unable to read a chunk in a batch - " + chunk.getHashString(), ex);
+                    }
+                }
+                index++;
+            }
+        } finally {
+            reader.close();
+        }
+    }
+    
+    private ChunkData readChunkData(RecipeChunk chunk, InputStream dataChunkIS, ChunkBufferPool pool) throws IOException {
+        int chunkLength = chunk.getLength();
+        
+        byte[] data;
+        if(pool != null) {
+            data = pool.allocate(chunkLength);
+        } else {
+            data = new byte[chunkLength];
+        }
+        int readLen = 0;
+        try {
+            while(readLen < chunkLength) {
+                int read = dataChunkIS.read(data, readLen, chunkLength - readLen);
+                if(read < 0) {
+                    break;
+                }
+                readLen += read;
+            }
+            
+            if(readLen == chunkLength && dataChunkIS.read() >= 0) {
+                // received more than requested
+                readLen++;
+            }
         } catch (Exception ex) {
+            if(pool != null) {
+                pool.release(data);
+            }
             throw new IOException(ex);
         }
         
-        if (data == null || data.length != chunk.getLength()) {
+        if (readLen != chunkLength) {
+            if(pool != null) {
+                pool.release(data);
+            }
             throw new IOException("received chunk data does not match to requested size");
         }
 
-        ChunkData chunkdata = new ChunkData(chunk.getOffset(), chunk.getLength(), data);
-        this.cachedChunkData = chunkdata;
+        return new ChunkData(chunk.getOffset(), chunk.getLength(), data, pool);
+    }
+    
+    private synchronized void releaseChunkData() {
+        if(this.cachedChunkData != null) {
+            this.cachedChunkData.close();
+            this.cachedChunkData = null;
+        }
     }
     
     private synchronized boolean isEOF() {
@@ -179,9 +472,10 @@ public class HTTPChunkInputStream extends FSInputStream {
         loadChunkData(this.offset);
         
         int inoffset = (int) (this.offset - this.cachedChunkData.getOffset());
-        byte ch = this.cachedChunkData.getData()[inoffset];
+        int ch = this.cachedChunkData.getData()[inoffset] & 0xff;
         
         this.offset++;
+        this.lastReadEnd = this.offset;
         return ch;
     }
     
@@ -201,6 +495,19 @@ public class HTTPChunkInputStream extends FSInputStream {
         
         int doff = off;
         while(remain > 0) {
+            if(!isChunkDataCached(this.offset) && !isSequentialRead(this.offset)) {
+                // small random read - fetch only the requested range
+                RecipeChunk chunk = this.recipe.getChunk(this.offset);
+                if(isSmallRead(chunk, remain)) {
+                    int inlength = readChunkRange(chunk, this.offset, bytes, doff, remain);
+                    this.offset += inlength;
+                    this.lastReadEnd = this.offset;
+                    doff += inlength;
+                    remain -= inlength;
+                    continue;
+                }
+            }
+            
             loadChunkData(this.offset);
 
             int inoffset = (int) (this.offset - this.cachedChunkData.getOffset());
@@ -208,6 +515,7 @@ public class HTTPChunkInputStream extends FSInputStream {
             
             System.arraycopy(this.cachedChunkData.getData(), inoffset, bytes, doff, inlength);
             this.offset += inlength;
+            this.lastReadEnd = this.offset;
             doff += inlength;
             remain -= inlength;
         }
@@ -216,7 +524,12 @@ public class HTTPChunkInputStream extends FSInputStream {
     
     @Override
     public synchronized void close() throws IOException {
+        releaseChunkData();
+        if(this.readAheadBuffer != null) {
+            this.readAheadBuffer.clear();
+        }
         this.offset = 0;
+        this.lastReadEnd = 0;
     }
     
     @Override
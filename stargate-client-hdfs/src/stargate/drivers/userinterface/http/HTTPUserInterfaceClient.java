@@ -28,6 +28,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,6 +36,7 @@ import stargate.commons.restful.RestfulClient;
 import stargate.commons.restful.RestfulResponse;
 import stargate.commons.restful.WebParamBuilder;
 import stargate.commons.cluster.RemoteCluster;
+import stargate.commons.recipe.DataChunkBatchReader;
 import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
@@ -229,6 +231,14 @@ public class HTTPUserInterfaceClient extends AUserInterfaceClient {
     
     @Override
     public InputStream getDataChunk(String clusterName, String hash) throws IOException {
+        return getDataChunk(clusterName, null, hash);
+    }
+    
+    /*
+     * hashAlgorithm is the algorithm of the recipe owning the chunk, the server verifies
+     * remote chunks with it before caching them
+     */
+    public InputStream getDataChunk(String clusterName, String hashAlgorithm, String hash) throws IOException {
         if(clusterName == null || clusterName.isEmpty()) {
             throw new IllegalArgumentException("clusterName is null or empty");
         }
@@ -241,7 +251,7 @@ public class HTTPUserInterfaceClient extends AUserInterfaceClient {
         
         try {
             String datachunkUrl = PathUtils.concatPath(HTTPUserInterfaceRestfulConstants.RESTFUL_DATACHUNK_PATH, clusterName + "/" + hash);
-            String url = getResourcePath(datachunkUrl);
+            String url = makeDataChunkURL(getResourcePath(datachunkUrl), hashAlgorithm);
             return this.restfulClient.download(url);
         } catch (IOException ex) {
             LOG.error("Exception occurred while calling Restful operation", ex);
@@ -249,6 +259,42 @@ public class HTTPUserInterfaceClient extends AUserInterfaceClient {
         }
     }
     
+    @Override
+    public InputStream getDataChunk(String clusterName, String hash, long offset, int size) throws IOException {
+        return getDataChunk(clusterName, null, hash, offset, size);
+    }
+    
+    public InputStream getDataChunk(String clusterName, String hashAlgorithm, String hash, long offset, int size) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        LOG.info("getDataChunk : " + hash + " (" + offset + ", " + size + ")");
+        
+        try {
+            String datachunkUrl = PathUtils.concatPath(HTTPUserInterfaceRestfulConstants.RESTFUL_DATACHUNK_PATH, clusterName + "/" + hash);
+            String url = makeDataChunkURL(getResourcePath(datachunkUrl), hashAlgorithm);
+            return this.restfulClient.download(url, offset, size);
+        } catch (IOException ex) {
+            LOG.error("Exception occurred while calling Restful operation", ex);
+            throw ex;
+        }
+    }
+    
+    private String makeDataChunkURL(String resourcePath, String hashAlgorithm) {
+        if(hashAlgorithm == null || hashAlgorithm.isEmpty()) {
+            return resourcePath;
+        }
+        
+        WebParamBuilder builder = new WebParamBuilder(resourcePath);
+        builder.addParam("hash_algorithm", hashAlgorithm);
+        return builder.build();
+    }
+    
     @Override
     public boolean schedulePreloadFile(DataObjectPath path) throws IOException {
         if(path == null) {
@@ -299,4 +345,49 @@ public class HTTPUserInterfaceClient extends AUserInterfaceClient {
             return response.getResponse();
         }
     }
+    
+    @Override
+    public long getLastUpdateTime() throws IOException {
+        RestfulResponse<Long> response;
+        try {
+            String url = getResourcePath(HTTPUserInterfaceRestfulConstants.RESTFUL_LAST_UPDATE_TIME_PATH);
+            response = (RestfulResponse<Long>) this.restfulClient.get(url, new GenericType<RestfulResponse<Long>>(){});
+        } catch (IOException ex) {
+            LOG.error("Exception occurred while calling Restful operation", ex);
+            throw ex;
+        }
+        
+        if(response.getException() != null) {
+            throw new IOException(response.getException());
+        } else {
+            return response.getResponse();
+        }
+    }
+    
+    @Override
+    public DataChunkBatchReader getDataChunks(String clusterName, Collection<String> hashes) throws IOException {
+        return getDataChunks(clusterName, null, hashes);
+    }
+    
+    public DataChunkBatchReader getDataChunks(String clusterName, String hashAlgorithm, Collection<String> hashes) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hashes == null || hashes.isEmpty()) {
+            throw new IllegalArgumentException("hashes is null or empty");
+        }
+        
+        LOG.info("getDataChunks : " + hashes.size() + " chunks");
+        
+        try {
+            // hashes are sent in the body, a batch does not fit in a query string
+            String datachunksUrl = PathUtils.concatPath(HTTPUserInterfaceRestfulConstants.RESTFUL_DATACHUNKS_PATH, clusterName);
+            String url = makeDataChunkURL(getResourcePath(datachunksUrl), hashAlgorithm);
+            return new DataChunkBatchReader(this.restfulClient.download(url, new ArrayList<String>(hashes)));
+        } catch (IOException ex) {
+            LOG.error("Exception occurred while calling Restful operation", ex);
+            throw ex;
+        }
+    }
 }
@@ -24,6 +24,7 @@
 package stargate.commons.datastore;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -38,6 +39,8 @@ public abstract class ADataStore {
     public abstract boolean containsKey(String key);
     
     public abstract Object get(String key) throws IOException;
+    // returns values of keys present in the store
+    public abstract Map<String, Object> getAll(Set<String> keys) throws IOException;
     public abstract void put(String key, Object value) throws IOException;
     public abstract void putIfAbsent(String key, Object value) throws IOException;
     public abstract void remove(String key) throws IOException;
@@ -23,10 +23,28 @@
  */
 package stargate.commons.datastore;
 
+import java.io.IOException;
+import java.util.Set;
+
 /**
  *
  * @author iychoi
  */
 public abstract class ADistributedDataStore extends ADataStore {
+    /*
+     * keys whose partitions are owned by this member
+     */
+    public abstract Set<String> localKeySet() throws IOException;
+    public abstract boolean isLocalKey(String key);
+    
+    /*
+     * puts a value that expires after ttlSec seconds
+     */
+    public abstract void put(String key, Object value, long ttlSec) throws IOException;
     
+    /*
+     * cluster-wide lock of a key to make read-modify-write of its value atomic
+     */
+    public abstract void lock(String key);
+    public abstract void unlock(String key);
 }
@@ -50,6 +50,28 @@ public class VolumePolicy extends APolicy {
     private static final String POLICY_KEY_REMOTE_CLUSTER_DATA_OBJECT_METADATA_SYNC_PERIOD = "volume.remote.dataobject.metadata.sync.period";
     private long remoteClusterDataObjectMetadataSyncPeriod = DEFAULT_REMOTE_CLUSTER_DATA_OBJECT_METADATA_SYNC_PERIOD;
     
+    // block cache
+    private static final long DEFAULT_BLOCK_CACHE_CAPACITY = 10L * 1024 * 1024 * 1024;
+    private static final String POLICY_KEY_BLOCK_CACHE_CAPACITY = "volume.blockcache.capacity";
+    private long blockCacheCapacity = DEFAULT_BLOCK_CACHE_CAPACITY;
+    
+    private static final long DEFAULT_BLOCK_CACHE_MEMORY_CAPACITY = 256L * 1024 * 1024;
+    private static final String POLICY_KEY_BLOCK_CACHE_MEMORY_CAPACITY = "volume.blockcache.memory.capacity";
+    private long blockCacheMemoryCapacity = DEFAULT_BLOCK_CACHE_MEMORY_CAPACITY;
+    
+    public static final String BLOCK_CACHE_EVICTION_POLICY_LRU = "LRU";
+    public static final String BLOCK_CACHE_EVICTION_POLICY_LFU = "LFU";
+    public static final String BLOCK_CACHE_EVICTION_POLICY_GDSF = "GDSF";
+    private static final String DEFAULT_BLOCK_CACHE_EVICTION_POLICY = BLOCK_CACHE_EVICTION_POLICY_LRU;
+    private static final String POLICY_KEY_BLOCK_CACHE_EVICTION_POLICY = "volume.blockcache.eviction.policy";
+    private String blockCacheEvictionPolicy = DEFAULT_BLOCK_CACHE_EVICTION_POLICY;
+    
+    public static final String BLOCK_CACHE_ADMISSION_POLICY_NONE = "NONE";
+    public static final String BLOCK_CACHE_ADMISSION_POLICY_TINYLFU = "TINYLFU";
+    private static final String DEFAULT_BLOCK_CACHE_ADMISSION_POLICY = BLOCK_CACHE_ADMISSION_POLICY_NONE;
+    private static final String POLICY_KEY_BLOCK_CACHE_ADMISSION_POLICY = "volume.blockcache.admission.policy";
+    private String blockCacheAdmissionPolicy = DEFAULT_BLOCK_CACHE_ADMISSION_POLICY;
+    
     public static VolumePolicy createInstance(File file) throws IOException {
         if(file == null) {
             throw new IllegalArgumentException("file is null");
@@ -71,11 +93,19 @@ public class VolumePolicy extends APolicy {
     public VolumePolicy() {
         this.localClusterRecipeSyncPeriod = DEFAULT_LOCAL_CLUSTER_RECIPE_SYNC_PERIOD;
         this.remoteClusterDataObjectMetadataSyncPeriod = DEFAULT_REMOTE_CLUSTER_DATA_OBJECT_METADATA_SYNC_PERIOD;
+        this.blockCacheCapacity = DEFAULT_BLOCK_CACHE_CAPACITY;
+        this.blockCacheMemoryCapacity = DEFAULT_BLOCK_CACHE_MEMORY_CAPACITY;
+        this.blockCacheEvictionPolicy = DEFAULT_BLOCK_CACHE_EVICTION_POLICY;
+        this.blockCacheAdmissionPolicy = DEFAULT_BLOCK_CACHE_ADMISSION_POLICY;
     }
     
     public VolumePolicy(VolumePolicy that) {
         this.localClusterRecipeSyncPeriod = that.localClusterRecipeSyncPeriod;
         this.remoteClusterDataObjectMetadataSyncPeriod = that.remoteClusterDataObjectMetadataSyncPeriod;
+        this.blockCacheCapacity = that.blockCacheCapacity;
+        this.blockCacheMemoryCapacity = that.blockCacheMemoryCapacity;
+        this.blockCacheEvictionPolicy = that.blockCacheEvictionPolicy;
+        this.blockCacheAdmissionPolicy = that.blockCacheAdmissionPolicy;
     }
     
     @JsonProperty("local_cluster_recipe_sync_period")
@@ -106,6 +136,64 @@ public class VolumePolicy extends APolicy {
         }
     }
 
+    @JsonProperty("block_cache_capacity")
+    public long getBlockCacheCapacity() {
+        return this.blockCacheCapacity;
+    }
+    
+    @JsonProperty("block_cache_capacity")
+    public void setBlockCacheCapacity(long capacity) {
+        if(capacity < 0) {
+            // unlimited
+            this.blockCacheCapacity = 0;
+        } else {
+            this.blockCacheCapacity = capacity;
+        }
+    }
+    
+    @JsonProperty("block_cache_memory_capacity")
+    public long getBlockCacheMemoryCapacity() {
+        return this.blockCacheMemoryCapacity;
+    }
+    
+    @JsonProperty("block_cache_memory_capacity")
+    public void setBlockCacheMemoryCapacity(long capacity) {
+        if(capacity < 0) {
+            // disabled
+            this.blockCacheMemoryCapacity = 0;
+        } else {
+            this.blockCacheMemoryCapacity = capacity;
+        }
+    }
+    
+    @JsonProperty("block_cache_eviction_policy")
+    public String getBlockCacheEvictionPolicy() {
+        return this.blockCacheEvictionPolicy;
+    }
+    
+    @JsonProperty("block_cache_eviction_policy")
+    public void setBlockCacheEvictionPolicy(String policy) {
+        if(policy == null || policy.isEmpty()) {
+            this.blockCacheEvictionPolicy = DEFAULT_BLOCK_CACHE_EVICTION_POLICY;
+        } else {
+            this.blockCacheEvictionPolicy = policy;
+        }
+    }
+    
+    @JsonProperty("block_cache_admission_policy")
+    public String getBlockCacheAdmissionPolicy() {
+        return this.blockCacheAdmissionPolicy;
+    }
+    
+    @JsonProperty("block_cache_admission_policy")
+    public void setBlockCacheAdmissionPolicy(String policy) {
+        if(policy == null || policy.isEmpty()) {
+            this.blockCacheAdmissionPolicy = DEFAULT_BLOCK_CACHE_ADMISSION_POLICY;
+        } else {
+            this.blockCacheAdmissionPolicy = policy;
+        }
+    }
+    
     @JsonIgnore
     @Override
     public void readFrom(ADataStore datastore) {
@@ -115,6 +203,15 @@ public class VolumePolicy extends APolicy {
         
         this.localClusterRecipeSyncPeriod = readIntFrom(datastore, POLICY_KEY_LOCAL_CLUSTER_RECIPE_SYNC_PERIOD, DEFAULT_LOCAL_CLUSTER_RECIPE_SYNC_PERIOD);
         this.remoteClusterDataObjectMetadataSyncPeriod = readLongFrom(datastore, POLICY_KEY_REMOTE_CLUSTER_DATA_OBJECT_METADATA_SYNC_PERIOD, DEFAULT_REMOTE_CLUSTER_DATA_OBJECT_METADATA_SYNC_PERIOD);
+        this.blockCacheCapacity = readLongFrom(datastore, POLICY_KEY_BLOCK_CACHE_CAPACITY, DEFAULT_BLOCK_CACHE_CAPACITY);
+        this.blockCacheMemoryCapacity = readLongFrom(datastore, POLICY_KEY_BLOCK_CACHE_MEMORY_CAPACITY, DEFAULT_BLOCK_CACHE_MEMORY_CAPACITY);
+        try {
+            this.blockCacheEvictionPolicy = readStringFrom(datastore, POLICY_KEY_BLOCK_CACHE_EVICTION_POLICY, DEFAULT_BLOCK_CACHE_EVICTION_POLICY);
+            this.blockCacheAdmissionPolicy = readStringFrom(datastore, POLICY_KEY_BLOCK_CACHE_ADMISSION_POLICY, DEFAULT_BLOCK_CACHE_ADMISSION_POLICY);
+        } catch (IOException ex) {
+            this.blockCacheEvictionPolicy = DEFAULT_BLOCK_CACHE_EVICTION_POLICY;
+            this.blockCacheAdmissionPolicy = DEFAULT_BLOCK_CACHE_ADMISSION_POLICY;
+        }
     }
 
     @JsonIgnore
@@ -126,5 +223,9 @@ public class VolumePolicy extends APolicy {
         
         datastore.put(POLICY_KEY_LOCAL_CLUSTER_RECIPE_SYNC_PERIOD, this.localClusterRecipeSyncPeriod);
         datastore.put(POLICY_KEY_REMOTE_CLUSTER_DATA_OBJECT_METADATA_SYNC_PERIOD, this.remoteClusterDataObjectMetadataSyncPeriod);
+        datastore.put(POLICY_KEY_BLOCK_CACHE_CAPACITY, this.blockCacheCapacity);
+        datastore.put(POLICY_KEY_BLOCK_CACHE_MEMORY_CAPACITY, this.blockCacheMemoryCapacity);
+        datastore.put(POLICY_KEY_BLOCK_CACHE_EVICTION_POLICY, this.blockCacheEvictionPolicy);
+        datastore.put(POLICY_KEY_BLOCK_CACHE_ADMISSION_POLICY, this.blockCacheAdmissionPolicy);
     }
 }
@@ -25,6 +25,7 @@ package stargate.commons.recipe;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import stargate.commons.drivers.ADriver;
 
 /**
@@ -36,4 +37,9 @@ public abstract class ARecipeGeneratorDriver extends ADriver {
     public abstract String getHashAlgorithm();
     public abstract String getHash(byte[] buffer) throws IOException;
     public abstract Recipe getRecipe(DataObjectMetadata metadata, InputStream is) throws IOException;
+    /*
+     * returns chunks of a range starting at a chunk boundary
+     * ranges read from different streams can be processed concurrently
+     */
+    public abstract List<RecipeChunk> getRecipeChunks(long offset, long size, InputStream is) throws IOException;
 }
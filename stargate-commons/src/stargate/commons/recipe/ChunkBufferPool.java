@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.commons.recipe;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * @author iychoi
+ */
+public class ChunkBufferPool {
+    
+    public static final long DEFAULT_MAX_POOLED_SIZE = 64 * 1024 * 1024;
+    private static final int MIN_BUFFER_SIZE = 4 * 1024;
+    
+    private static ChunkBufferPool sharedInstance;
+    
+    private long maxPooledSize;
+    private AtomicLong pooledSize = new AtomicLong();
+    private ConcurrentHashMap<Integer, ConcurrentLinkedQueue<byte[]>> buffers = new ConcurrentHashMap<Integer, ConcurrentLinkedQueue<byte[]>>();
+    
+    public static ChunkBufferPool getSharedInstance() {
+        synchronized (ChunkBufferPool.class) {
+            if(sharedInstance == null) {
+                sharedInstance = new ChunkBufferPool(DEFAULT_MAX_POOLED_SIZE);
+            }
+            return sharedInstance;
+        }
+    }
+    
+    public ChunkBufferPool(long maxPooledSize) {
+        if(maxPooledSize < 0) {
+            throw new IllegalArgumentException("maxPooledSize is invalid");
+        }
+        
+        this.maxPooledSize = maxPooledSize;
+    }
+    
+    private int getBufferSize(int size) {
+        // round up to power of 2 to make buffers reusable across similar sizes
+        int bufferSize = MIN_BUFFER_SIZE;
+        while(bufferSize < size && bufferSize > 0) {
+            bufferSize <<= 1;
+        }
+        
+        if(bufferSize <= 0) {
+            return size;
+        }
+        return bufferSize;
+    }
+    
+    public byte[] allocate(int size) {
+        if(size < 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        int bufferSize = getBufferSize(size);
+        ConcurrentLinkedQueue<byte[]> queue = this.buffers.get(bufferSize);
+        if(queue != null) {
+            byte[] buffer = queue.poll();
+            if(buffer != null) {
+                this.pooledSize.addAndGet(-buffer.length);
+                return buffer;
+            }
+        }
+        return new byte[bufferSize];
+    }
+    
+    public void release(byte[] buffer) {
+        if(buffer == null) {
+            return;
+        }
+        
+        if(getBufferSize(buffer.length) != buffer.length) {
+            // not allocated from this pool
+            return;
+        }
+        
+        if(this.pooledSize.addAndGet(buffer.length) > this.maxPooledSize) {
+            // pool is full - let GC collect
+            this.pooledSize.addAndGet(-buffer.length);
+            return;
+        }
+        
+        ConcurrentLinkedQueue<byte[]> queue = this.buffers.get(buffer.length);
+        if(queue == null) {
+            ConcurrentLinkedQueue<byte[]> newQueue = new ConcurrentLinkedQueue<byte[]>();
+            queue = this.buffers.putIfAbsent(buffer.length, newQueue);
+            if(queue == null) {
+                queue = newQueue;
+            }
+        }
+        queue.offer(buffer);
+    }
+    
+    public long getPooledSize() {
+        return this.pooledSize.get();
+    }
+}
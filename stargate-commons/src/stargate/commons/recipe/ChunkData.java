@@ -24,19 +24,30 @@
 
 package stargate.commons.recipe;
 
+import java.io.Closeable;
+
 /**
  *
  * @author iychoi
  */
-public class ChunkData {
+public class ChunkData implements Closeable {
     private long offset;
     private long length;
     private byte[] data;
+    private ChunkBufferPool pool;
     
     public ChunkData(long offset, long length, byte[] data) {
         this.offset = offset;
         this.length = length;
         this.data = data;
+        this.pool = null;
+    }
+    
+    public ChunkData(long offset, long length, byte[] data, ChunkBufferPool pool) {
+        this.offset = offset;
+        this.length = length;
+        this.data = data;
+        this.pool = pool;
     }
     
     public long getOffset() {
@@ -47,7 +58,20 @@ public class ChunkData {
         return this.length;
     }
     
+    // data buffer can be larger than length when it is pooled
     public byte[] getData() {
         return this.data;
     }
+    
+    public synchronized boolean isReleased() {
+        return this.data == null;
+    }
+    
+    @Override
+    public synchronized void close() {
+        if(this.pool != null && this.data != null) {
+            this.pool.release(this.data);
+        }
+        this.data = null;
+    }
 }
@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.commons.recipe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ *
+ * @author iychoi
+ */
+public class DataChunkBatchReader implements Closeable {
+    
+    private DataInputStream in;
+    private boolean finished;
+    private String hash;
+    private boolean available;
+    private SegmentInputStream segmentInputStream;
+    
+    public DataChunkBatchReader(InputStream in) {
+        if(in == null) {
+            throw new IllegalArgumentException("in is null");
+        }
+        
+        this.in = new DataInputStream(in);
+        this.finished = false;
+    }
+    
+    /*
+     * for readers that produce data chunks without a serialized batch
+     */
+    protected DataChunkBatchReader() {
+        this.in = null;
+        this.finished = true;
+    }
+    
+    /*
+     * moves to the next data chunk, skips unread data of the current one
+     * returns false at the end of the batch
+     */
+    public boolean next() throws IOException {
+        if(this.finished) {
+            return false;
+        }
+        
+        if(this.segmentInputStream != null) {
+            this.segmentInputStream.drain();
+            this.segmentInputStream = null;
+        }
+        
+        if(!this.in.readBoolean()) {
+            this.finished = true;
+            this.hash = null;
+            this.available = false;
+            return false;
+        }
+        
+        this.hash = this.in.readUTF();
+        this.available = this.in.readBoolean();
+        if(this.available) {
+            this.segmentInputStream = new SegmentInputStream();
+        }
+        return true;
+    }
+    
+    public String getHash() {
+        return this.hash;
+    }
+    
+    public boolean isAvailable() {
+        return this.available;
+    }
+    
+    /*
+     * returns a stream of the current data chunk, valid until next() is called
+     */
+    public InputStream getInputStream() throws IOException {
+        if(this.segmentInputStream == null) {
+            throw new IOException("data chunk is not available");
+        }
+        return this.segmentInputStream;
+    }
+    
+    public byte[] readDataChunk() throws IOException {
+        InputStream is = getInputStream();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[DataChunkBatchWriter.SEGMENT_SIZE];
+        int read = 0;
+        while((read = is.read(buffer)) > 0) {
+            bos.write(buffer, 0, read);
+        }
+        return bos.toByteArray();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if(this.in != null) {
+            this.in.close();
+        }
+    }
+    
+    private class SegmentInputStream extends InputStream {
+        
+        private int remaining = 0;
+        private boolean eof = false;
+        
+        private boolean fill() throws IOException {
+            while(this.remaining == 0) {
+                if(this.eof) {
+                    return false;
+                }
+                
+                this.remaining = in.readInt();
+                if(this.remaining < 0) {
+                    throw new IOException("invalid segment length : " + this.remaining);
+                }
+                
+                if(this.remaining == 0) {
+                    this.eof = true;
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            if(!fill()) {
+                return -1;
+            }
+            
+            int b = in.read();
+            if(b < 0) {
+                throw new EOFException("unexpected end of data chunk batch");
+            }
+            this.remaining--;
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            if(len == 0) {
+                return 0;
+            }
+            
+            if(!fill()) {
+                return -1;
+            }
+            
+            int read = in.read(bytes, off, Math.min(len, this.remaining));
+            if(read < 0) {
+                throw new EOFException("unexpected end of data chunk batch");
+            }
+            this.remaining -= read;
+            return read;
+        }
+        
+        @Override
+        public int available() throws IOException {
+            return this.remaining;
+        }
+        
+        @Override
+        public void close() {
+            // underlying stream is closed with the reader
+        }
+        
+        private void drain() throws IOException {
+            while(fill()) {
+                int skipped = in.skipBytes(this.remaining);
+                if(skipped <= 0) {
+                    throw new EOFException("unexpected end of data chunk batch");
+                }
+                this.remaining -= skipped;
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.commons.recipe;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ *
+ * @author iychoi
+ */
+public class DataChunkBatchWriter implements Closeable {
+    
+    /*
+     * a batch is a sequence of entries terminated by a false marker
+     * entry : [boolean true][UTF hash][boolean available] followed by
+     * [int length][bytes] segments terminated by a zero-length segment when available
+     */
+    public static final int SEGMENT_SIZE = 64 * 1024;
+    
+    private DataOutputStream out;
+    private boolean finished;
+    private long dataSize;
+    
+    public DataChunkBatchWriter(OutputStream out) {
+        if(out == null) {
+            throw new IllegalArgumentException("out is null");
+        }
+        
+        this.out = new DataOutputStream(out);
+        this.finished = false;
+        this.dataSize = 0;
+    }
+    
+    public void writeDataChunk(String hash, InputStream is) throws IOException {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        if(is == null) {
+            writeUnavailableDataChunk(hash);
+            return;
+        }
+        
+        this.out.writeBoolean(true);
+        this.out.writeUTF(hash);
+        this.out.writeBoolean(true);
+        
+        ChunkBufferPool pool = ChunkBufferPool.getSharedInstance();
+        byte[] buffer = pool.allocate(SEGMENT_SIZE);
+        try {
+            int read = 0;
+            while((read = is.read(buffer, 0, SEGMENT_SIZE)) >= 0) {
+                if(read > 0) {
+                    this.out.writeInt(read);
+                    this.out.write(buffer, 0, read);
+                    this.dataSize += read;
+                }
+            }
+        } finally {
+            pool.release(buffer);
+            is.close();
+        }
+        
+        this.out.writeInt(0);
+    }
+    
+    public void writeDataChunk(String hash, byte[] data, int offset, int length) throws IOException {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        if(data == null) {
+            writeUnavailableDataChunk(hash);
+            return;
+        }
+        
+        this.out.writeBoolean(true);
+        this.out.writeUTF(hash);
+        this.out.writeBoolean(true);
+        if(length > 0) {
+            this.out.writeInt(length);
+            this.out.write(data, offset, length);
+            this.dataSize += length;
+        }
+        this.out.writeInt(0);
+    }
+    
+    public void writeUnavailableDataChunk(String hash) throws IOException {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        this.out.writeBoolean(true);
+        this.out.writeUTF(hash);
+        this.out.writeBoolean(false);
+    }
+    
+    public long getDataSize() {
+        return this.dataSize;
+    }
+    
+    public void finish() throws IOException {
+        if(!this.finished) {
+            this.out.writeBoolean(false);
+            this.out.flush();
+            this.finished = true;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        finish();
+        this.out.close();
+    }
+}
@@ -39,10 +39,18 @@ public class DataObjectMetadata {
     
     private static final Log LOG = LogFactory.getLog(DataObjectMetadata.class);
     
+    // recipe of the data object is queued for generation
+    public static final String STATUS_PENDING = "pending";
+    // recipe of the data object is being generated
+    public static final String STATUS_INDEXING = "indexing";
+    // recipe of the data object is available
+    public static final String STATUS_READY = "ready";
+    
     private DataObjectPath path;
     private long objectSize;
     private boolean directory;
     private long lastModificationTime;
+    private String status;
     
     public static DataObjectMetadata createInstance(File file) throws IOException {
         if(file == null) {
@@ -67,6 +75,7 @@ public class DataObjectMetadata {
         this.objectSize = 0;
         this.directory = false;
         this.lastModificationTime = 0;
+        this.status = STATUS_READY;
     }
     
     public DataObjectMetadata(DataObjectMetadata that) {
@@ -74,6 +83,7 @@ public class DataObjectMetadata {
         this.objectSize = that.objectSize;
         this.directory = that.directory;
         this.lastModificationTime = that.lastModificationTime;
+        this.status = that.status;
     }
     
     public DataObjectMetadata(DataObjectPath path, long objSize, long lastModificationTime) {
@@ -125,6 +135,7 @@ public class DataObjectMetadata {
         this.objectSize = objSize;
         this.directory = directory;
         this.lastModificationTime = lastModificationTime;
+        this.status = STATUS_READY;
     }
     
     @JsonProperty("path")
@@ -179,6 +190,25 @@ public class DataObjectMetadata {
         this.lastModificationTime = lastModificationTime;
     }
     
+    @JsonProperty("status")
+    public String getStatus() {
+        return this.status;
+    }
+    
+    @JsonProperty("status")
+    public void setStatus(String status) {
+        if(status == null || status.isEmpty()) {
+            throw new IllegalArgumentException("status is null or empty");
+        }
+        
+        this.status = status;
+    }
+    
+    @JsonIgnore
+    public boolean isReady() {
+        return STATUS_READY.equals(this.status);
+    }
+    
     @JsonIgnore
     public boolean isEmpty() {
         if(this.path == null) {
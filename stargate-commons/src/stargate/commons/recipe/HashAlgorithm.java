@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.commons.recipe;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *
+ * @author iychoi
+ */
+public class HashAlgorithm {
+    
+    public static final String SHA1 = "SHA-1";
+    public static final String SHA256 = "SHA-256";
+    public static final String MURMUR3_128 = Murmur3MessageDigest.ALGORITHM;
+    
+    private static final ThreadLocal<Map<String, MessageDigest>> THREAD_DIGESTS = new ThreadLocal<Map<String, MessageDigest>>() {
+        @Override
+        protected Map<String, MessageDigest> initialValue() {
+            return new HashMap<String, MessageDigest>();
+        }
+    };
+    
+    public static MessageDigest createMessageDigest(String algorithm) throws NoSuchAlgorithmException {
+        if(algorithm == null || algorithm.isEmpty()) {
+            throw new IllegalArgumentException("algorithm is null or empty");
+        }
+        
+        if(algorithm.equalsIgnoreCase(MURMUR3_128)) {
+            return new Murmur3MessageDigest();
+        }
+        return MessageDigest.getInstance(algorithm);
+    }
+    
+    /*
+     * returns a reset digest owned by the calling thread
+     * do not keep it beyond a single hash computation
+     */
+    public static MessageDigest getThreadMessageDigest(String algorithm) throws NoSuchAlgorithmException {
+        if(algorithm == null || algorithm.isEmpty()) {
+            throw new IllegalArgumentException("algorithm is null or empty");
+        }
+        
+        Map<String, MessageDigest> digests = THREAD_DIGESTS.get();
+        MessageDigest messageDigest = digests.get(algorithm);
+        if(messageDigest == null) {
+            messageDigest = createMessageDigest(algorithm);
+            digests.put(algorithm, messageDigest);
+        } else {
+            messageDigest.reset();
+        }
+        return messageDigest;
+    }
+    
+    public static boolean isSupported(String algorithm) {
+        if(algorithm == null || algorithm.isEmpty()) {
+            return false;
+        }
+        
+        try {
+            getThreadMessageDigest(algorithm);
+            return true;
+        } catch (NoSuchAlgorithmException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.commons.recipe;
+
+import java.security.MessageDigest;
+
+/**
+ *
+ * @author iychoi
+ */
+public class Murmur3MessageDigest extends MessageDigest implements Cloneable {
+    
+    /*
+     * MurmurHash3 x64 128-bit variant with seed 0
+     * non-cryptographic, only for trusted deployments
+     */
+    public static final String ALGORITHM = "MURMUR3-128";
+    
+    private static final int BLOCK_SIZE = 16;
+    private static final int DIGEST_LENGTH = 16;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    
+    private long h1;
+    private long h2;
+    private long length;
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength;
+    
+    public Murmur3MessageDigest() {
+        super(ALGORITHM);
+        
+        engineReset();
+    }
+    
+    @Override
+    protected int engineGetDigestLength() {
+        return DIGEST_LENGTH;
+    }
+    
+    @Override
+    protected void engineUpdate(byte input) {
+        this.block[this.blockLength++] = input;
+        this.length++;
+        if(this.blockLength == BLOCK_SIZE) {
+            processBlock(this.block, 0);
+            this.blockLength = 0;
+        }
+    }
+    
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int len) {
+        this.length += len;
+        
+        // fill a partial block first
+        if(this.blockLength > 0) {
+            int toCopy = Math.min(BLOCK_SIZE - this.blockLength, len);
+            System.arraycopy(input, offset, this.block, this.blockLength, toCopy);
+            this.blockLength += toCopy;
+            offset += toCopy;
+            len -= toCopy;
+            
+            if(this.blockLength < BLOCK_SIZE) {
+                return;
+            }
+            
+            processBlock(this.block, 0);
+            this.blockLength = 0;
+        }
+        
+        while(len >= BLOCK_SIZE) {
+            processBlock(input, offset);
+            offset += BLOCK_SIZE;
+            len -= BLOCK_SIZE;
+        }
+        
+        if(len > 0) {
+            System.arraycopy(input, offset, this.block, 0, len);
+            this.blockLength = len;
+        }
+    }
+    
+    @Override
+    protected byte[] engineDigest() {
+        long k1 = 0;
+        long k2 = 0;
+        
+        // tail
+        for(int i=this.blockLength-1;i>=8;i--) {
+            k2 ^= ((long) this.block[i] & 0xff) << ((i - 8) * 8);
+        }
+        
+        for(int i=Math.min(this.blockLength, 8)-1;i>=0;i--) {
+            k1 ^= ((long) this.block[i] & 0xff) << (i * 8);
+        }
+        
+        if(this.blockLength > 8) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            this.h2 ^= k2;
+        }
+        
+        if(this.blockLength > 0) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            this.h1 ^= k1;
+        }
+        
+        // finalization
+        long r1 = this.h1 ^ this.length;
+        long r2 = this.h2 ^ this.length;
+        
+        r1 += r2;
+        r2 += r1;
+        
+        r1 = fmix(r1);
+        r2 = fmix(r2);
+        
+        r1 += r2;
+        r2 += r1;
+        
+        byte[] digest = new byte[DIGEST_LENGTH];
+        putLong(digest, 0, r1);
+        putLong(digest, 8, r2);
+        
+        engineReset();
+        return digest;
+    }
+    
+    @Override
+    protected void engineReset() {
+        this.h1 = 0;
+        this.h2 = 0;
+        this.length = 0;
+        this.blockLength = 0;
+    }
+    
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        Murmur3MessageDigest that = (Murmur3MessageDigest) super.clone();
+        that.block = this.block.clone();
+        return that;
+    }
+    
+    private void processBlock(byte[] buffer, int offset) {
+        long k1 = getLong(buffer, offset);
+        long k2 = getLong(buffer, offset + 8);
+        
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        this.h1 ^= k1;
+        
+        this.h1 = Long.rotateLeft(this.h1, 27);
+        this.h1 += this.h2;
+        this.h1 = this.h1 * 5 + 0x52dce729;
+        
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        this.h2 ^= k2;
+        
+        this.h2 = Long.rotateLeft(this.h2, 31);
+        this.h2 += this.h1;
+        this.h2 = this.h2 * 5 + 0x38495ab5;
+    }
+    
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+    
+    private static long getLong(byte[] buffer, int offset) {
+        return ((long) buffer[offset] & 0xff)
+                | (((long) buffer[offset + 1] & 0xff) << 8)
+                | (((long) buffer[offset + 2] & 0xff) << 16)
+                | (((long) buffer[offset + 3] & 0xff) << 24)
+                | (((long) buffer[offset + 4] & 0xff) << 32)
+                | (((long) buffer[offset + 5] & 0xff) << 40)
+                | (((long) buffer[offset + 6] & 0xff) << 48)
+                | (((long) buffer[offset + 7] & 0xff) << 56);
+    }
+    
+    private static void putLong(byte[] buffer, int offset, long value) {
+        for(int i=0;i<8;i++) {
+            buffer[offset + i] = (byte) (value >>> (i * 8));
+        }
+    }
+}
@@ -68,6 +68,14 @@ public class Recipe {
         return (Recipe) serializer.fromJson(json, Recipe.class);
     }
     
+    public static Recipe createInstance(byte[] bytes) throws IOException {
+        if(bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("bytes is empty or null");
+        }
+        
+        return RecipeCodec.decode(bytes);
+    }
+    
     public Recipe() {
         this.metadata = null;
         this.hashAlgorithm = null;
@@ -186,6 +194,10 @@ public class Recipe {
             }
         }
         
+        if(offset < 0 || this.chunk.isEmpty()) {
+            throw new IOException("unable to find chunk at " + offset);
+        }
+        
         RecipeChunk searchKey = new RecipeChunk();
         searchKey.setOffset(offset);
         searchKey.setLength(0);
@@ -193,14 +205,25 @@ public class Recipe {
 
             @Override
             public int compare(RecipeChunk t, RecipeChunk t1) {
-                return (int) (t.getOffset() - t1.getOffset());
+                if(t.getOffset() < t1.getOffset()) {
+                    return -1;
+                } else if(t.getOffset() > t1.getOffset()) {
+                    return 1;
+                }
+                return 0;
             }
         });
 
         if(location >= 0) {
             return this.chunk.get(location);
         } else {
-            RecipeChunk chunk = this.chunk.get(Math.abs(location + 1));
+            // the chunk containing the offset is the one before the insertion point
+            int index = -(location + 1) - 1;
+            if(index < 0) {
+                throw new IOException("unable to find chunk at " + offset);
+            }
+            
+            RecipeChunk chunk = this.chunk.get(index);
             if(chunk.getOffset() <= offset && 
                     chunk.getOffset() + chunk.getLength() > offset) {
                 return chunk;
@@ -244,6 +267,11 @@ public class Recipe {
         return serializer.toJson(this);
     }
     
+    @JsonIgnore
+    public synchronized byte[] toBytes() throws IOException {
+        return RecipeCodec.encode(this);
+    }
+    
     @JsonIgnore
     public synchronized void saveTo(File file) throws IOException {
         if(file == null) {
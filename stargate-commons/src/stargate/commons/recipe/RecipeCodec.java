@@ -0,0 +1,251 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.commons.recipe;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ *
+ * @author iychoi
+ */
+public class RecipeCodec {
+    
+    /*
+     * binary recipe format
+     * header : magic(4), version(1), flags(1)
+     * metadata : path, object size, directory, last modification time, status
+     * recipe : hash algorithm, chunk size, chunk count, hash length(1)
+     * chunk : offset delta from the end of previous chunk(varlong), length(varint), raw hash
+     * lengths are omitted when all chunks but the last are as large as the chunk size
+     */
+    public static final int MAGIC = 0x53475243; // "SGRC"
+    public static final byte VERSION = 1;
+    
+    private static final byte FLAG_FIXED_LENGTH = 0x01;
+    
+    private static final int HEADER_SIZE = 6;
+    
+    private RecipeCodec() {
+    }
+    
+    public static boolean isEncoded(byte[] bytes) {
+        if(bytes == null || bytes.length < HEADER_SIZE) {
+            return false;
+        }
+        
+        int magic = ((bytes[0] & 0xff) << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+        return magic == MAGIC;
+    }
+    
+    public static byte[] encode(Recipe recipe) throws IOException {
+        if(recipe == null || recipe.isEmpty()) {
+            throw new IllegalArgumentException("recipe is null or empty");
+        }
+        
+        int hashLength = getHashLength(recipe);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256 + (recipe.getChunk().size() * (hashLength + 2)));
+        DataOutputStream dos = new DataOutputStream(bos);
+        write(dos, recipe);
+        dos.flush();
+        return bos.toByteArray();
+    }
+    
+    public static Recipe decode(byte[] bytes) throws IOException {
+        if(bytes == null) {
+            throw new IllegalArgumentException("bytes is null");
+        }
+        
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+        return read(dis);
+    }
+    
+    public static void write(DataOutput out, Recipe recipe) throws IOException {
+        if(out == null) {
+            throw new IllegalArgumentException("out is null");
+        }
+        
+        if(recipe == null || recipe.isEmpty()) {
+            throw new IllegalArgumentException("recipe is null or empty");
+        }
+        
+        Collection<RecipeChunk> chunk = recipe.getChunk();
+        int hashLength = getHashLength(recipe);
+        boolean fixedLength = isFixedLength(recipe);
+        
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(fixedLength ? FLAG_FIXED_LENGTH : 0);
+        
+        DataObjectMetadata metadata = recipe.getMetadata();
+        out.writeUTF(metadata.getPath().toString());
+        out.writeLong(metadata.getObjectSize());
+        out.writeBoolean(metadata.isDirectory());
+        out.writeLong(metadata.getLastModificationTime());
+        out.writeUTF(metadata.getStatus());
+        
+        out.writeUTF(recipe.getHashAlgorithm());
+        out.writeInt(recipe.getChunkSize());
+        out.writeInt(chunk.size());
+        out.writeByte(hashLength);
+        
+        long expectedOffset = 0;
+        int i = 0;
+        for(RecipeChunk c : chunk) {
+            writeVarLong(out, zigzag(c.getOffset() - expectedOffset));
+            if(!fixedLength || i == chunk.size() - 1) {
+                writeVarLong(out, c.getLength());
+            }
+            out.write(c.getHash());
+            
+            expectedOffset = c.getOffset() + c.getLength();
+            i++;
+        }
+    }
+    
+    public static Recipe read(DataInput in) throws IOException {
+        if(in == null) {
+            throw new IllegalArgumentException("in is null");
+        }
+        
+        int magic = in.readInt();
+        if(magic != MAGIC) {
+            throw new IOException("not a binary recipe");
+        }
+        
+        byte version = in.readByte();
+        if(version != VERSION) {
+            throw new IOException("unsupported binary recipe version : " + version);
+        }
+        
+        byte flags = in.readByte();
+        boolean fixedLength = (flags & FLAG_FIXED_LENGTH) != 0;
+        
+        DataObjectPath path = new DataObjectPath(in.readUTF());
+        long objectSize = in.readLong();
+        boolean directory = in.readBoolean();
+        long lastModificationTime = in.readLong();
+        DataObjectMetadata metadata = new DataObjectMetadata(path, objectSize, directory, lastModificationTime);
+        metadata.setStatus(in.readUTF());
+        
+        String hashAlgorithm = in.readUTF();
+        int chunkSize = in.readInt();
+        int count = in.readInt();
+        int hashLength = in.readUnsignedByte();
+        
+        List<RecipeChunk> chunk = new ArrayList<RecipeChunk>(count);
+        long expectedOffset = 0;
+        for(int i=0;i<count;i++) {
+            long offset = expectedOffset + unzigzag(readVarLong(in));
+            int length;
+            if(!fixedLength || i == count - 1) {
+                length = (int) readVarLong(in);
+            } else {
+                length = chunkSize;
+            }
+            
+            byte[] hash = new byte[hashLength];
+            in.readFully(hash);
+            chunk.add(new RecipeChunk(offset, length, hash));
+            
+            expectedOffset = offset + length;
+        }
+        return new Recipe(metadata, hashAlgorithm, chunkSize, chunk);
+    }
+    
+    private static int getHashLength(Recipe recipe) throws IOException {
+        int hashLength = -1;
+        for(RecipeChunk c : recipe.getChunk()) {
+            if(c.getHash() == null) {
+                throw new IOException("chunk has no hash - " + c.getOffset());
+            }
+            
+            if(hashLength < 0) {
+                hashLength = c.getHash().length;
+            } else if(hashLength != c.getHash().length) {
+                throw new IOException("hash lengths of chunks are inconsistent");
+            }
+        }
+        
+        if(hashLength > 255) {
+            throw new IOException("hash is too long : " + hashLength);
+        }
+        return Math.max(hashLength, 0);
+    }
+    
+    private static boolean isFixedLength(Recipe recipe) {
+        if(recipe.getChunkSize() <= 0) {
+            return false;
+        }
+        
+        Collection<RecipeChunk> chunk = recipe.getChunk();
+        int i = 0;
+        for(RecipeChunk c : chunk) {
+            // the last chunk may be smaller
+            if(i < chunk.size() - 1 && c.getLength() != recipe.getChunkSize()) {
+                return false;
+            }
+            i++;
+        }
+        return true;
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+    
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while(shift < 64) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+        throw new IOException("malformed variable-length integer");
+    }
+}
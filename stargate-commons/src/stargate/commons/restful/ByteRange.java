@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.commons.restful;
+
+/**
+ *
+ * @author iychoi
+ */
+public class ByteRange {
+    
+    public static final String RANGE_HEADER = "Range";
+    public static final String CONTENT_RANGE_HEADER = "Content-Range";
+    public static final String ACCEPT_RANGES_HEADER = "Accept-Ranges";
+    public static final String RANGE_UNIT = "bytes";
+    
+    public static final int HTTP_PARTIAL_CONTENT = 206;
+    public static final int HTTP_REQUESTED_RANGE_NOT_SATISFIABLE = 416;
+    
+    private long first;
+    private long last;
+    private long suffixLength;
+    
+    /*
+     * parses a single byte range (e.g., "bytes=0-99", "bytes=100-", "bytes=-100")
+     * returns null if the header is not a single byte range
+     */
+    public static ByteRange parse(String header) {
+        if(header == null || header.isEmpty()) {
+            return null;
+        }
+        
+        String value = header.trim();
+        if(!value.startsWith(RANGE_UNIT + "=")) {
+            return null;
+        }
+        
+        value = value.substring(RANGE_UNIT.length() + 1).trim();
+        if(value.indexOf(",") >= 0) {
+            // multiple ranges are not supported
+            return null;
+        }
+        
+        int idx = value.indexOf("-");
+        if(idx < 0) {
+            return null;
+        }
+        
+        String firstPart = value.substring(0, idx).trim();
+        String lastPart = value.substring(idx + 1).trim();
+        
+        try {
+            if(firstPart.isEmpty()) {
+                if(lastPart.isEmpty()) {
+                    return null;
+                }
+                
+                long suffixLength = Long.parseLong(lastPart);
+                if(suffixLength < 0) {
+                    return null;
+                }
+                return new ByteRange(-1, -1, suffixLength);
+            }
+            
+            long first = Long.parseLong(firstPart);
+            long last = -1;
+            if(!lastPart.isEmpty()) {
+                last = Long.parseLong(lastPart);
+                if(last < first) {
+                    return null;
+                }
+            }
+            
+            if(first < 0) {
+                return null;
+            }
+            return new ByteRange(first, last, -1);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+    
+    public static String makeRangeHeader(long offset, long size) {
+        if(offset < 0) {
+            throw new IllegalArgumentException("offset is invalid");
+        }
+        
+        if(size <= 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        return RANGE_UNIT + "=" + offset + "-" + (offset + size - 1);
+    }
+    
+    public static String makeUnsatisfiableContentRange(long length) {
+        return RANGE_UNIT + " */" + length;
+    }
+    
+    ByteRange(long first, long last, long suffixLength) {
+        this.first = first;
+        this.last = last;
+        this.suffixLength = suffixLength;
+    }
+    
+    public boolean isSatisfiable(long length) {
+        if(this.suffixLength >= 0) {
+            return this.suffixLength > 0 && length > 0;
+        }
+        return this.first < length;
+    }
+    
+    public long getOffset(long length) {
+        if(this.suffixLength >= 0) {
+            return Math.max(length - this.suffixLength, 0);
+        }
+        return this.first;
+    }
+    
+    public long getLength(long length) {
+        long offset = getOffset(length);
+        if(this.suffixLength >= 0 || this.last < 0 || this.last >= length) {
+            return length - offset;
+        }
+        return this.last - offset + 1;
+    }
+    
+    public String makeContentRange(long length) {
+        long offset = getOffset(length);
+        return RANGE_UNIT + " " + offset + "-" + (offset + getLength(length) - 1) + "/" + length;
+    }
+    
+    @Override
+    public String toString() {
+        if(this.suffixLength >= 0) {
+            return RANGE_UNIT + "=-" + this.suffixLength;
+        } else if(this.last < 0) {
+            return RANGE_UNIT + "=" + this.first + "-";
+        } else {
+            return RANGE_UNIT + "=" + this.first + "-" + this.last;
+        }
+    }
+}
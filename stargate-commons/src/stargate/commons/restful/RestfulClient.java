@@ -39,6 +39,7 @@ import java.util.concurrent.Future;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.codehaus.jackson.jaxrs.JacksonJsonProvider;
+import stargate.commons.utils.RangedInputStream;
 
 /**
  *
@@ -193,4 +194,79 @@ public class RestfulClient {
             throw new IOException(ex);
         }
     }
+    
+    /*
+     * posts a request in json and downloads the response, for requests too large for a query string
+     */
+    public InputStream download(String path, Object request) throws IOException {
+        if(path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("path is null or empty");
+        }
+        
+        if(request == null) {
+            throw new IllegalArgumentException("request is null");
+        }
+        
+        URI requestURL = this.serviceURL.resolve(path);
+        
+        AsyncWebResource webResource = this.httpClient.asyncResource(requestURL);
+        Future<ClientResponse> future = (Future<ClientResponse>) webResource.accept("application/octet-stream").type("application/json").post(ClientResponse.class, request);
+        
+        // wait for completition
+        try {
+            ClientResponse response = future.get();
+            if(response.getStatus() < 200 || response.getStatus() > 299) {
+                response.close();
+                throw new IOException("HTTP error code : " + response.getStatus());
+            }
+            
+            return response.getEntityInputStream();
+        } catch (InterruptedException ex) {
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    /*
+     * downloads a byte range, the range is applied locally if server does not support it
+     */
+    public InputStream download(String path, long offset, long size) throws IOException {
+        if(path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("path is null or empty");
+        }
+        
+        if(offset < 0) {
+            throw new IllegalArgumentException("offset is invalid");
+        }
+        
+        if(size <= 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        URI requestURL = this.serviceURL.resolve(path);
+        
+        AsyncWebResource webResource = this.httpClient.asyncResource(requestURL);
+        Future<ClientResponse> future = (Future<ClientResponse>) webResource.header(ByteRange.RANGE_HEADER, ByteRange.makeRangeHeader(offset, size)).accept("application/octet-stream").type("application/json").get(ClientResponse.class);
+        
+        // wait for completition
+        try {
+            ClientResponse response = future.get();
+            if(response.getStatus() == ByteRange.HTTP_PARTIAL_CONTENT) {
+                return response.getEntityInputStream();
+            }
+            
+            if(response.getStatus() < 200 || response.getStatus() > 299) {
+                response.close();
+                throw new IOException("HTTP error code : " + response.getStatus());
+            }
+            
+            // full content
+            return new RangedInputStream(response.getEntityInputStream(), offset, size);
+        } catch (InterruptedException ex) {
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            throw new IOException(ex);
+        }
+    }
 }
@@ -23,6 +23,7 @@
  */
 package stargate.commons.sourcefs;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -45,4 +46,6 @@ public abstract class ASourceFileSystemDriver extends ADriver {
     
     public abstract InputStream getInputStream(URI path) throws IOException, FileNotFoundException;
     public abstract InputStream getInputStream(URI path, long offset, int size) throws IOException, FileNotFoundException;
+    // returns null if the file is not accessible on local disk
+    public abstract File getLocalFile(URI path) throws IOException;
 }
@@ -47,6 +47,7 @@ public abstract class APersistentTemporalStorageDriver extends ADriver {
     public abstract boolean makeDirs(URI path) throws IOException;
     public abstract boolean remove(URI path) throws IOException, FileNotFoundException;
     public abstract boolean removeDir(URI path, boolean recursive) throws IOException, FileNotFoundException;
+    public abstract boolean rename(URI src, URI dest) throws IOException, FileNotFoundException;
     
     public abstract InputStream getInputStream(URI path) throws IOException, FileNotFoundException;
     public abstract OutputStream getOutputStream(URI path) throws IOException;
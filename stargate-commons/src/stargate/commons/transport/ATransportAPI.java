@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
 import stargate.commons.cluster.RemoteCluster;
+import stargate.commons.recipe.DataChunkBatchReader;
 import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
@@ -46,4 +47,6 @@ public abstract class ATransportAPI {
     public abstract Recipe getRecipe(DataObjectPath path) throws IOException;
     public abstract Collection<DataObjectMetadata> listDataObjectMetadata(DataObjectPath path) throws IOException;
     public abstract InputStream getDataChunk(String clusterName, String hash) throws IOException;
+    public abstract InputStream getDataChunk(String clusterName, String hash, long offset, int size) throws IOException;
+    public abstract DataChunkBatchReader getDataChunks(String clusterName, Collection<String> hashes) throws IOException;
 }
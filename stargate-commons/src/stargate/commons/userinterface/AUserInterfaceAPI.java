@@ -28,6 +28,7 @@ import java.io.InputStream;
 import java.net.URI;
 import java.util.Collection;
 import stargate.commons.cluster.RemoteCluster;
+import stargate.commons.recipe.DataChunkBatchReader;
 import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
@@ -47,6 +48,9 @@ public abstract class AUserInterfaceAPI {
     public abstract Recipe getRecipe(DataObjectPath path) throws IOException;
     public abstract Collection<DataObjectMetadata> listDataObjectMetadata(DataObjectPath path) throws IOException;
     public abstract InputStream getDataChunk(String clusterName, String hash) throws IOException;
+    public abstract InputStream getDataChunk(String clusterName, String hash, long offset, int size) throws IOException;
+    public abstract DataChunkBatchReader getDataChunks(String clusterName, Collection<String> hashes) throws IOException;
     public abstract boolean schedulePreloadFile(DataObjectPath path) throws IOException;
     public abstract URI getLocalResourcePath(DataObjectPath path) throws IOException;
+    public abstract long getLastUpdateTime() throws IOException;
 }
@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.commons.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ *
+ * @author iychoi
+ */
+public class RangedInputStream extends InputStream {
+    
+    private InputStream in;
+    private long offset;
+    private long remaining;
+    private boolean skipped;
+    
+    public RangedInputStream(InputStream in, long offset, long size) {
+        if(in == null) {
+            throw new IllegalArgumentException("in is null");
+        }
+        
+        if(offset < 0) {
+            throw new IllegalArgumentException("offset is invalid");
+        }
+        
+        if(size < 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        this.in = in;
+        this.offset = offset;
+        this.remaining = size;
+        this.skipped = false;
+    }
+    
+    private void skipToOffset() throws IOException {
+        if(this.skipped) {
+            return;
+        }
+        
+        long toSkip = this.offset;
+        while(toSkip > 0) {
+            long skip = this.in.skip(toSkip);
+            if(skip <= 0) {
+                // skip may not be supported
+                if(this.in.read() < 0) {
+                    throw new EOFException("cannot skip to offset " + this.offset);
+                }
+                skip = 1;
+            }
+            toSkip -= skip;
+        }
+        this.skipped = true;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        skipToOffset();
+        
+        if(this.remaining <= 0) {
+            return -1;
+        }
+        
+        int ch = this.in.read();
+        if(ch >= 0) {
+            this.remaining--;
+        }
+        return ch;
+    }
+    
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        skipToOffset();
+        
+        if(this.remaining <= 0) {
+            return -1;
+        }
+        
+        int read = this.in.read(bytes, off, (int) Math.min(len, this.remaining));
+        if(read > 0) {
+            this.remaining -= read;
+        }
+        return read;
+    }
+    
+    @Override
+    public int available() throws IOException {
+        if(!this.skipped) {
+            return 0;
+        }
+        return (int) Math.min(this.in.available(), this.remaining);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+}
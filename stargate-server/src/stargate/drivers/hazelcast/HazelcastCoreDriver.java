@@ -32,6 +32,7 @@ import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 import com.hazelcast.core.Member;
+import com.hazelcast.core.Partition;
 import com.hazelcast.core.ReplicatedMap;
 import stargate.drivers.hazelcast.datastore.HazelcastDataStoreDriver;
 import java.io.IOException;
@@ -221,4 +222,16 @@ public class HazelcastCoreDriver extends ADriver {
         Member member = this.hazelcastInstance.getCluster().getMembers().iterator().next();
         return member.localMember();
     }
+    
+    /*
+     * true if this member owns the partition of the key
+     */
+    public boolean isLocalKey(String key) {
+        Partition partition = this.hazelcastInstance.getPartitionService().getPartition(key);
+        Member owner = partition.getOwner();
+        if(owner == null) {
+            return false;
+        }
+        return owner.localMember();
+    }
 }
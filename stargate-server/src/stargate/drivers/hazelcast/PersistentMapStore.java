@@ -30,6 +30,7 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -45,12 +46,15 @@ import stargate.server.temporalstorage.TemporalStorageManager;
  *
  * @author iychoi
  */
-public class PersistentMapStore implements MapStore<String, String> {
+public class PersistentMapStore implements MapStore<String, Object> {
     
     private static final Log LOG = LogFactory.getLog(PersistentMapStore.class);
     
     private static final String BUCKET_ROOT = "persistent";
     
+    // binary values are prefixed to be distinguished from strings, strings never start with NUL
+    private static final byte[] BINARY_ENTRY_HEADER = {0x00, 'B', 'I', 'N'};
+    
     private TemporalStorageManager temporalStorageManager;
     private String mapName;
     private String refinedMapName;
@@ -101,7 +105,7 @@ public class PersistentMapStore implements MapStore<String, String> {
     }
     
     @Override
-    public synchronized void store(String k, String v) {
+    public synchronized void store(String k, Object v) {
         try {
             URI bucketPath = getBucketPath();
             URI entryPath = getEntryFilePath(k);
@@ -112,7 +116,12 @@ public class PersistentMapStore implements MapStore<String, String> {
                 }
                 
                 outputStream = this.temporalStorageManager.getOutputStream(entryPath);
-                IOUtils.write(v, outputStream);
+                if(v instanceof byte[]) {
+                    outputStream.write(BINARY_ENTRY_HEADER);
+                    outputStream.write((byte[]) v);
+                } else {
+                    IOUtils.write((String) v, outputStream);
+                }
             } catch (Exception ex) {
                 LOG.error("Failed to store an entry - " + k, ex);
             } finally {
@@ -126,8 +135,8 @@ public class PersistentMapStore implements MapStore<String, String> {
     }
 
     @Override
-    public synchronized void storeAll(Map<String, String> map) {
-        for(Map.Entry<String, String> entry : map.entrySet()) {
+    public synchronized void storeAll(Map<String, Object> map) {
+        for(Map.Entry<String, Object> entry : map.entrySet()) {
             store(entry.getKey(), entry.getValue());
         }
     }
@@ -154,15 +163,20 @@ public class PersistentMapStore implements MapStore<String, String> {
     }
 
     @Override
-    public synchronized String load(String k) {
+    public synchronized Object load(String k) {
         try {
             URI entryPath = getEntryFilePath(k);
             if(this.temporalStorageManager.exists(entryPath)) {
                 InputStream inputStream = null;
-                String json = null;
+                Object value = null;
                 try {
                     inputStream = this.temporalStorageManager.getInputStream(entryPath);
-                    json = IOUtils.toString(inputStream);
+                    byte[] bytes = IOUtils.toByteArray(inputStream);
+                    if(isBinaryEntry(bytes)) {
+                        value = Arrays.copyOfRange(bytes, BINARY_ENTRY_HEADER.length, bytes.length);
+                    } else {
+                        value = new String(bytes);
+                    }
                 } catch (Exception ex) {
                     LOG.error("Failed to load an entry - " + k, ex);
                 } finally {
@@ -171,7 +185,7 @@ public class PersistentMapStore implements MapStore<String, String> {
                     }
                 }
                 
-                return json;
+                return value;
             }
         } catch (URISyntaxException ex) {
             LOG.error("Failed to delete an entry - " + k, ex);
@@ -183,15 +197,28 @@ public class PersistentMapStore implements MapStore<String, String> {
     }
 
     @Override
-    public synchronized Map<String, String> loadAll(Collection<String> clctn) {
-        Map<String, String> map = new HashMap<String, String>();
+    public synchronized Map<String, Object> loadAll(Collection<String> clctn) {
+        Map<String, Object> map = new HashMap<String, Object>();
         for(String key : clctn) {
-            String val = load(key);
+            Object val = load(key);
             map.put(key, val);
         }
         return map;
     }
 
+    private boolean isBinaryEntry(byte[] bytes) {
+        if(bytes.length < BINARY_ENTRY_HEADER.length) {
+            return false;
+        }
+        
+        for(int i=0;i<BINARY_ENTRY_HEADER.length;i++) {
+            if(bytes[i] != BINARY_ENTRY_HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     @Override
     public synchronized Iterable<String> loadAllKeys() {
         try {
@@ -34,7 +34,7 @@ import stargate.server.temporalstorage.TemporalStorageManager;
  *
  * @author iychoi
  */
-public class PersistentStoreFactory implements MapStoreFactory<String, String> {
+public class PersistentStoreFactory implements MapStoreFactory<String, Object> {
 
     private static final Log LOG = LogFactory.getLog(PersistentStoreFactory.class);
     
@@ -57,7 +57,7 @@ public class PersistentStoreFactory implements MapStoreFactory<String, String> {
     }
 
     @Override
-    public MapLoader<String, String> newMapStore(String name, Properties props) {
+    public MapLoader<String, Object> newMapStore(String name, Properties props) {
         return new PersistentMapStore(this.temporalStorageManager, name, props);
     }
 }
@@ -106,7 +106,7 @@ public class HazelcastDataStoreDriver extends ADataStoreDriver {
             throw new IllegalArgumentException("valclass is null");
         }
         
-        return new HazelcastDistributedDataStore(this.driverGroup.getMap(name), valclass);
+        return new HazelcastDistributedDataStore(this.driverGroup, this.driverGroup.getMap(name), valclass);
     }
     
     @Override
@@ -119,7 +119,7 @@ public class HazelcastDataStoreDriver extends ADataStoreDriver {
             throw new IllegalArgumentException("valclass is null");
         }
         
-        return new HazelcastDistributedDataStore(this.driverGroup.getPersistentMap(name), valclass);
+        return new HazelcastDistributedDataStore(this.driverGroup, this.driverGroup.getPersistentMap(name), valclass);
     }
 
     @Override
@@ -28,11 +28,16 @@ import com.hazelcast.core.EntryListener;
 import com.hazelcast.core.IMap;
 import com.hazelcast.core.MapEvent;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import stargate.commons.common.JsonSerializer;
 import stargate.commons.datastore.ADistributedDataStore;
+import stargate.commons.recipe.Recipe;
+import stargate.drivers.hazelcast.HazelcastCoreDriver;
 
 /**
  *
@@ -42,12 +47,18 @@ public class HazelcastDistributedDataStore extends ADistributedDataStore {
     
     private static final Log LOG = LogFactory.getLog(HazelcastDistributedDataStore.class);
     
+    private HazelcastCoreDriver driverGroup;
     private IMap<String, Object> internalMap;
     private Class valclass;
     private boolean useJson;
+    private boolean useBinary;
     private JsonSerializer serializer;
     
-    public HazelcastDistributedDataStore(IMap<String, Object> map, Class valclass) {
+    public HazelcastDistributedDataStore(HazelcastCoreDriver driverGroup, IMap<String, Object> map, Class valclass) {
+        if(driverGroup == null) {
+            throw new IllegalArgumentException("driverGroup is null");
+        }
+        
         if(map == null) {
             throw new IllegalArgumentException("map is null");
         }
@@ -56,6 +67,7 @@ public class HazelcastDistributedDataStore extends ADistributedDataStore {
             throw new IllegalArgumentException("valclass is null");
         }
         
+        this.driverGroup = driverGroup;
         this.internalMap = map;
         this.valclass = valclass;
         
@@ -65,6 +77,9 @@ public class HazelcastDistributedDataStore extends ADistributedDataStore {
             this.useJson = true;
         }
         
+        // recipes are large, stored in a compact binary form
+        this.useBinary = (valclass == Recipe.class);
+        
         this.serializer = new JsonSerializer();
         
         /*
@@ -133,15 +148,28 @@ public class HazelcastDistributedDataStore extends ADistributedDataStore {
             throw new IllegalArgumentException("key is null");
         }
         
-        if(this.useJson) {
-            String json = (String) this.internalMap.get(key);
-            if(json == null) {
-                return null;
+        return fromStoredValue(this.internalMap.get(key));
+    }
+
+    @Override
+    public synchronized Map<String, Object> getAll(Set<String> keys) throws IOException {
+        if(keys == null) {
+            throw new IllegalArgumentException("keys is null");
+        }
+        
+        // fetch all entries in a single batched operation
+        Map<String, Object> values = this.internalMap.getAll(keys);
+        if(!this.useJson && !this.useBinary) {
+            return values;
+        }
+        
+        Map<String, Object> objects = new HashMap<String, Object>();
+        for(Map.Entry<String, Object> entry : values.entrySet()) {
+            if(entry.getValue() != null) {
+                objects.put(entry.getKey(), fromStoredValue(entry.getValue()));
             }
-            return this.serializer.fromJson(json, this.valclass);
-        } else {
-            return this.internalMap.get(key);
         }
+        return objects;
     }
 
     @Override
@@ -154,12 +182,24 @@ public class HazelcastDistributedDataStore extends ADistributedDataStore {
             throw new IllegalArgumentException("value is null");
         }
         
-        if(this.useJson) {
-            String json = this.serializer.toJson(value);
-            this.internalMap.set(key, json);
-        } else {
-            this.internalMap.set(key, (String) value);
+        this.internalMap.set(key, toStoredValue(value));
+    }
+    
+    @Override
+    public synchronized void put(String key, Object value, long ttlSec) throws IOException {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        if(value == null) {
+            throw new IllegalArgumentException("value is null");
+        }
+        
+        if(ttlSec <= 0) {
+            throw new IllegalArgumentException("ttlSec is invalid");
         }
+        
+        this.internalMap.set(key, toStoredValue(value), ttlSec, TimeUnit.SECONDS);
     }
     
     @Override
@@ -172,14 +212,34 @@ public class HazelcastDistributedDataStore extends ADistributedDataStore {
             throw new IllegalArgumentException("value is null");
         }
         
-        if(this.useJson) {
-            String json = this.serializer.toJson(value);
-            this.internalMap.putIfAbsent(key, json);
+        this.internalMap.putIfAbsent(key, toStoredValue(value));
+    }
+
+    private Object toStoredValue(Object value) throws IOException {
+        if(this.useBinary) {
+            return ((Recipe) value).toBytes();
+        } else if(this.useJson) {
+            return this.serializer.toJson(value);
         } else {
-            this.internalMap.putIfAbsent(key, (String) value);
+            return (String) value;
         }
     }
-
+    
+    private Object fromStoredValue(Object value) throws IOException {
+        if(value == null) {
+            return null;
+        }
+        
+        if(value instanceof byte[]) {
+            return Recipe.createInstance((byte[]) value);
+        } else if(this.useJson) {
+            // also reads recipes stored in json before the binary form was introduced
+            return this.serializer.fromJson((String) value, this.valclass);
+        } else {
+            return value;
+        }
+    }
+    
     @Override
     public synchronized void remove(String key) throws IOException {
         if(key == null) {
@@ -194,6 +254,38 @@ public class HazelcastDistributedDataStore extends ADistributedDataStore {
         return this.internalMap.keySet();
     }
 
+    @Override
+    public synchronized Set<String> localKeySet() throws IOException {
+        return this.internalMap.localKeySet();
+    }
+    
+    @Override
+    public boolean isLocalKey(String key) {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        return this.driverGroup.isLocalKey(key);
+    }
+
+    @Override
+    public void lock(String key) {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        this.internalMap.lock(key);
+    }
+    
+    @Override
+    public void unlock(String key) {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        this.internalMap.unlock(key);
+    }
+    
     @Override
     public synchronized void clear() {
         this.internalMap.clear();
@@ -25,6 +25,8 @@ package stargate.drivers.hazelcast.datastore;
 
 import com.hazelcast.core.ReplicatedMap;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -106,6 +108,23 @@ public class HazelcastReplicatedDataStore extends AReplicatedDataStore {
         }
     }
 
+    @Override
+    public synchronized Map<String, Object> getAll(Set<String> keys) throws IOException {
+        if(keys == null) {
+            throw new IllegalArgumentException("keys is null");
+        }
+        
+        // replicated entries are local, no need for batching
+        Map<String, Object> objects = new HashMap<String, Object>();
+        for(String key : keys) {
+            Object value = get(key);
+            if(value != null) {
+                objects.put(key, value);
+            }
+        }
+        return objects;
+    }
+
     @Override
     public synchronized void put(String key, Object value) throws IOException {
         if(key == null) {
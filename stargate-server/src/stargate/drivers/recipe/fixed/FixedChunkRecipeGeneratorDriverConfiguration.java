@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package stargate.drivers.recipe.fixed;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.codehaus.jackson.annotate.JsonProperty;
+import stargate.commons.common.JsonSerializer;
+import stargate.commons.recipe.ARecipeGeneratorDriverConfiguration;
+import stargate.commons.recipe.HashAlgorithm;
+
+/**
+ *
+ * @author iychoi
+ */
+public class FixedChunkRecipeGeneratorDriverConfiguration extends ARecipeGeneratorDriverConfiguration {
+    
+    private static final Log LOG = LogFactory.getLog(FixedChunkRecipeGeneratorDriverConfiguration.class);
+    
+    private static final int DEFAULT_CHUNK_SIZE = 1024*1024;
+    private static final String DEFAULT_HASH_ALGORITHM = HashAlgorithm.MURMUR3_128;
+    
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private String hashAlgorithm = DEFAULT_HASH_ALGORITHM;
+    
+    public static FixedChunkRecipeGeneratorDriverConfiguration createInstance(File file) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+
+        JsonSerializer serializer = new JsonSerializer();
+        return (FixedChunkRecipeGeneratorDriverConfiguration) serializer.fromJsonFile(file, FixedChunkRecipeGeneratorDriverConfiguration.class);
+    }
+    
+    public static FixedChunkRecipeGeneratorDriverConfiguration createInstance(String json) throws IOException {
+        if(json == null || json.isEmpty()) {
+            throw new IllegalArgumentException("json is empty or null");
+        }
+        
+        JsonSerializer serializer = new JsonSerializer();
+        return (FixedChunkRecipeGeneratorDriverConfiguration) serializer.fromJson(json, FixedChunkRecipeGeneratorDriverConfiguration.class);
+    }
+    
+    public FixedChunkRecipeGeneratorDriverConfiguration() {
+    }
+    
+    @JsonProperty("chunk_size")
+    public void setChunkSize(int chunkSize) {
+        if(chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.chunkSize = chunkSize;
+    }
+    
+    @JsonProperty("chunk_size")
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+    
+    /*
+     * MURMUR3-128 for trusted deployments, SHA-256 for untrusted peers
+     */
+    @JsonProperty("hash_algorithm")
+    public void setHashAlgorithm(String hashAlgorithm) {
+        if(hashAlgorithm == null || hashAlgorithm.isEmpty()) {
+            throw new IllegalArgumentException("hashAlgorithm is null or empty");
+        }
+        
+        if(!HashAlgorithm.isSupported(hashAlgorithm)) {
+            throw new IllegalArgumentException("hashAlgorithm is not supported - " + hashAlgorithm);
+        }
+        
+        super.verifyMutable();
+        
+        this.hashAlgorithm = hashAlgorithm;
+    }
+    
+    @JsonProperty("hash_algorithm")
+    public String getHashAlgorithm() {
+        return this.hashAlgorithm;
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.recipe.sha1cdc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.drivers.ADriverConfiguration;
+import stargate.commons.recipe.ARecipeGeneratorDriver;
+import stargate.commons.recipe.ARecipeGeneratorDriverConfiguration;
+import stargate.commons.recipe.DataObjectMetadata;
+import stargate.commons.recipe.HashAlgorithm;
+import stargate.commons.recipe.Recipe;
+import stargate.commons.recipe.RecipeChunk;
+import stargate.commons.utils.HexaUtils;
+
+/**
+ *
+ * @author iychoi
+ */
+public class SHA1CDCRecipeGeneratorDriver extends ARecipeGeneratorDriver {
+
+    private static final Log LOG = LogFactory.getLog(SHA1CDCRecipeGeneratorDriver.class);
+    
+    private static final String HASH_ALGORITHM = HashAlgorithm.SHA1;
+    // read buffer holds several max-sized chunks so that compaction is rare
+    private static final int BUFFER_CHUNKS = 4;
+    private static final int MIN_BUFFER_SIZE = 1024*1024;
+    // chunk boundaries must be identical on every node, never change the seed
+    private static final long GEAR_SEED = 0x5374617267617465L;
+    private static final long[] GEAR = makeGearTable();
+    
+    private SHA1CDCRecipeGeneratorDriverConfiguration config;
+    private int minChunkSize;
+    private int avgChunkSize;
+    private int maxChunkSize;
+    private long maskS;
+    private long maskL;
+    
+    public SHA1CDCRecipeGeneratorDriver(ADriverConfiguration config) {
+        if(config == null) {
+            throw new IllegalArgumentException("config is null");
+        }
+        
+        if(!(config instanceof SHA1CDCRecipeGeneratorDriverConfiguration)) {
+            throw new IllegalArgumentException("config is not an instance of SHA1CDCRecipeGeneratorDriverConfiguration");
+        }
+        
+        initialize((SHA1CDCRecipeGeneratorDriverConfiguration) config);
+    }
+    
+    public SHA1CDCRecipeGeneratorDriver(ARecipeGeneratorDriverConfiguration config) {
+        if(config == null) {
+            throw new IllegalArgumentException("config is null");
+        }
+        
+        if(!(config instanceof SHA1CDCRecipeGeneratorDriverConfiguration)) {
+            throw new IllegalArgumentException("config is not an instance of SHA1CDCRecipeGeneratorDriverConfiguration");
+        }
+        
+        initialize((SHA1CDCRecipeGeneratorDriverConfiguration) config);
+    }
+    
+    public SHA1CDCRecipeGeneratorDriver(SHA1CDCRecipeGeneratorDriverConfiguration config) {
+        if(config == null) {
+            throw new IllegalArgumentException("config is null");
+        }
+        
+        initialize(config);
+    }
+    
+    private void initialize(SHA1CDCRecipeGeneratorDriverConfiguration config) {
+        if(config.getMinChunkSize() > config.getAvgChunkSize()) {
+            throw new IllegalArgumentException("minChunkSize is larger than avgChunkSize");
+        }
+        
+        if(config.getAvgChunkSize() > config.getMaxChunkSize()) {
+            throw new IllegalArgumentException("avgChunkSize is larger than maxChunkSize");
+        }
+        
+        this.config = config;
+        this.minChunkSize = config.getMinChunkSize();
+        this.avgChunkSize = config.getAvgChunkSize();
+        this.maxChunkSize = config.getMaxChunkSize();
+        
+        /*
+         * normalized chunking (FastCDC)
+         * a stricter mask is used before the average size and a looser one after it
+         * masks take the highest bits, which depend on the last 64 bytes of the stream
+         */
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(this.avgChunkSize, 4) - 1);
+        this.maskS = makeMask(Math.min(bits + 1, 63));
+        this.maskL = makeMask(Math.max(bits - 1, 1));
+    }
+    
+    private static long makeMask(int bits) {
+        return -1L << (64 - bits);
+    }
+    
+    private static long[] makeGearTable() {
+        Random random = new Random(GEAR_SEED);
+        long[] table = new long[256];
+        for(int i=0;i<table.length;i++) {
+            table[i] = random.nextLong();
+        }
+        return table;
+    }
+    
+    @Override
+    public synchronized void startDriver() throws IOException {
+        
+    }
+
+    @Override
+    public synchronized void stopDriver() throws IOException {
+    }
+    
+    /*
+     * chunks have variable sizes, recipes are searched by offsets
+     */
+    @Override
+    public synchronized int getChunkSize() {
+        return 0;
+    }
+    
+    @Override
+    public synchronized String getHashAlgorithm() {
+        return HASH_ALGORITHM;
+    }
+    
+    @Override
+    public synchronized String getDriverName() {
+        return "SHA1CDCRecipeGeneratorDriver";
+    }
+
+    @Override
+    public String getHash(byte[] buffer) throws IOException {
+        if(buffer == null) {
+            throw new IllegalArgumentException("buffer is null");
+        }
+        
+        try {    
+            MessageDigest messageDigest = HashAlgorithm.getThreadMessageDigest(HASH_ALGORITHM);
+            messageDigest.update(buffer);
+            
+            byte[] digest = messageDigest.digest();
+            return HexaUtils.toHexString(digest).toLowerCase();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    /*
+     * returns the length of the chunk starting at off
+     */
+    private int findBoundary(byte[] buffer, int off, int len) {
+        if(len <= this.minChunkSize) {
+            return len;
+        }
+        
+        int limit = Math.min(len, this.maxChunkSize);
+        int normal = Math.min(limit, this.avgChunkSize);
+        
+        long fingerprint = 0;
+        int i = this.minChunkSize;
+        for(;i<normal;i++) {
+            fingerprint = (fingerprint << 1) + GEAR[buffer[off + i] & 0xff];
+            if((fingerprint & this.maskS) == 0) {
+                return i + 1;
+            }
+        }
+        
+        for(;i<limit;i++) {
+            fingerprint = (fingerprint << 1) + GEAR[buffer[off + i] & 0xff];
+            if((fingerprint & this.maskL) == 0) {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+    
+    @Override
+    public Recipe getRecipe(DataObjectMetadata metadata, InputStream is) throws IOException {
+        if(metadata == null || metadata.isEmpty()) {
+            throw new IllegalArgumentException("metadata is null or empty");
+        }
+
+        if(is == null) {
+            throw new IllegalArgumentException("is is null");
+        }
+        
+        List<RecipeChunk> chunk;
+        try {
+            chunk = getRecipeChunks(0, metadata.getObjectSize(), is);
+        } finally {
+            is.close();
+        }
+        
+        return new Recipe(metadata, HASH_ALGORITHM, 0, chunk);
+    }
+    
+    /*
+     * boundaries depend on preceding data, so only a whole file gives stable chunks
+     */
+    @Override
+    public List<RecipeChunk> getRecipeChunks(long offset, long size, InputStream is) throws IOException {
+        if(offset < 0) {
+            throw new IllegalArgumentException("offset is invalid");
+        }
+        
+        if(size < 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        if(is == null) {
+            throw new IllegalArgumentException("is is null");
+        }
+        
+        List<RecipeChunk> chunk = new ArrayList<RecipeChunk>();
+        
+        long bufferSize = Math.max((long) this.maxChunkSize * BUFFER_CHUNKS, MIN_BUFFER_SIZE);
+        byte[] buffer = new byte[(int) Math.min(bufferSize, Integer.MAX_VALUE - 8)];
+        int start = 0;
+        int end = 0;
+        long remaining = size;
+        
+        try {
+            MessageDigest messageDigest = HashAlgorithm.getThreadMessageDigest(HASH_ALGORITHM);
+            
+            long chunkOffset = offset;
+            
+            while(true) {
+                if(remaining > 0 && end - start < this.maxChunkSize) {
+                    // compact and refill, less than a max-sized chunk is moved
+                    if(start > 0) {
+                        System.arraycopy(buffer, start, buffer, 0, end - start);
+                        end -= start;
+                        start = 0;
+                    }
+                    
+                    while(remaining > 0 && end < buffer.length) {
+                        int nread = is.read(buffer, end, (int) Math.min(buffer.length - end, remaining));
+                        if(nread < 0) {
+                            remaining = 0;
+                            break;
+                        }
+                        end += nread;
+                        remaining -= nread;
+                    }
+                }
+                
+                if(end - start == 0) {
+                    //EOF
+                    break;
+                }
+                
+                int chunkLength = findBoundary(buffer, start, end - start);
+                
+                messageDigest.update(buffer, start, chunkLength);
+                byte[] digest = messageDigest.digest();
+                chunk.add(new RecipeChunk(chunkOffset, chunkLength, digest));
+                
+                chunkOffset += chunkLength;
+                start += chunkLength;
+            }
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+        
+        return chunk;
+    }
+}
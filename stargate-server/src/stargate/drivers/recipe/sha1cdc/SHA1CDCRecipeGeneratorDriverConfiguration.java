@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.recipe.sha1cdc;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.codehaus.jackson.annotate.JsonProperty;
+import stargate.commons.common.JsonSerializer;
+import stargate.commons.recipe.ARecipeGeneratorDriverConfiguration;
+
+/**
+ *
+ * @author iychoi
+ */
+public class SHA1CDCRecipeGeneratorDriverConfiguration extends ARecipeGeneratorDriverConfiguration {
+    
+    private static final Log LOG = LogFactory.getLog(SHA1CDCRecipeGeneratorDriverConfiguration.class);
+    
+    private static final int DEFAULT_MIN_CHUNK_SIZE = 256*1024;
+    private static final int DEFAULT_AVG_CHUNK_SIZE = 1024*1024;
+    private static final int DEFAULT_MAX_CHUNK_SIZE = 4*1024*1024;
+    
+    private int minChunkSize = DEFAULT_MIN_CHUNK_SIZE;
+    private int avgChunkSize = DEFAULT_AVG_CHUNK_SIZE;
+    private int maxChunkSize = DEFAULT_MAX_CHUNK_SIZE;
+    
+    public static SHA1CDCRecipeGeneratorDriverConfiguration createInstance(File file) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+
+        JsonSerializer serializer = new JsonSerializer();
+        return (SHA1CDCRecipeGeneratorDriverConfiguration) serializer.fromJsonFile(file, SHA1CDCRecipeGeneratorDriverConfiguration.class);
+    }
+    
+    public static SHA1CDCRecipeGeneratorDriverConfiguration createInstance(String json) throws IOException {
+        if(json == null || json.isEmpty()) {
+            throw new IllegalArgumentException("json is empty or null");
+        }
+        
+        JsonSerializer serializer = new JsonSerializer();
+        return (SHA1CDCRecipeGeneratorDriverConfiguration) serializer.fromJson(json, SHA1CDCRecipeGeneratorDriverConfiguration.class);
+    }
+    
+    public SHA1CDCRecipeGeneratorDriverConfiguration() {
+    }
+    
+    @JsonProperty("min_chunk_size")
+    public void setMinChunkSize(int minChunkSize) {
+        if(minChunkSize <= 0) {
+            throw new IllegalArgumentException("minChunkSize is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.minChunkSize = minChunkSize;
+    }
+    
+    @JsonProperty("min_chunk_size")
+    public int getMinChunkSize() {
+        return this.minChunkSize;
+    }
+    
+    @JsonProperty("avg_chunk_size")
+    public void setAvgChunkSize(int avgChunkSize) {
+        if(avgChunkSize <= 0) {
+            throw new IllegalArgumentException("avgChunkSize is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.avgChunkSize = avgChunkSize;
+    }
+    
+    @JsonProperty("avg_chunk_size")
+    public int getAvgChunkSize() {
+        return this.avgChunkSize;
+    }
+    
+    @JsonProperty("max_chunk_size")
+    public void setMaxChunkSize(int maxChunkSize) {
+        if(maxChunkSize <= 0) {
+            throw new IllegalArgumentException("maxChunkSize is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.maxChunkSize = maxChunkSize;
+    }
+    
+    @JsonProperty("max_chunk_size")
+    public int getMaxChunkSize() {
+        return this.maxChunkSize;
+    }
+}
@@ -25,7 +25,6 @@ package stargate.drivers.recipe.sha1fixed;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -36,6 +35,7 @@ import stargate.commons.drivers.ADriverConfiguration;
 import stargate.commons.recipe.ARecipeGeneratorDriver;
 import stargate.commons.recipe.ARecipeGeneratorDriverConfiguration;
 import stargate.commons.recipe.DataObjectMetadata;
+import stargate.commons.recipe.HashAlgorithm;
 import stargate.commons.recipe.Recipe;
 import stargate.commons.recipe.RecipeChunk;
 import stargate.commons.utils.HexaUtils;
@@ -51,7 +51,7 @@ public class SHA1FixedChunkRecipeGeneratorDriver extends ARecipeGeneratorDriver
     private SHA1FixedChunkRecipeGeneratorDriverConfiguration config;
     private int chunkSize;
     private static final int BUFFER_SIZE = 100*1024;
-    private static final String HASH_ALGORITHM = "SHA-1";
+    private static final String HASH_ALGORITHM = HashAlgorithm.SHA1;
     
     public SHA1FixedChunkRecipeGeneratorDriver(ADriverConfiguration config) {
         if(config == null) {
@@ -76,6 +76,7 @@ public class SHA1FixedChunkRecipeGeneratorDriver extends ARecipeGeneratorDriver
         }
         
         this.config = (SHA1FixedChunkRecipeGeneratorDriverConfiguration) config;
+        this.chunkSize = this.config.getChunkSize();
     }
     
     public SHA1FixedChunkRecipeGeneratorDriver(SHA1FixedChunkRecipeGeneratorDriverConfiguration config) {
@@ -84,6 +85,7 @@ public class SHA1FixedChunkRecipeGeneratorDriver extends ARecipeGeneratorDriver
         }
         
         this.config = config;
+        this.chunkSize = this.config.getChunkSize();
     }
     
     @Override
@@ -117,7 +119,7 @@ public class SHA1FixedChunkRecipeGeneratorDriver extends ARecipeGeneratorDriver
         }
         
         try {    
-            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+            MessageDigest messageDigest = HashAlgorithm.getThreadMessageDigest(HASH_ALGORITHM);
             messageDigest.update(buffer);
             
             byte[] digest = messageDigest.digest();
@@ -128,7 +130,7 @@ public class SHA1FixedChunkRecipeGeneratorDriver extends ARecipeGeneratorDriver
     }
     
     @Override
-    public synchronized Recipe getRecipe(DataObjectMetadata metadata, InputStream is) throws IOException {
+    public Recipe getRecipe(DataObjectMetadata metadata, InputStream is) throws IOException {
         if(metadata == null || metadata.isEmpty()) {
             throw new IllegalArgumentException("metadata is null or empty");
         }
@@ -137,47 +139,71 @@ public class SHA1FixedChunkRecipeGeneratorDriver extends ARecipeGeneratorDriver
             throw new IllegalArgumentException("is is null");
         }
         
+        List<RecipeChunk> chunk;
+        try {
+            chunk = getRecipeChunks(0, metadata.getObjectSize(), is);
+        } finally {
+            is.close();
+        }
+        
+        return new Recipe(metadata, HASH_ALGORITHM, this.chunkSize, chunk);
+    }
+    
+    @Override
+    public List<RecipeChunk> getRecipeChunks(long offset, long size, InputStream is) throws IOException {
+        if(offset < 0) {
+            throw new IllegalArgumentException("offset is invalid");
+        }
+        
+        if(size < 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        if(is == null) {
+            throw new IllegalArgumentException("is is null");
+        }
+        
         List<RecipeChunk> chunk = new ArrayList<RecipeChunk>();
         
         int bufferSize = Math.min(this.chunkSize, BUFFER_SIZE);
         byte[] buffer = new byte[bufferSize];
-            
+        
         try {    
-            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
-            DigestInputStream dis = new DigestInputStream(is, messageDigest);
+            MessageDigest messageDigest = HashAlgorithm.getThreadMessageDigest(HASH_ALGORITHM);
             
-            long chunkOffset = 0;
+            long chunkOffset = offset;
+            long endOffset = offset + size;
             
-            while(chunkOffset < metadata.getObjectSize()) {
+            while(chunkOffset < endOffset) {
                 int chunkLength = 0;
                 int nread = 0;
-                int toread = this.chunkSize;
+                int toread = (int) Math.min(this.chunkSize, endOffset - chunkOffset);
 
-                while((nread = dis.read(buffer, 0, Math.min(toread, bufferSize))) > 0) {
+                while(toread > 0 && (nread = is.read(buffer, 0, Math.min(toread, bufferSize))) > 0) {
+                    messageDigest.update(buffer, 0, nread);
                     chunkLength += nread;
                     toread -= nread;
-                    if(toread == 0) {
-                        break;
-                    }
+                }
+                
+                if(chunkLength == 0) {
+                    //EOF
+                    break;
                 }
                 
                 byte[] digest = messageDigest.digest();
                 chunk.add(new RecipeChunk(chunkOffset, chunkLength, digest));
-                messageDigest.reset();
                 
-                if(nread <= 0) {
+                if(toread > 0) {
                     //EOF
                     break;
                 }
                 
                 chunkOffset += chunkLength;
             }
-            
-            dis.close();
         } catch (NoSuchAlgorithmException ex) {
             throw new IOException(ex);
         }
         
-        return new Recipe(metadata, HASH_ALGORITHM, this.chunkSize, chunk);
+        return chunk;
     }
 }
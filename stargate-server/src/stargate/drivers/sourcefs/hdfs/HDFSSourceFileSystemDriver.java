@@ -23,6 +23,7 @@
  */
 package stargate.drivers.sourcefs.hdfs;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,6 +36,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
 import stargate.commons.drivers.ADriverConfiguration;
 import stargate.commons.sourcefs.ASourceFileSystemDriver;
@@ -188,16 +190,17 @@ public class HDFSSourceFileSystemDriver extends ASourceFileSystemDriver {
             throw new IllegalArgumentException("path is null");
         }
         
+        // a single namenode call, listStatus returns null if the directory does not exist
         Path hdfsPath = new Path(path);
-        if(!this.filesystem.exists(hdfsPath)) {
+        FileStatus[] listStatus = this.filesystem.listStatus(hdfsPath);
+        if(listStatus == null) {
             throw new FileNotFoundException("directory (" + hdfsPath.toString() + ") not exist");
         }
         
-        FileStatus[] listStatus = this.filesystem.listStatus(hdfsPath);
         List<SourceFileMetadata> entries = new ArrayList<SourceFileMetadata>();
-        if(listStatus != null && listStatus.length > 0) {
+        if(listStatus.length > 0) {
             for(FileStatus status : listStatus) {
-                SourceFileMetadata metadata = new SourceFileMetadata(path, status.getLen(), status.getModificationTime());
+                SourceFileMetadata metadata = new SourceFileMetadata(status.getPath().toUri(), status.getLen(), status.getModificationTime());
                 entries.add(metadata);
             }
         }
@@ -248,4 +251,26 @@ public class HDFSSourceFileSystemDriver extends ASourceFileSystemDriver {
         
         return new HDFSChunkReader(this.filesystem, hdfsPath, offset, size);
     }
+    
+    @Override
+    public File getLocalFile(URI path) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        if(!(this.filesystem instanceof LocalFileSystem)) {
+            return null;
+        }
+        
+        Path hdfsPath = new Path(path);
+        if(hdfsPath.toUri().getScheme() != null && !hdfsPath.toUri().getScheme().equalsIgnoreCase("file")) {
+            return null;
+        }
+        
+        File file = ((LocalFileSystem) this.filesystem).pathToFile(hdfsPath);
+        if(!file.isFile()) {
+            return null;
+        }
+        return file;
+    }
 }
@@ -234,6 +234,29 @@ public class HDFSTemporalStorageDriver extends APersistentTemporalStorageDriver
         return this.filesystem.delete(hdfsPath, recursive);
     }
     
+    @Override
+    public boolean rename(URI src, URI dest) throws IOException, FileNotFoundException {
+        if(src == null) {
+            throw new IllegalArgumentException("src is null");
+        }
+        
+        if(dest == null) {
+            throw new IllegalArgumentException("dest is null");
+        }
+        
+        Path hdfsSrcPath = getAbsPath(src);
+        Path hdfsDestPath = getAbsPath(dest);
+        if(!this.filesystem.exists(hdfsSrcPath)) {
+            throw new FileNotFoundException("file (" + hdfsSrcPath.toString() + ") not exist");
+        }
+        
+        Path hdfsDestParentPath = hdfsDestPath.getParent();
+        if(hdfsDestParentPath != null && !this.filesystem.exists(hdfsDestParentPath)) {
+            this.filesystem.mkdirs(hdfsDestParentPath);
+        }
+        return this.filesystem.rename(hdfsSrcPath, hdfsDestPath);
+    }
+    
     @Override
     public boolean makeDirs(URI path) throws IOException {
         if(path == null) {
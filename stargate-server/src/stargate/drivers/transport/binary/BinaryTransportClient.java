@@ -0,0 +1,354 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.transport.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.cluster.RemoteCluster;
+import stargate.commons.recipe.DataChunkBatchReader;
+import stargate.commons.recipe.DataObjectMetadata;
+import stargate.commons.recipe.DataObjectPath;
+import stargate.commons.recipe.Recipe;
+import stargate.commons.transport.ATransportClient;
+import stargate.commons.utils.DateTimeUtils;
+import stargate.commons.volume.Directory;
+
+/**
+ *
+ * @author iychoi
+ */
+public class BinaryTransportClient extends ATransportClient implements Runnable {
+
+    private static final Log LOG = LogFactory.getLog(BinaryTransportClient.class);
+    
+    private URI serviceURL;
+    private long requestTimeout;
+    private SocketChannel channel;
+    private Thread receiverThread;
+    private volatile boolean closed;
+    private final Object writeLock = new Object();
+    private AtomicInteger nextRequestId = new AtomicInteger();
+    private ConcurrentHashMap<Integer, BinaryTransportResponse> pendingResponses = new ConcurrentHashMap<Integer, BinaryTransportResponse>();
+    private long connectionEstablishedTime;
+    private volatile long lastActiveTime;
+    
+    public BinaryTransportClient(URI serviceURL, long requestTimeout) throws IOException {
+        if(serviceURL == null) {
+            throw new IllegalArgumentException("serviceURL is null");
+        }
+        
+        if(requestTimeout <= 0) {
+            throw new IllegalArgumentException("requestTimeout is invalid");
+        }
+        
+        this.serviceURL = serviceURL;
+        this.requestTimeout = requestTimeout;
+        
+        this.channel = SocketChannel.open(new InetSocketAddress(serviceURL.getHost(), serviceURL.getPort()));
+        this.channel.socket().setTcpNoDelay(true);
+        this.closed = false;
+        
+        this.receiverThread = new Thread(this, "BinaryTransportClient-" + serviceURL.getHost() + ":" + serviceURL.getPort());
+        this.receiverThread.setDaemon(true);
+        this.receiverThread.start();
+        
+        this.connectionEstablishedTime = DateTimeUtils.getCurrentTime();
+        this.lastActiveTime = this.connectionEstablishedTime;
+    }
+    
+    public void close() {
+        this.closed = true;
+        try {
+            this.channel.close();
+        } catch (IOException ex) {
+            // ignore
+        }
+        failPendingResponses(new IOException("connection closed"));
+    }
+    
+    public boolean isClosed() {
+        return this.closed;
+    }
+    
+    public long getConnectionEstablishedTime() {
+        return this.connectionEstablishedTime;
+    }
+    
+    public long getLastActiveTime() {
+        return this.lastActiveTime;
+    }
+    
+    private void updateLastActivetime() {
+        this.lastActiveTime = DateTimeUtils.getCurrentTime();
+    }
+    
+    @Override
+    public void run() {
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(BinaryTransportProtocol.FRAME_LENGTH_FIELD_SIZE);
+        try {
+            while(!this.closed) {
+                lengthBuffer.clear();
+                readFully(lengthBuffer);
+                lengthBuffer.flip();
+                int frameLength = lengthBuffer.getInt();
+                if(frameLength < BinaryTransportProtocol.FRAME_HEADER_SIZE || frameLength > BinaryTransportProtocol.MAX_FRAME_SIZE) {
+                    throw new IOException("invalid frame length : " + frameLength);
+                }
+                
+                ByteBuffer frame = ByteBuffer.allocate(frameLength);
+                readFully(frame);
+                frame.flip();
+                
+                int requestId = frame.getInt();
+                byte status = frame.get();
+                BinaryTransportResponse response = this.pendingResponses.remove(requestId);
+                if(response != null) {
+                    response.complete(status, frame);
+                } else {
+                    LOG.error("received a response of unknown request " + requestId);
+                }
+            }
+        } catch (IOException ex) {
+            if(!this.closed) {
+                LOG.error("binary transport connection to " + this.serviceURL.toString() + " is broken", ex);
+            }
+        } finally {
+            close();
+        }
+    }
+    
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(this.channel.read(buffer) < 0) {
+                throw new EOFException("connection closed by peer");
+            }
+        }
+    }
+    
+    private void failPendingResponses(IOException ex) {
+        for(Integer requestId : this.pendingResponses.keySet()) {
+            BinaryTransportResponse response = this.pendingResponses.remove(requestId);
+            if(response != null) {
+                response.fail(ex);
+            }
+        }
+    }
+    
+    /*
+     * requests are pipelined over the connection, multiple callers can wait at the same time
+     */
+    private DataInputStream call(byte opcode, ByteArrayOutputStream payload) throws IOException {
+        if(this.closed) {
+            throw new IOException("connection closed");
+        }
+        
+        int requestId = this.nextRequestId.incrementAndGet();
+        BinaryTransportResponse response = new BinaryTransportResponse(requestId);
+        this.pendingResponses.put(requestId, response);
+        
+        ByteBuffer frame;
+        if(payload != null) {
+            frame = BinaryTransportCodec.makeFrame(requestId, opcode, payload.toByteArray(), payload.size());
+        } else {
+            frame = BinaryTransportCodec.makeFrame(requestId, opcode, null, 0);
+        }
+        
+        try {
+            synchronized(this.writeLock) {
+                while(frame.hasRemaining()) {
+                    this.channel.write(frame);
+                }
+            }
+        } catch (IOException ex) {
+            this.pendingResponses.remove(requestId);
+            close();
+            throw ex;
+        }
+        
+        try {
+            DataInputStream in = response.await(this.requestTimeout);
+            updateLastActivetime();
+            return in;
+        } finally {
+            this.pendingResponses.remove(requestId);
+        }
+    }
+    
+    private ByteArrayOutputStream makePathPayload(DataObjectPath path) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        BinaryTransportCodec.writePath(out, path);
+        out.flush();
+        return bos;
+    }
+    
+    @Override
+    public boolean isLive() {
+        try {
+            DataInputStream in = call(BinaryTransportProtocol.OP_IS_LIVE, null);
+            return in.readBoolean();
+        } catch (IOException ex) {
+            LOG.error("Exception occurred while calling binary transport operation", ex);
+            return false;
+        }
+    }
+
+    @Override
+    public RemoteCluster getCluster() throws IOException {
+        DataInputStream in = call(BinaryTransportProtocol.OP_GET_CLUSTER, null);
+        return BinaryTransportCodec.readCluster(in);
+    }
+
+    @Override
+    public Directory getDirectory(DataObjectPath path) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        DataInputStream in = call(BinaryTransportProtocol.OP_GET_DIRECTORY, makePathPayload(path));
+        if(!in.readBoolean()) {
+            return null;
+        }
+        return BinaryTransportCodec.readDirectory(in);
+    }
+
+    @Override
+    public DataObjectMetadata getDataObjectMetadata(DataObjectPath path) throws IOException, FileNotFoundException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        DataInputStream in = call(BinaryTransportProtocol.OP_GET_METADATA, makePathPayload(path));
+        if(!in.readBoolean()) {
+            return null;
+        }
+        return BinaryTransportCodec.readMetadata(in);
+    }
+
+    @Override
+    public Recipe getRecipe(DataObjectPath path) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        DataInputStream in = call(BinaryTransportProtocol.OP_GET_RECIPE, makePathPayload(path));
+        if(!in.readBoolean()) {
+            return null;
+        }
+        return BinaryTransportCodec.readRecipe(in);
+    }
+
+    @Override
+    public Collection<DataObjectMetadata> listDataObjectMetadata(DataObjectPath path) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        DataInputStream in = call(BinaryTransportProtocol.OP_LIST_METADATA, makePathPayload(path));
+        if(!in.readBoolean()) {
+            return null;
+        }
+        return BinaryTransportCodec.readMetadataList(in);
+    }
+
+    @Override
+    public InputStream getDataChunk(String clusterName, String hash) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        BinaryTransportCodec.writeString(out, clusterName);
+        BinaryTransportCodec.writeString(out, hash);
+        out.flush();
+        
+        DataInputStream in = call(BinaryTransportProtocol.OP_GET_DATACHUNK, bos);
+        return new ByteArrayInputStream(BinaryTransportCodec.readBytes(in));
+    }
+
+    @Override
+    public InputStream getDataChunk(String clusterName, String hash, long offset, int size) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        BinaryTransportCodec.writeString(out, clusterName);
+        BinaryTransportCodec.writeString(out, hash);
+        out.writeLong(offset);
+        out.writeInt(size);
+        out.flush();
+        
+        DataInputStream in = call(BinaryTransportProtocol.OP_GET_DATACHUNK_RANGE, bos);
+        return new ByteArrayInputStream(BinaryTransportCodec.readBytes(in));
+    }
+    
+    @Override
+    public DataChunkBatchReader getDataChunks(String clusterName, Collection<String> hashes) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hashes == null || hashes.isEmpty()) {
+            throw new IllegalArgumentException("hashes is null or empty");
+        }
+        
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        BinaryTransportCodec.writeString(out, clusterName);
+        out.writeInt(hashes.size());
+        for(String hash : hashes) {
+            BinaryTransportCodec.writeString(out, hash);
+        }
+        out.flush();
+        
+        DataInputStream in = call(BinaryTransportProtocol.OP_GET_DATACHUNKS, bos);
+        return new DataChunkBatchReader(in);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.transport.binary;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import stargate.commons.cluster.RemoteCluster;
+import stargate.commons.recipe.DataObjectMetadata;
+import stargate.commons.recipe.DataObjectPath;
+import stargate.commons.recipe.Recipe;
+import stargate.commons.recipe.RecipeCodec;
+import stargate.commons.volume.Directory;
+
+/**
+ *
+ * @author iychoi
+ */
+public class BinaryTransportCodec {
+    
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    private BinaryTransportCodec() {
+    }
+    
+    public static ByteBuffer makeFrame(int requestId, byte code, byte[] payload, int payloadLength) {
+        int frameLength = BinaryTransportProtocol.FRAME_HEADER_SIZE + payloadLength;
+        if(frameLength > BinaryTransportProtocol.MAX_FRAME_SIZE) {
+            throw new IllegalArgumentException("payload is too large : " + payloadLength);
+        }
+        
+        ByteBuffer frame = ByteBuffer.allocate(BinaryTransportProtocol.FRAME_LENGTH_FIELD_SIZE + frameLength);
+        frame.putInt(frameLength);
+        frame.putInt(requestId);
+        frame.put(code);
+        if(payloadLength > 0) {
+            frame.put(payload, 0, payloadLength);
+        }
+        frame.flip();
+        return frame;
+    }
+    
+    public static void writeString(DataOutput out, String str) throws IOException {
+        if(str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        
+        byte[] bytes = str.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    public static String readString(DataInput in) throws IOException {
+        int len = in.readInt();
+        if(len < 0) {
+            return null;
+        }
+        
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+    
+    public static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        if(bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    public static byte[] readBytes(DataInput in) throws IOException {
+        int len = in.readInt();
+        if(len < 0) {
+            return null;
+        }
+        
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return bytes;
+    }
+    
+    public static void writePath(DataOutput out, DataObjectPath path) throws IOException {
+        writeString(out, path.toString());
+    }
+    
+    public static DataObjectPath readPath(DataInput in) throws IOException {
+        return new DataObjectPath(readString(in));
+    }
+    
+    public static void writeMetadata(DataOutput out, DataObjectMetadata metadata) throws IOException {
+        writePath(out, metadata.getPath());
+        out.writeLong(metadata.getObjectSize());
+        out.writeBoolean(metadata.isDirectory());
+        out.writeLong(metadata.getLastModificationTime());
+        writeString(out, metadata.getStatus());
+    }
+    
+    public static DataObjectMetadata readMetadata(DataInput in) throws IOException {
+        DataObjectPath path = readPath(in);
+        long objectSize = in.readLong();
+        boolean directory = in.readBoolean();
+        long lastModificationTime = in.readLong();
+        DataObjectMetadata metadata = new DataObjectMetadata(path, objectSize, directory, lastModificationTime);
+        String status = readString(in);
+        if(status != null) {
+            metadata.setStatus(status);
+        }
+        return metadata;
+    }
+    
+    public static void writeMetadataList(DataOutput out, Collection<DataObjectMetadata> metadata) throws IOException {
+        out.writeInt(metadata.size());
+        for(DataObjectMetadata m : metadata) {
+            writeMetadata(out, m);
+        }
+    }
+    
+    public static Collection<DataObjectMetadata> readMetadataList(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<DataObjectMetadata> metadata = new ArrayList<DataObjectMetadata>(count);
+        for(int i=0;i<count;i++) {
+            metadata.add(readMetadata(in));
+        }
+        return metadata;
+    }
+    
+    public static void writeDirectory(DataOutput out, Directory directory) throws IOException {
+        writePath(out, directory.getPath());
+        Collection<String> entry = directory.getEntry();
+        out.writeInt(entry.size());
+        for(String e : entry) {
+            writeString(out, e);
+        }
+    }
+    
+    public static Directory readDirectory(DataInput in) throws IOException {
+        DataObjectPath path = readPath(in);
+        int count = in.readInt();
+        List<String> entry = new ArrayList<String>(count);
+        for(int i=0;i<count;i++) {
+            entry.add(readString(in));
+        }
+        return new Directory(path, entry);
+    }
+    
+    public static void writeRecipe(DataOutput out, Recipe recipe) throws IOException {
+        // compact recipe encoding, offsets are delta-encoded and hashes are raw bytes
+        RecipeCodec.write(out, recipe);
+    }
+    
+    public static Recipe readRecipe(DataInput in) throws IOException {
+        return RecipeCodec.read(in);
+    }
+    
+    public static void writeCluster(DataOutput out, RemoteCluster cluster) throws IOException {
+        // rarely transferred, keep the json form to carry node details
+        writeString(out, cluster.toJson());
+    }
+    
+    public static RemoteCluster readCluster(DataInput in) throws IOException {
+        return RemoteCluster.createInstance(readString(in));
+    }
+}
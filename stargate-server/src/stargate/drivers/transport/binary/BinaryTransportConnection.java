@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.transport.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * @author iychoi
+ */
+public class BinaryTransportConnection {
+    
+    // reading from a connection stops while too many responses are pending
+    private static final int MAX_PENDING_REQUESTS = 16;
+    private static final long MAX_QUEUED_BYTES = BinaryTransportProtocol.MAX_FRAME_SIZE;
+    
+    private SocketChannel channel;
+    private ByteBuffer lengthBuffer;
+    private ByteBuffer frameBuffer;
+    private ConcurrentLinkedQueue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<ByteBuffer>();
+    private AtomicInteger pendingRequests = new AtomicInteger();
+    private AtomicLong queuedBytes = new AtomicLong();
+    
+    public BinaryTransportConnection(SocketChannel channel) {
+        if(channel == null) {
+            throw new IllegalArgumentException("channel is null");
+        }
+        
+        this.channel = channel;
+        this.lengthBuffer = ByteBuffer.allocate(BinaryTransportProtocol.FRAME_LENGTH_FIELD_SIZE);
+        this.frameBuffer = null;
+    }
+    
+    public SocketChannel getChannel() {
+        return this.channel;
+    }
+    
+    /*
+     * reads all frames available without blocking
+     */
+    public List<ByteBuffer> read() throws IOException {
+        List<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+        while(true) {
+            if(this.frameBuffer == null) {
+                int read = this.channel.read(this.lengthBuffer);
+                if(read < 0) {
+                    throw new EOFException("connection closed by peer");
+                }
+                
+                if(this.lengthBuffer.hasRemaining()) {
+                    break;
+                }
+                
+                this.lengthBuffer.flip();
+                int frameLength = this.lengthBuffer.getInt();
+                this.lengthBuffer.clear();
+                
+                if(frameLength < BinaryTransportProtocol.FRAME_HEADER_SIZE || frameLength > BinaryTransportProtocol.MAX_FRAME_SIZE) {
+                    throw new IOException("invalid frame length : " + frameLength);
+                }
+                
+                this.frameBuffer = ByteBuffer.allocate(frameLength);
+            }
+            
+            int read = this.channel.read(this.frameBuffer);
+            if(read < 0) {
+                throw new EOFException("connection closed by peer");
+            }
+            
+            if(this.frameBuffer.hasRemaining()) {
+                break;
+            }
+            
+            this.frameBuffer.flip();
+            frames.add(this.frameBuffer);
+            this.frameBuffer = null;
+        }
+        return frames;
+    }
+    
+    public void enqueue(ByteBuffer frame) {
+        if(frame == null) {
+            throw new IllegalArgumentException("frame is null");
+        }
+        
+        this.queuedBytes.addAndGet(frame.remaining());
+        this.writeQueue.offer(frame);
+    }
+    
+    public void requestStarted() {
+        this.pendingRequests.incrementAndGet();
+    }
+    
+    public void requestFinished() {
+        this.pendingRequests.decrementAndGet();
+    }
+    
+    /*
+     * true if the connection should not take more requests until responses are written
+     */
+    public boolean isBackedUp() {
+        return this.pendingRequests.get() >= MAX_PENDING_REQUESTS || this.queuedBytes.get() >= MAX_QUEUED_BYTES;
+    }
+    
+    /*
+     * returns true if all queued frames are written
+     */
+    public boolean write() throws IOException {
+        ByteBuffer frame;
+        while((frame = this.writeQueue.peek()) != null) {
+            this.channel.write(frame);
+            if(frame.hasRemaining()) {
+                // socket buffer is full
+                return false;
+            }
+            this.writeQueue.poll();
+            this.queuedBytes.addAndGet(-frame.limit());
+        }
+        return true;
+    }
+    
+    public boolean hasPendingWrite() {
+        return !this.writeQueue.isEmpty();
+    }
+    
+    public void close() {
+        try {
+            this.channel.close();
+        } catch (IOException ex) {
+            // ignore
+        }
+        this.writeQueue.clear();
+        this.queuedBytes.set(0);
+    }
+}
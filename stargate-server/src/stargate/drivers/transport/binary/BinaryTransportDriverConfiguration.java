@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.transport.binary;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.codehaus.jackson.annotate.JsonProperty;
+import stargate.commons.common.JsonSerializer;
+import stargate.commons.transport.ATransportDriverConfiguration;
+
+/**
+ *
+ * @author iychoi
+ */
+public class BinaryTransportDriverConfiguration extends ATransportDriverConfiguration {
+    
+    private static final Log LOG = LogFactory.getLog(BinaryTransportDriverConfiguration.class);
+    
+    public static final String DEFAULT_SERVICE_HOSTNAME_PATTERN = ".*";
+    public static final int DEFAULT_SERVICE_PORT = 31011;
+    public static final int DEFAULT_THREAD_POOL_SIZE = 10;
+    public static final long DEFAULT_REQUEST_TIMEOUT_SEC = 300;
+    
+    private String serviceHostNamePattern = DEFAULT_SERVICE_HOSTNAME_PATTERN;
+    private int servicePort = DEFAULT_SERVICE_PORT;
+    private int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
+    private long requestTimeoutSec = DEFAULT_REQUEST_TIMEOUT_SEC;
+    
+    public static BinaryTransportDriverConfiguration createInstance(File file) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+
+        JsonSerializer serializer = new JsonSerializer();
+        return (BinaryTransportDriverConfiguration) serializer.fromJsonFile(file, BinaryTransportDriverConfiguration.class);
+    }
+    
+    public static BinaryTransportDriverConfiguration createInstance(String json) throws IOException {
+        if(json == null || json.isEmpty()) {
+            throw new IllegalArgumentException("json is empty or null");
+        }
+        
+        JsonSerializer serializer = new JsonSerializer();
+        return (BinaryTransportDriverConfiguration) serializer.fromJson(json, BinaryTransportDriverConfiguration.class);
+    }
+    
+    public BinaryTransportDriverConfiguration() {
+    }
+    
+    @JsonProperty("service_host_name_pattern")
+    public void setServiceHostNamePattern(String serviceHostNamePattern) {
+        if(serviceHostNamePattern == null || serviceHostNamePattern.isEmpty()) {
+            throw new IllegalArgumentException("serviceHostNamePattern is null or empty");
+        }
+        
+        super.verifyMutable();
+        
+        this.serviceHostNamePattern = serviceHostNamePattern;
+    }
+    
+    @JsonProperty("service_host_name_pattern")
+    public String getServiceHostNamePattern() {
+        return this.serviceHostNamePattern;
+    }
+    
+    @JsonProperty("service_port")
+    public void setServicePort(int port) {
+        if(port <= 0) {
+            throw new IllegalArgumentException("port is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.servicePort = port;
+    }
+    
+    @JsonProperty("service_port")
+    public int getServicePort() {
+        return this.servicePort;
+    }
+    
+    @JsonProperty("thread_pool_size")
+    public void setThreadPoolSize(int size) {
+        if(size <= 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.threadPoolSize = size;
+    }
+    
+    @JsonProperty("thread_pool_size")
+    public int getThreadPoolSize() {
+        return this.threadPoolSize;
+    }
+    
+    @JsonProperty("request_timeout_sec")
+    public void setRequestTimeoutSec(long timeout) {
+        if(timeout <= 0) {
+            throw new IllegalArgumentException("timeout is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.requestTimeoutSec = timeout;
+    }
+    
+    @JsonProperty("request_timeout_sec")
+    public long getRequestTimeoutSec() {
+        return this.requestTimeoutSec;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.transport.binary;
+
+/**
+ *
+ * @author iychoi
+ */
+public class BinaryTransportProtocol {
+    
+    /*
+     * frame layout
+     * [int frame length][int request id][byte opcode or status][payload]
+     * frame length counts bytes after the length field
+     */
+    public static final int FRAME_LENGTH_FIELD_SIZE = 4;
+    public static final int FRAME_HEADER_SIZE = 5;
+    public static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+    
+    public static final byte OP_IS_LIVE = 1;
+    public static final byte OP_GET_CLUSTER = 2;
+    public static final byte OP_GET_DIRECTORY = 3;
+    public static final byte OP_GET_METADATA = 4;
+    public static final byte OP_GET_RECIPE = 5;
+    public static final byte OP_LIST_METADATA = 6;
+    public static final byte OP_GET_DATACHUNK = 7;
+    public static final byte OP_GET_DATACHUNK_RANGE = 8;
+    public static final byte OP_GET_DATACHUNKS = 9;
+    
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ERROR = 1;
+    public static final byte STATUS_NOT_FOUND = 2;
+    public static final byte STATUS_BUSY = 3;
+    
+    private BinaryTransportProtocol() {
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.transport.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author iychoi
+ */
+public class BinaryTransportResponse {
+    
+    private int requestId;
+    private CountDownLatch latch = new CountDownLatch(1);
+    private byte status;
+    private ByteBuffer payload;
+    private IOException failure;
+    
+    public BinaryTransportResponse(int requestId) {
+        this.requestId = requestId;
+    }
+    
+    public int getRequestId() {
+        return this.requestId;
+    }
+    
+    public void complete(byte status, ByteBuffer payload) {
+        this.status = status;
+        this.payload = payload;
+        this.latch.countDown();
+    }
+    
+    public void fail(IOException failure) {
+        this.failure = failure;
+        this.latch.countDown();
+    }
+    
+    public DataInputStream await(long timeoutSec) throws IOException {
+        try {
+            if(!this.latch.await(timeoutSec, TimeUnit.SECONDS)) {
+                throw new IOException("request " + this.requestId + " timed out");
+            }
+        } catch (InterruptedException ex) {
+            throw new IOException(ex);
+        }
+        
+        if(this.failure != null) {
+            throw this.failure;
+        }
+        
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(this.payload.array(), this.payload.position(), this.payload.remaining()));
+        switch(this.status) {
+            case BinaryTransportProtocol.STATUS_OK:
+                return in;
+            case BinaryTransportProtocol.STATUS_NOT_FOUND:
+                throw new FileNotFoundException(readErrorMessage(in));
+            case BinaryTransportProtocol.STATUS_BUSY:
+                throw new IOException("remote server busy - " + readErrorMessage(in));
+            default:
+                throw new IOException(readErrorMessage(in));
+        }
+    }
+    
+    private String readErrorMessage(DataInputStream in) {
+        try {
+            return BinaryTransportCodec.readString(in);
+        } catch (IOException ex) {
+            return "request " + this.requestId + " failed";
+        }
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.transport.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.recipe.DataObjectMetadata;
+import stargate.commons.recipe.Recipe;
+import stargate.commons.volume.Directory;
+
+/**
+ *
+ * @author iychoi
+ */
+public class BinaryTransportServer implements Runnable {
+    
+    private static final Log LOG = LogFactory.getLog(BinaryTransportServer.class);
+    
+    private int servicePort;
+    private int threadPoolSize;
+    private BinaryTransportServiceHandler handler;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private ExecutorService requestThreadPool;
+    private volatile boolean running;
+    private ConcurrentLinkedQueue<BinaryTransportConnection> pendingWrites = new ConcurrentLinkedQueue<BinaryTransportConnection>();
+    
+    public BinaryTransportServer(int port, int threadPoolSize, BinaryTransportServiceHandler handler) {
+        if(port <= 0) {
+            throw new IllegalArgumentException("port is invalid");
+        }
+        
+        if(threadPoolSize <= 0) {
+            throw new IllegalArgumentException("threadPoolSize is invalid");
+        }
+        
+        if(handler == null) {
+            throw new IllegalArgumentException("handler is null");
+        }
+        
+        this.servicePort = port;
+        this.threadPoolSize = threadPoolSize;
+        this.handler = handler;
+    }
+    
+    public synchronized void start() throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.socket().setReuseAddress(true);
+        this.serverChannel.socket().bind(new InetSocketAddress(this.servicePort));
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        
+        this.requestThreadPool = Executors.newFixedThreadPool(this.threadPoolSize);
+        
+        this.running = true;
+        this.selectorThread = new Thread(this, "BinaryTransportServer-" + this.servicePort);
+        this.selectorThread.setDaemon(true);
+        this.selectorThread.start();
+    }
+
+    public synchronized void stop() throws IOException {
+        this.running = false;
+        
+        if(this.selector != null) {
+            this.selector.wakeup();
+        }
+        
+        if(this.selectorThread != null) {
+            try {
+                this.selectorThread.join();
+            } catch (InterruptedException ex) {
+                LOG.error("Interrupted while stopping binary transport server", ex);
+            }
+            this.selectorThread = null;
+        }
+        
+        if(this.requestThreadPool != null) {
+            this.requestThreadPool.shutdownNow();
+            this.requestThreadPool = null;
+        }
+    }
+    
+    @Override
+    public void run() {
+        try {
+            while(this.running) {
+                this.selector.select();
+                
+                BinaryTransportConnection pendingConnection;
+                while((pendingConnection = this.pendingWrites.poll()) != null) {
+                    SelectionKey key = pendingConnection.getChannel().keyFor(this.selector);
+                    if(key != null && key.isValid()) {
+                        updateInterestOps(key, pendingConnection);
+                    }
+                }
+                
+                Iterator<SelectionKey> iterator = this.selector.selectedKeys().iterator();
+                while(iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+                    
+                    if(!key.isValid()) {
+                        continue;
+                    }
+                    
+                    try {
+                        if(key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+                        
+                        BinaryTransportConnection connection = (BinaryTransportConnection) key.attachment();
+                        if(key.isReadable()) {
+                            List<ByteBuffer> frames = connection.read();
+                            for(ByteBuffer frame : frames) {
+                                dispatch(connection, frame);
+                            }
+                        }
+                        
+                        if(key.isValid() && key.isWritable()) {
+                            connection.write();
+                        }
+                        
+                        if(key.isValid()) {
+                            updateInterestOps(key, connection);
+                        }
+                    } catch (IOException ex) {
+                        LOG.debug("closing binary transport connection", ex);
+                        key.cancel();
+                        if(key.attachment() != null) {
+                            ((BinaryTransportConnection) key.attachment()).close();
+                        }
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            LOG.error("Exception occurred while serving binary transport", ex);
+        } finally {
+            for(SelectionKey key : this.selector.keys()) {
+                if(key.attachment() != null) {
+                    ((BinaryTransportConnection) key.attachment()).close();
+                }
+            }
+            
+            try {
+                this.serverChannel.close();
+                this.selector.close();
+            } catch (IOException ex) {
+                LOG.error("Exception occurred while closing binary transport server", ex);
+            }
+        }
+    }
+    
+    private void accept() throws IOException {
+        SocketChannel channel = this.serverChannel.accept();
+        if(channel == null) {
+            return;
+        }
+        
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        
+        BinaryTransportConnection connection = new BinaryTransportConnection(channel);
+        channel.register(this.selector, SelectionKey.OP_READ, connection);
+    }
+    
+    /*
+     * stops reading requests from a connection while its responses are backed up
+     */
+    private void updateInterestOps(SelectionKey key, BinaryTransportConnection connection) {
+        int ops = 0;
+        if(!connection.isBackedUp()) {
+            ops |= SelectionKey.OP_READ;
+        }
+        
+        if(connection.hasPendingWrite()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(ops);
+    }
+    
+    private void dispatch(final BinaryTransportConnection connection, final ByteBuffer frame) {
+        // requests are processed concurrently, responses are matched by request id
+        connection.requestStarted();
+        try {
+            this.requestThreadPool.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        ByteBuffer response = processRequest(frame);
+                        connection.enqueue(response);
+                    } finally {
+                        connection.requestFinished();
+                    }
+                    pendingWrites.offer(connection);
+                    selector.wakeup();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            connection.requestFinished();
+            LOG.error("Unable to process a request", ex);
+            
+            // runs on the selector thread, the response is written when interest ops are updated
+            int requestId = frame.getInt(frame.position());
+            connection.enqueue(makeErrorFrame(requestId, BinaryTransportProtocol.STATUS_BUSY, new IOException("server busy")));
+        }
+    }
+    
+    private ByteBuffer processRequest(ByteBuffer frame) {
+        int requestId = frame.getInt();
+        byte opcode = frame.get();
+        
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame.array(), frame.position(), frame.remaining()));
+        FrameOutputStream fos = new FrameOutputStream();
+        DataOutputStream out = new DataOutputStream(fos);
+        
+        try {
+            processRequest(opcode, in, out, fos);
+            out.flush();
+            return fos.toFrame(requestId, BinaryTransportProtocol.STATUS_OK);
+        } catch (FileNotFoundException ex) {
+            return makeErrorFrame(requestId, BinaryTransportProtocol.STATUS_NOT_FOUND, ex);
+        } catch (Exception ex) {
+            LOG.error("Exception occurred while processing a request", ex);
+            return makeErrorFrame(requestId, BinaryTransportProtocol.STATUS_ERROR, ex);
+        }
+    }
+    
+    private ByteBuffer makeErrorFrame(int requestId, byte status, Exception ex) {
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bos);
+            BinaryTransportCodec.writeString(out, ex.toString());
+            out.flush();
+            return BinaryTransportCodec.makeFrame(requestId, status, bos.toByteArray(), bos.size());
+        } catch (IOException ioex) {
+            return BinaryTransportCodec.makeFrame(requestId, status, null, 0);
+        }
+    }
+    
+    private void processRequest(byte opcode, DataInputStream in, DataOutputStream out, FrameOutputStream fos) throws IOException {
+        switch(opcode) {
+            case BinaryTransportProtocol.OP_IS_LIVE:
+                out.writeBoolean(this.handler.isLive());
+                break;
+            case BinaryTransportProtocol.OP_GET_CLUSTER:
+                BinaryTransportCodec.writeCluster(out, this.handler.getCluster());
+                break;
+            case BinaryTransportProtocol.OP_GET_DIRECTORY:
+            {
+                Directory directory = this.handler.getDirectory(BinaryTransportCodec.readPath(in));
+                // null is allowed
+                out.writeBoolean(directory != null);
+                if(directory != null) {
+                    BinaryTransportCodec.writeDirectory(out, directory);
+                }
+                break;
+            }
+            case BinaryTransportProtocol.OP_GET_METADATA:
+            {
+                DataObjectMetadata metadata = this.handler.getDataObjectMetadata(BinaryTransportCodec.readPath(in));
+                // null is allowed
+                out.writeBoolean(metadata != null);
+                if(metadata != null) {
+                    BinaryTransportCodec.writeMetadata(out, metadata);
+                }
+                break;
+            }
+            case BinaryTransportProtocol.OP_GET_RECIPE:
+            {
+                Recipe recipe = this.handler.getRecipe(BinaryTransportCodec.readPath(in));
+                // null is allowed
+                out.writeBoolean(recipe != null);
+                if(recipe != null) {
+                    BinaryTransportCodec.writeRecipe(out, recipe);
+                }
+                break;
+            }
+            case BinaryTransportProtocol.OP_LIST_METADATA:
+            {
+                Collection<DataObjectMetadata> metadata = this.handler.listDataObjectMetadata(BinaryTransportCodec.readPath(in));
+                // null is allowed
+                out.writeBoolean(metadata != null);
+                if(metadata != null) {
+                    BinaryTransportCodec.writeMetadataList(out, metadata);
+                }
+                break;
+            }
+            case BinaryTransportProtocol.OP_GET_DATACHUNK:
+            {
+                String clusterName = BinaryTransportCodec.readString(in);
+                String hash = BinaryTransportCodec.readString(in);
+                writeDataChunk(out, fos, this.handler.getDataChunk(clusterName, hash));
+                break;
+            }
+            case BinaryTransportProtocol.OP_GET_DATACHUNK_RANGE:
+            {
+                String clusterName = BinaryTransportCodec.readString(in);
+                String hash = BinaryTransportCodec.readString(in);
+                long offset = in.readLong();
+                int size = in.readInt();
+                writeDataChunk(out, fos, this.handler.getDataChunk(clusterName, hash, offset, size));
+                break;
+            }
+            case BinaryTransportProtocol.OP_GET_DATACHUNKS:
+            {
+                String clusterName = BinaryTransportCodec.readString(in);
+                int count = in.readInt();
+                List<String> hashes = new ArrayList<String>();
+                for(int i=0;i<count;i++) {
+                    hashes.add(BinaryTransportCodec.readString(in));
+                }
+                // leave room in the response frame, the rest is reported unavailable
+                this.handler.writeDataChunks(clusterName, hashes, out, BinaryTransportProtocol.MAX_FRAME_SIZE / 2);
+                break;
+            }
+            default:
+                throw new IOException("unknown opcode : " + opcode);
+        }
+    }
+    
+    /*
+     * copies the data chunk straight into the response frame
+     * in the layout of BinaryTransportCodec.writeBytes
+     */
+    private void writeDataChunk(DataOutputStream out, FrameOutputStream fos, InputStream is) throws IOException {
+        if(is == null) {
+            throw new FileNotFoundException("data chunk not found");
+        }
+        
+        try {
+            out.flush();
+            int lengthPosition = fos.size();
+            out.writeInt(0);
+            long length = IOUtils.copyLarge(is, out);
+            if(length > BinaryTransportProtocol.MAX_FRAME_SIZE) {
+                throw new IOException("data chunk is too large : " + length);
+            }
+            out.flush();
+            fos.setInt(lengthPosition, (int) length);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+    
+    /*
+     * builds a response frame in place without copying the payload
+     * the header is reserved at the beginning and filled in when the payload is complete
+     */
+    private static class FrameOutputStream extends ByteArrayOutputStream {
+        
+        private static final int RESERVED_SIZE = BinaryTransportProtocol.FRAME_LENGTH_FIELD_SIZE + BinaryTransportProtocol.FRAME_HEADER_SIZE;
+        
+        FrameOutputStream() {
+            this.count = RESERVED_SIZE;
+        }
+        
+        public void setInt(int position, int value) {
+            this.buf[position] = (byte) (value >>> 24);
+            this.buf[position + 1] = (byte) (value >>> 16);
+            this.buf[position + 2] = (byte) (value >>> 8);
+            this.buf[position + 3] = (byte) value;
+        }
+        
+        public ByteBuffer toFrame(int requestId, byte code) {
+            int frameLength = this.count - BinaryTransportProtocol.FRAME_LENGTH_FIELD_SIZE;
+            if(frameLength > BinaryTransportProtocol.MAX_FRAME_SIZE) {
+                throw new IllegalArgumentException("payload is too large : " + (this.count - RESERVED_SIZE));
+            }
+            
+            setInt(0, frameLength);
+            setInt(BinaryTransportProtocol.FRAME_LENGTH_FIELD_SIZE, requestId);
+            this.buf[RESERVED_SIZE - 1] = code;
+            return ByteBuffer.wrap(this.buf, 0, this.count);
+        }
+    }
+}
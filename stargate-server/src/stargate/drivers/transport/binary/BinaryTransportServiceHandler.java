@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.drivers.transport.binary;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.cluster.RemoteCluster;
+import stargate.commons.recipe.DataChunkBatchReader;
+import stargate.commons.recipe.DataObjectMetadata;
+import stargate.commons.recipe.DataObjectPath;
+import stargate.commons.recipe.Recipe;
+import stargate.commons.service.ServiceNotStartedException;
+import stargate.commons.transport.ATransportServer;
+import stargate.commons.volume.Directory;
+import stargate.server.service.StargateService;
+import stargate.server.transport.DataChunkBatchStreamingOutput;
+import stargate.server.transport.VolumeDataChunkBatchReader;
+
+/**
+ *
+ * @author iychoi
+ */
+public class BinaryTransportServiceHandler extends ATransportServer {
+
+    private static final Log LOG = LogFactory.getLog(BinaryTransportServiceHandler.class);
+    
+    @Override
+    public boolean isLive() {
+        return true;
+    }
+
+    @Override
+    public RemoteCluster getCluster() throws IOException {
+        try {
+            StargateService service = StargateService.getInstance();
+            return service.getClusterManager().getLocalClusterManager().toRemoteCluster();
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public Directory getDirectory(DataObjectPath path) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return service.getVolumeManager().getDirectory(path);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public DataObjectMetadata getDataObjectMetadata(DataObjectPath path) throws IOException, FileNotFoundException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return service.getVolumeManager().getDataObjectMetadata(path);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public Recipe getRecipe(DataObjectPath path) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return service.getVolumeManager().getRecipe(path);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public Collection<DataObjectMetadata> listDataObjectMetadata(DataObjectPath path) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return service.getVolumeManager().listDataObjectMetadata(path);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public InputStream getDataChunk(String clusterName, String hash) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return service.getVolumeManager().getDataChunk(clusterName, hash);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public InputStream getDataChunk(String clusterName, String hash, long offset, int size) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return service.getVolumeManager().getDataChunk(clusterName, hash, offset, size);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    @Override
+    public DataChunkBatchReader getDataChunks(String clusterName, Collection<String> hashes) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hashes == null) {
+            throw new IllegalArgumentException("hashes is null");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return new VolumeDataChunkBatchReader(service.getVolumeManager(), clusterName, null, hashes);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    public void writeDataChunks(String clusterName, Collection<String> hashes, OutputStream out, long maxDataSize) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hashes == null) {
+            throw new IllegalArgumentException("hashes is null");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            new DataChunkBatchStreamingOutput(service.getVolumeManager(), clusterName, hashes, maxDataSize).write(out);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+}
@@ -28,10 +28,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import stargate.commons.cluster.RemoteCluster;
+import stargate.commons.recipe.DataChunkBatchReader;
 import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
@@ -256,4 +258,50 @@ public class HTTPTransportClient extends ATransportClient {
             throw ex;
         }
     }
+    
+    @Override
+    public InputStream getDataChunk(String clusterName, String hash, long offset, int size) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        try {
+            String datachunkUrl = PathUtils.concatPath(HTTPTransportRestfulConstants.RESTFUL_DATACHUNK_PATH, clusterName + "/" + hash);
+            String url = getResourcePath(datachunkUrl);
+            InputStream is = this.restfulClient.download(url, offset, size);
+            
+            updateLastActivetime();
+            return is;
+        } catch (IOException ex) {
+            LOG.error("Exception occurred while calling Restful operation", ex);
+            throw ex;
+        }
+    }
+    
+    @Override
+    public DataChunkBatchReader getDataChunks(String clusterName, Collection<String> hashes) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hashes == null || hashes.isEmpty()) {
+            throw new IllegalArgumentException("hashes is null or empty");
+        }
+        
+        try {
+            // hashes are sent in the body, a batch does not fit in a query string
+            String url = getResourcePath(PathUtils.concatPath(HTTPTransportRestfulConstants.RESTFUL_DATACHUNKS_PATH, clusterName));
+            InputStream is = this.restfulClient.download(url, new ArrayList<String>(hashes));
+            
+            updateLastActivetime();
+            return new DataChunkBatchReader(is);
+        } catch (IOException ex) {
+            LOG.error("Exception occurred while calling Restful operation", ex);
+            throw ex;
+        }
+    }
 }
@@ -37,4 +37,5 @@ public abstract class HTTPTransportRestfulConstants {
     public static final String RESTFUL_LIST_METADATA_PATH = "lmetadata";
     public static final String RESTFUL_RECIPE_PATH = "recipe";
     public static final String RESTFUL_DATACHUNK_PATH = "datachunk";
+    public static final String RESTFUL_DATACHUNKS_PATH = "datachunks";
 }
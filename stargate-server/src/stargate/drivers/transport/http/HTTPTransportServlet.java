@@ -26,29 +26,40 @@ package stargate.drivers.transport.http;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
-import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import stargate.commons.cluster.RemoteCluster;
+import stargate.commons.recipe.DataChunkBatchReader;
 import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
+import stargate.commons.restful.ByteRange;
 import stargate.commons.restful.RestfulResponse;
 import stargate.commons.service.ServiceNotStartedException;
 import stargate.commons.transport.ATransportServer;
 import stargate.commons.volume.Directory;
 import stargate.server.service.StargateService;
+import stargate.server.transport.DataChunkBatchStreamingOutput;
+import stargate.server.transport.DataChunkStreamingOutput;
+import stargate.server.transport.VolumeDataChunkBatchReader;
+import stargate.server.volume.DataChunkRegion;
 
 /**
  *
@@ -255,38 +266,129 @@ public class HTTPTransportServlet extends ATransportServer {
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
     public Response getDataChunkRestful(
             @DefaultValue("") @PathParam("clusterName") String clusterName,
-            @DefaultValue("") @PathParam("hash") String hash) throws Exception {
+            @DefaultValue("") @PathParam("hash") String hash,
+            @DefaultValue("") @HeaderParam(ByteRange.RANGE_HEADER) String range,
+            @Context HttpServletResponse servletResponse) throws Exception {
         
         try {
-            final InputStream is = getDataChunk(clusterName, hash);
-            if(is == null) {
-                return Response.status(Response.Status.NOT_FOUND).build();
+            ByteRange byteRange = ByteRange.parse(range);
+            long chunkLength = -1;
+            if(byteRange != null) {
+                chunkLength = getDataChunkLength(clusterName, hash);
             }
             
-            StreamingOutput stream = new StreamingOutput() {
-                @Override
-                public void write(OutputStream out) throws IOException, WebApplicationException {
-                    try {
-                        int buffersize = 100 * 1024;
-                        byte[] buffer = new byte[buffersize];
-
-                        int read = 0;
-                        while ((read = is.read(buffer)) > 0) {
-                            out.write(buffer, 0, read);
-                        }
-                        is.close();
-
-                    } catch (Exception ex) {
-                        throw new WebApplicationException(ex);
-                    }
+            if(byteRange != null && chunkLength >= 0) {
+                // partial content
+                if(!byteRange.isSatisfiable(chunkLength)) {
+                    return Response.status(ByteRange.HTTP_REQUESTED_RANGE_NOT_SATISFIABLE).header(ByteRange.CONTENT_RANGE_HEADER, ByteRange.makeUnsatisfiableContentRange(chunkLength)).build();
                 }
-            };
-
-            return Response.ok(stream).header("content-disposition", "attachment; filename = " + hash).build();
+                
+                long offset = byteRange.getOffset(chunkLength);
+                int size = (int) byteRange.getLength(chunkLength);
+                StreamingOutput output = makeStreamingOutput(clusterName, hash, offset, size, servletResponse);
+                if(output == null) {
+                    return Response.status(Response.Status.NOT_FOUND).build();
+                }
+                
+                return Response.status(ByteRange.HTTP_PARTIAL_CONTENT).entity(output).header(ByteRange.ACCEPT_RANGES_HEADER, ByteRange.RANGE_UNIT).header(ByteRange.CONTENT_RANGE_HEADER, byteRange.makeContentRange(chunkLength)).build();
+            }
+            
+            // ranges are ignored when the chunk is not local
+            StreamingOutput output = makeStreamingOutput(clusterName, hash, 0, Integer.MAX_VALUE, servletResponse);
+            if(output == null) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            
+            return Response.ok(output).header("content-disposition", "attachment; filename = " + hash).build();
+        } catch (FileNotFoundException ex) {
+            return Response.status(Response.Status.NOT_FOUND).build();
         } catch (Exception ex) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    @POST
+    @Path(HTTPTransportRestfulConstants.RESTFUL_DATACHUNKS_PATH + "/{clusterName:.*}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public Response getDataChunksRestful(
+            @DefaultValue("") @PathParam("clusterName") String clusterName,
+            List<String> hashes) throws Exception {
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            StreamingOutput output = new DataChunkBatchStreamingOutput(service.getVolumeManager(), clusterName, makeHashList(hashes));
+            return Response.ok(output).build();
+        } catch (Exception ex) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    private List<String> makeHashList(List<String> hashes) {
+        List<String> hashList = new ArrayList<String>();
+        if(hashes != null) {
+            for(String hash : hashes) {
+                if(hash != null && !hash.trim().isEmpty()) {
+                    hashList.add(hash.trim());
+                }
+            }
+        }
+        return hashList;
+    }
+    
+    private StreamingOutput makeStreamingOutput(String clusterName, String hash, long offset, int size, HttpServletResponse servletResponse) throws IOException {
+        // serve local chunks from their files directly when possible
+        DataChunkRegion region = getLocalDataChunkRegion(clusterName, hash, offset, size);
+        if(region != null) {
+            return new DataChunkStreamingOutput(region, servletResponse);
+        }
+        
+        InputStream is;
+        if(offset == 0 && size == Integer.MAX_VALUE) {
+            is = getDataChunk(clusterName, hash);
+        } else {
+            is = getDataChunk(clusterName, hash, offset, size);
+        }
+        
+        if(is == null) {
+            return null;
+        }
+        return new DataChunkStreamingOutput(is);
+    }
+    
+    private DataChunkRegion getLocalDataChunkRegion(String clusterName, String hash, long offset, int size) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return service.getVolumeManager().getLocalDataChunkRegion(clusterName, hash, offset, size);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    private long getDataChunkLength(String clusterName, String hash) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return service.getVolumeManager().getDataChunkLength(clusterName, hash);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
 
     @Override
     public InputStream getDataChunk(String clusterName, String hash) throws IOException {
@@ -305,4 +407,40 @@ public class HTTPTransportServlet extends ATransportServer {
             throw new IOException(ex);
         }
     }
+    
+    @Override
+    public InputStream getDataChunk(String clusterName, String hash, long offset, int size) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return service.getVolumeManager().getDataChunk(clusterName, hash, offset, size);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    @Override
+    public DataChunkBatchReader getDataChunks(String clusterName, Collection<String> hashes) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hashes == null) {
+            throw new IllegalArgumentException("hashes is null");
+        }
+        
+        try {
+            StargateService service = StargateService.getInstance();
+            return new VolumeDataChunkBatchReader(service.getVolumeManager(), clusterName, null, hashes);
+        } catch (ServiceNotStartedException ex) {
+            throw new IOException(ex);
+        }
+    }
 }
@@ -37,6 +37,9 @@ public abstract class HTTPUserInterfaceRestfulConstants {
     public static final String RESTFUL_LIST_METADATA_PATH = "lmetadata";
     public static final String RESTFUL_RECIPE_PATH = "recipe";
     public static final String RESTFUL_DATACHUNK_PATH = "datachunk";
+    public static final String RESTFUL_DATACHUNKS_PATH = "datachunks";
     public static final String RESTFUL_LOCAL_CLUSTER_RESOURCE_PATH = "localpath";
     public static final String RESTFUL_SCHEDULE_PRELOAD_PATH = "preload";
+    public static final String RESTFUL_LAST_UPDATE_TIME_PATH = "lastupdate";
+    public static final String RESTFUL_RECIPE_SYNC_STATUS_PATH = "recipesync";
 }
@@ -28,17 +28,32 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import stargate.commons.datastore.ADistributedDataStore;
+import stargate.commons.policy.VolumePolicy;
 import stargate.commons.service.ServiceNotStartedException;
+import stargate.commons.utils.DateTimeUtils;
 import stargate.server.datastore.DataStoreManager;
+import stargate.server.policy.PolicyManager;
 import stargate.server.temporalstorage.TemporalStorageManager;
 
 /**
@@ -51,18 +66,48 @@ public class BlockCacheManager {
     
     private static final String BLOCKCACHEMANAGER_MAP_ID = "BlockCacheManager_Block_Cache_Metadata";
     private static final String BUCKET_ROOT = "blockcache";
+    private static final String TEMP_BUCKET_ROOT = "blockcache_temp";
+    
+    private static final int FREQUENCY_SKETCH_WIDTH = 64 * 1024;
+    
+    // evict down to this fraction of the capacity so following inserts do not evict again
+    private static final double EVICTION_LOW_WATERMARK = 0.9;
+    // period (in sec) to resync the local index with other nodes and write back access stats
+    private static final long INDEX_SYNC_PERIOD = 60;
+    private static final int DEMOTION_QUEUE_SIZE = 64;
     
     private static BlockCacheManager instance;
     
     private TemporalStorageManager temporalStorageManager;
     private DataStoreManager datastoreManager;
+    private PolicyManager policyManager;
     
     private ADistributedDataStore blockCache;
+    private Map<String, IBlockCacheEvictionPolicy> evictionPolicies = new HashMap<String, IBlockCacheEvictionPolicy>();
+    private FrequencySketch frequencySketch;
+    private long cachedSize;
+    // local view of the block cache used for eviction, access stats are kept here
+    private Map<String, BlockCacheMetadata> localIndex = new HashMap<String, BlockCacheMetadata>();
+    private Set<String> accessedEntries = new HashSet<String>();
+    private long lastIndexSyncTime;
+    private long lastAccessFlushTime;
+    private MemoryBlockCache memoryBlockCache;
+    private boolean memoryBlockCacheInitialized = false;
+    private final Object memoryBlockCacheLock = new Object();
+    
+    // demotions beyond the queue are dropped rather than holding copied data
+    private ExecutorService demotionThreadPool;
+    
+    private AtomicLong hitCount = new AtomicLong();
+    private AtomicLong memoryHitCount = new AtomicLong();
+    private AtomicLong missCount = new AtomicLong();
+    private AtomicLong evictionCount = new AtomicLong();
+    private AtomicLong admissionRejectCount = new AtomicLong();
 
-    public static BlockCacheManager getInstance(TemporalStorageManager temporalStorageManager, DataStoreManager datastoreManager) {
+    public static BlockCacheManager getInstance(TemporalStorageManager temporalStorageManager, DataStoreManager datastoreManager, PolicyManager policyManager) {
         synchronized (BlockCacheManager.class) {
             if(instance == null) {
-                instance = new BlockCacheManager(temporalStorageManager, datastoreManager);
+                instance = new BlockCacheManager(temporalStorageManager, datastoreManager, policyManager);
             }
             return instance;
         }
@@ -77,7 +122,7 @@ public class BlockCacheManager {
         }
     }
     
-    BlockCacheManager(TemporalStorageManager temporalStorageManager, DataStoreManager datastoreManager) {
+    BlockCacheManager(TemporalStorageManager temporalStorageManager, DataStoreManager datastoreManager, PolicyManager policyManager) {
         if(temporalStorageManager == null) {
             throw new IllegalArgumentException("temporalStorageManager is null");
         }
@@ -86,12 +131,127 @@ public class BlockCacheManager {
             throw new IllegalArgumentException("datastoreManager is null");
         }
         
+        if(policyManager == null) {
+            throw new IllegalArgumentException("policyManager is null");
+        }
+        
         this.temporalStorageManager = temporalStorageManager;
         this.datastoreManager = datastoreManager;
+        this.policyManager = policyManager;
+        
+        this.blockCache = this.datastoreManager.getPersistentDistributedDataStore(BLOCKCACHEMANAGER_MAP_ID, BlockCacheMetadata.class);
         
-        this.blockCache = this.datastoreManager.getPersistentDistributedDataStore(BLOCKCACHEMANAGER_MAP_ID, BlockCacheEntry.class);
+        addEvictionPolicy(new LRUBlockCacheEvictionPolicy());
+        addEvictionPolicy(new LFUBlockCacheEvictionPolicy());
+        addEvictionPolicy(new GDSFBlockCacheEvictionPolicy());
+        
+        this.frequencySketch = new FrequencySketch(FREQUENCY_SKETCH_WIDTH);
+        
+        this.demotionThreadPool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(DEMOTION_QUEUE_SIZE), new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "BlockCacheManager-demotion");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.DiscardPolicy());
         
         prepareBucket();
+        
+        try {
+            syncLocalIndex();
+        } catch (IOException ex) {
+            LOG.error("Failed to compute a size of blockcache", ex);
+        }
+    }
+    
+    public synchronized void addEvictionPolicy(IBlockCacheEvictionPolicy policy) {
+        if(policy == null) {
+            throw new IllegalArgumentException("policy is null");
+        }
+        
+        this.evictionPolicies.put(policy.getName().toUpperCase(), policy);
+    }
+    
+    private IBlockCacheEvictionPolicy getEvictionPolicy(String name) {
+        IBlockCacheEvictionPolicy policy = null;
+        if(name != null) {
+            policy = this.evictionPolicies.get(name.toUpperCase());
+        }
+        
+        if(policy == null) {
+            LOG.error("unknown blockcache eviction policy - " + name + ", use LRU");
+            policy = this.evictionPolicies.get(VolumePolicy.BLOCK_CACHE_EVICTION_POLICY_LRU);
+        }
+        return policy;
+    }
+    
+    /*
+     * reloads the local index from the distributed map, other nodes may have changed the cache
+     */
+    private synchronized void syncLocalIndex() throws IOException {
+        flushAccessedEntries();
+        
+        Map<String, Object> values = this.blockCache.getAll(this.blockCache.keySet());
+        Map<String, BlockCacheMetadata> index = new HashMap<String, BlockCacheMetadata>();
+        long size = 0;
+        for(Map.Entry<String, Object> entry : values.entrySet()) {
+            BlockCacheMetadata metadata = (BlockCacheMetadata) entry.getValue();
+            if(metadata != null) {
+                index.put(entry.getKey(), metadata);
+                size += metadata.getSize();
+            }
+        }
+        
+        this.localIndex = index;
+        this.cachedSize = size;
+        this.lastIndexSyncTime = DateTimeUtils.getCurrentTime();
+    }
+    
+    /*
+     * writes back access stats coalesced since the last flush
+     */
+    private synchronized void flushAccessedEntries() throws IOException {
+        for(String hash : this.accessedEntries) {
+            BlockCacheMetadata metadata = this.localIndex.get(hash);
+            if(metadata != null && this.blockCache.containsKey(hash)) {
+                this.blockCache.put(hash, metadata);
+            }
+        }
+        this.accessedEntries.clear();
+        this.lastAccessFlushTime = DateTimeUtils.getCurrentTime();
+    }
+    
+    private synchronized BlockCacheMetadata lookupLocalIndex(String hash) throws IOException {
+        BlockCacheMetadata metadata = this.localIndex.get(hash);
+        if(metadata == null) {
+            // added by other nodes
+            metadata = (BlockCacheMetadata) this.blockCache.get(hash);
+            if(metadata != null) {
+                this.localIndex.put(hash, metadata);
+                this.cachedSize += metadata.getSize();
+            }
+        }
+        return metadata;
+    }
+    
+    private synchronized void markAccessed(BlockCacheMetadata metadata) throws IOException {
+        long now = DateTimeUtils.getCurrentTime();
+        metadata.markAccessed(now);
+        this.accessedEntries.add(metadata.getHash());
+        
+        if(DateTimeUtils.timeElapsedSecond(this.lastAccessFlushTime, now, INDEX_SYNC_PERIOD)) {
+            flushAccessedEntries();
+        }
+    }
+    
+    private synchronized void addLocalIndex(BlockCacheMetadata metadata) {
+        BlockCacheMetadata old = this.localIndex.put(metadata.getHash(), metadata);
+        if(old != null) {
+            this.cachedSize -= old.getSize();
+        }
+        this.cachedSize += metadata.getSize();
     }
     
     private void prepareBucket() {
@@ -102,6 +262,17 @@ public class BlockCacheManager {
             if(!this.temporalStorageManager.exists(bucket)) {
                 this.temporalStorageManager.makeDirs(bucket);
             }
+            
+            // temporary entries left by writers that never finished
+            URI tempBucket = getTempBucketPath();
+            if(this.temporalStorageManager.exists(tempBucket)) {
+                LOG.info("purging temporary blockcache entries");
+                this.temporalStorageManager.removeDir(tempBucket, true);
+            }
+            
+            if(!this.temporalStorageManager.exists(tempBucket)) {
+                this.temporalStorageManager.makeDirs(tempBucket);
+            }
         } catch (URISyntaxException ex) {
             LOG.error("Failed to get a bucket path", ex);
         } catch (IOException ex) {
@@ -117,6 +288,14 @@ public class BlockCacheManager {
         return new URI(BUCKET_ROOT + "/" + key);
     }
     
+    private URI getTempBucketPath() throws URISyntaxException {
+        return new URI(TEMP_BUCKET_ROOT);
+    }
+    
+    private URI getTempEntryFilePath(String key) throws URISyntaxException {
+        return new URI(TEMP_BUCKET_ROOT + "/" + key + "_" + UUID.randomUUID().toString());
+    }
+    
     public synchronized int getBlockCacheCount() {
         return this.blockCache.size();
     }
@@ -145,19 +324,226 @@ public class BlockCacheManager {
             throw new IllegalArgumentException("hash is empty or null");
         }
         
-        BlockCacheMetadata metadata = (BlockCacheMetadata) this.blockCache.get(hash);
+        this.frequencySketch.increment(hash);
+        
+        BlockCacheMetadata metadata = lookupLocalIndex(hash);
         if(metadata == null) {
+            this.missCount.incrementAndGet();
             return null;
         }
         
         byte[] blockdata = readBlockCacheData(metadata);
         if(blockdata == null) {
+            this.missCount.incrementAndGet();
             return null;
         }
         
+        this.hitCount.incrementAndGet();
+        markAccessed(metadata);
+        
         return new BlockCacheEntry(metadata, blockdata);
     }
     
+    private MemoryBlockCache getMemoryBlockCache() {
+        synchronized(this.memoryBlockCacheLock) {
+            if(!this.memoryBlockCacheInitialized) {
+                try {
+                    long memoryCapacity = this.policyManager.getVolumePolicy().getBlockCacheMemoryCapacity();
+                    if(memoryCapacity >= MemoryBlockCache.SLAB_SIZE) {
+                        this.memoryBlockCache = new MemoryBlockCache(memoryCapacity);
+                    }
+                    this.memoryBlockCacheInitialized = true;
+                } catch (IOException ex) {
+                    LOG.error("Failed to read a memory blockcache policy", ex);
+                    return null;
+                }
+            }
+            return this.memoryBlockCache;
+        }
+    }
+    
+    public InputStream getBlockCacheInputStream(String hash) throws IOException {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is empty or null");
+        }
+        
+        this.frequencySketch.increment(hash);
+        
+        // tier 1. memory
+        MemoryBlockCache memoryCache = getMemoryBlockCache();
+        if(memoryCache != null) {
+            InputStream memoryInputStream = memoryCache.getInputStream(hash);
+            if(memoryInputStream != null) {
+                this.hitCount.incrementAndGet();
+                this.memoryHitCount.incrementAndGet();
+                return memoryInputStream;
+            }
+        }
+        
+        // tier 2. temporal storage
+        BlockCacheMetadata metadata = touchBlockCache(hash);
+        if(metadata == null) {
+            this.missCount.incrementAndGet();
+            return null;
+        }
+        
+        InputStream storageInputStream = openBlockCacheData(metadata);
+        if(storageInputStream == null) {
+            this.missCount.incrementAndGet();
+            return null;
+        }
+        
+        this.hitCount.incrementAndGet();
+        
+        // promote
+        if(memoryCache != null && metadata.getSize() <= memoryCache.getCapacity()) {
+            InputStream promotedInputStream = promoteBlockCache(memoryCache, metadata, storageInputStream);
+            if(promotedInputStream != null) {
+                return promotedInputStream;
+            }
+        }
+        return storageInputStream;
+    }
+    
+    private synchronized BlockCacheMetadata touchBlockCache(String hash) throws IOException {
+        BlockCacheMetadata metadata = lookupLocalIndex(hash);
+        if(metadata != null) {
+            markAccessed(metadata);
+        }
+        return metadata;
+    }
+    
+    private InputStream promoteBlockCache(MemoryBlockCache memoryCache, BlockCacheMetadata metadata, InputStream storageInputStream) throws IOException {
+        int slabCount = MemoryBlockCache.getSlabCount(metadata.getSize());
+        
+        // victims are evicted only if the reservation succeeds
+        List<MemoryBlockCacheEntry> victims = memoryCache.reserveSlabs(slabCount);
+        if(victims == null) {
+            return null;
+        }
+        
+        for(MemoryBlockCacheEntry victim : victims) {
+            demoteBlockCache(victim);
+        }
+        
+        ByteBuffer[] slabs = memoryCache.allocateReservedSlabs(slabCount);
+        if(slabs == null) {
+            return null;
+        }
+        
+        try {
+            byte[] buffer = new byte[Math.min(MemoryBlockCache.SLAB_SIZE, 64 * 1024)];
+            long left = metadata.getSize();
+            int slabIndex = 0;
+            while(left > 0) {
+                int toRead = (int) Math.min(left, buffer.length);
+                int read = storageInputStream.read(buffer, 0, toRead);
+                if(read < 0) {
+                    throw new IOException("unexpected EOF while promoting a block cache - " + metadata.getHash());
+                }
+                
+                int written = 0;
+                while(written < read) {
+                    ByteBuffer slab = slabs[slabIndex];
+                    int toWrite = Math.min(read - written, slab.remaining());
+                    slab.put(buffer, written, toWrite);
+                    written += toWrite;
+                    if(!slab.hasRemaining()) {
+                        slabIndex++;
+                    }
+                }
+                left -= read;
+            }
+        } catch (IOException ex) {
+            memoryCache.cancelSlabs(slabs);
+            IOUtils.closeQuietly(storageInputStream);
+            throw ex;
+        }
+        
+        IOUtils.closeQuietly(storageInputStream);
+        
+        memoryCache.put(metadata.getHash(), metadata.getSize(), slabs);
+        
+        InputStream memoryInputStream = memoryCache.getInputStream(metadata.getHash());
+        if(memoryInputStream == null) {
+            // evicted already
+            return openBlockCacheData(metadata);
+        }
+        return memoryInputStream;
+    }
+    
+    /*
+     * releases the victim, its data is written to the storage tier in background if not there
+     */
+    private void demoteBlockCache(MemoryBlockCacheEntry victim) {
+        try {
+            if(isIndexed(victim.getHash())) {
+                // promoted from the storage tier and still there
+                return;
+            }
+            
+            // copy out so that slabs can be reused right away
+            final String hash = victim.getHash();
+            final byte[] data;
+            InputStream victimInputStream = victim.getInputStream();
+            try {
+                data = IOUtils.toByteArray(victimInputStream);
+            } finally {
+                IOUtils.closeQuietly(victimInputStream);
+            }
+            
+            this.demotionThreadPool.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    writeDemotedBlockCache(hash, data);
+                }
+            });
+        } catch (IOException ex) {
+            LOG.error("Failed to demote a block cache - " + victim.getHash(), ex);
+        } finally {
+            victim.release();
+        }
+    }
+    
+    private void writeDemotedBlockCache(String hash, byte[] data) {
+        try {
+            if(hasBlockCacheInStorage(hash)) {
+                return;
+            }
+            
+            LOG.debug("demoting a block cache - " + hash);
+            
+            BlockCacheWriter writer = createBlockCacheWriter(hash);
+            try {
+                writer.write(data, 0, data.length);
+                writer.commit();
+            } catch (IOException ex) {
+                writer.discard();
+                throw ex;
+            }
+        } catch (IOException ex) {
+            LOG.error("Failed to demote a block cache - " + hash, ex);
+        }
+    }
+    
+    private synchronized boolean isIndexed(String hash) {
+        return this.localIndex.containsKey(hash);
+    }
+    
+    private synchronized InputStream openBlockCacheData(BlockCacheMetadata metadata) throws IOException {
+        try {
+            URI entryFilePath = getEntryFilePath(metadata.getHash());
+            if(!this.temporalStorageManager.exists(entryFilePath)) {
+                return null;
+            }
+            
+            return this.temporalStorageManager.getInputStream(entryFilePath);
+        } catch (URISyntaxException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
     protected synchronized byte[] readBlockCacheData(BlockCacheMetadata metadata) throws IOException {
         if(metadata == null || metadata.isEmpty()) {
             throw new IllegalArgumentException("metadata is empty or null");
@@ -217,6 +603,70 @@ public class BlockCacheManager {
         }
     }
     
+    private boolean ensureCapacity(String hash, long size) throws IOException {
+        VolumePolicy volumePolicy = this.policyManager.getVolumePolicy();
+        long capacity = volumePolicy.getBlockCacheCapacity();
+        if(capacity <= 0) {
+            // unlimited
+            return true;
+        }
+        
+        if(size > capacity) {
+            this.admissionRejectCount.incrementAndGet();
+            return false;
+        }
+        
+        if(this.cachedSize + size <= capacity) {
+            return true;
+        }
+        
+        if(DateTimeUtils.timeElapsedSecond(this.lastIndexSyncTime, DateTimeUtils.getCurrentTime(), INDEX_SYNC_PERIOD)) {
+            // other nodes may have changed the cache
+            syncLocalIndex();
+            if(this.cachedSize + size <= capacity) {
+                return true;
+            }
+        }
+        
+        List<BlockCacheMetadata> entries = new ArrayList<BlockCacheMetadata>();
+        for(BlockCacheMetadata metadata : this.localIndex.values()) {
+            if(!metadata.getHash().equals(hash)) {
+                entries.add(metadata);
+            }
+        }
+        
+        final IBlockCacheEvictionPolicy evictionPolicy = getEvictionPolicy(volumePolicy.getBlockCacheEvictionPolicy());
+        final long currentTime = DateTimeUtils.getCurrentTime();
+        Collections.sort(entries, new Comparator<BlockCacheMetadata>() {
+
+            @Override
+            public int compare(BlockCacheMetadata t1, BlockCacheMetadata t2) {
+                return Double.compare(evictionPolicy.getRetentionValue(t1, currentTime), evictionPolicy.getRetentionValue(t2, currentTime));
+            }
+        });
+        
+        if(VolumePolicy.BLOCK_CACHE_ADMISSION_POLICY_TINYLFU.equalsIgnoreCase(volumePolicy.getBlockCacheAdmissionPolicy()) && !entries.isEmpty()) {
+            // admit only if the candidate is accessed more frequently than the victim
+            BlockCacheMetadata victim = entries.get(0);
+            if(this.frequencySketch.frequency(hash) <= this.frequencySketch.frequency(victim.getHash())) {
+                this.admissionRejectCount.incrementAndGet();
+                return false;
+            }
+        }
+        
+        long lowWatermark = (long) (capacity * EVICTION_LOW_WATERMARK);
+        for(BlockCacheMetadata victim : entries) {
+            if(this.cachedSize + size <= lowWatermark) {
+                break;
+            }
+            
+            LOG.debug("evicting a block cache - " + victim.getHash());
+            removeBlockCache(victim.getHash());
+            this.evictionCount.incrementAndGet();
+        }
+        return true;
+    }
+    
     public synchronized void addBlockCache(Collection<BlockCacheEntry> entry) throws IOException {
         if(entry == null) {
             throw new IllegalArgumentException("entry is null");
@@ -233,11 +683,79 @@ public class BlockCacheManager {
         }
 
         BlockCacheMetadata metadata = entry.getMetadata();
-        this.blockCache.put(metadata.getHash(), metadata);
+        if(!ensureCapacity(metadata.getHash(), metadata.getSize())) {
+            LOG.debug("block cache is not admitted - " + metadata.getHash());
+            return;
+        }
+        
         writeBlockCacheData(metadata, entry.getBlockData());
+        this.blockCache.put(metadata.getHash(), metadata);
+        addLocalIndex(metadata);
+    }
+    
+    public BlockCacheWriter createBlockCacheWriter(String hash) throws IOException {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is empty or null");
+        }
+        
+        try {
+            URI tempEntryFilePath = getTempEntryFilePath(hash);
+            OutputStream outputStream = this.temporalStorageManager.getOutputStream(tempEntryFilePath);
+            return new BlockCacheWriter(this, hash, tempEntryFilePath, outputStream);
+        } catch (URISyntaxException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    protected synchronized void commitBlockCache(BlockCacheMetadata metadata, URI tempEntryFilePath) throws IOException {
+        if(metadata == null || metadata.isEmpty()) {
+            throw new IllegalArgumentException("metadata is empty or null");
+        }
+        
+        if(tempEntryFilePath == null) {
+            throw new IllegalArgumentException("tempEntryFilePath is null");
+        }
+        
+        if(!ensureCapacity(metadata.getHash(), metadata.getSize())) {
+            LOG.debug("block cache is not admitted - " + metadata.getHash());
+            discardBlockCache(tempEntryFilePath);
+            return;
+        }
+        
+        try {
+            URI entryFilePath = getEntryFilePath(metadata.getHash());
+            if(!this.temporalStorageManager.rename(tempEntryFilePath, entryFilePath)) {
+                if(!this.temporalStorageManager.exists(entryFilePath)) {
+                    throw new IOException("unable to commit a block cache - " + metadata.getHash());
+                }
+                
+                // committed by other writer already
+                this.temporalStorageManager.remove(tempEntryFilePath);
+            }
+            
+            this.blockCache.put(metadata.getHash(), metadata);
+            addLocalIndex(metadata);
+        } catch (URISyntaxException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    protected synchronized void discardBlockCache(URI tempEntryFilePath) throws IOException {
+        if(tempEntryFilePath == null) {
+            throw new IllegalArgumentException("tempEntryFilePath is null");
+        }
+        
+        if(this.temporalStorageManager.exists(tempEntryFilePath)) {
+            this.temporalStorageManager.remove(tempEntryFilePath);
+        }
     }
     
     public synchronized void clearBlockCache() throws IOException {
+        MemoryBlockCache memoryCache = getMemoryBlockCache();
+        if(memoryCache != null) {
+            memoryCache.clear();
+        }
+        
         Set<String> keys = this.blockCache.keySet();
         for(String key : keys) {
             removeBlockCache((String) key);
@@ -257,15 +775,30 @@ public class BlockCacheManager {
             throw new IllegalArgumentException("hash is empty or null");
         }
         
+        BlockCacheMetadata metadata = this.localIndex.remove(hash);
+        if(metadata != null) {
+            this.cachedSize = Math.max(0, this.cachedSize - metadata.getSize());
+        }
+        this.accessedEntries.remove(hash);
+        
         this.blockCache.remove(hash);
         deleteBlockCacheData(hash);
     }
     
-    public synchronized boolean hasBlockCache(String hash) {
+    public boolean hasBlockCache(String hash) {
         if(hash == null || hash.isEmpty()) {
             throw new IllegalArgumentException("hash is empty or null");
         }
         
+        MemoryBlockCache memoryCache = getMemoryBlockCache();
+        if(memoryCache != null && memoryCache.contains(hash)) {
+            return true;
+        }
+        
+        return hasBlockCacheInStorage(hash);
+    }
+    
+    private synchronized boolean hasBlockCacheInStorage(String hash) {
         try {
             if(this.blockCache.containsKey(hash)) {
                 URI entryFilePath = getEntryFilePath(hash);
@@ -290,6 +823,30 @@ public class BlockCacheManager {
         return false;
     }
     
+    public synchronized long getBlockCacheSize() {
+        return this.cachedSize;
+    }
+    
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+    
+    public long getMemoryHitCount() {
+        return this.memoryHitCount.get();
+    }
+    
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+    
+    public long getEvictionCount() {
+        return this.evictionCount.get();
+    }
+    
+    public long getAdmissionRejectCount() {
+        return this.admissionRejectCount.get();
+    }
+    
     @Override
     public synchronized String toString() {
         return "BlockCacheManager";
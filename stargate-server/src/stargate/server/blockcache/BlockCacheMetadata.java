@@ -42,6 +42,8 @@ public class BlockCacheMetadata {
     private String hash;
     private long size;
     private long creationTime;
+    private long lastAccessTime;
+    private long accessCount;
     
     public static BlockCacheMetadata createInstance(File file) throws IOException {
         if(file == null) {
@@ -65,12 +67,16 @@ public class BlockCacheMetadata {
         this.hash = null;
         this.size = 0;
         this.creationTime = 0;
+        this.lastAccessTime = 0;
+        this.accessCount = 0;
     }
     
     public BlockCacheMetadata(BlockCacheMetadata that) {
         this.hash = that.hash;
         this.size = that.size;
         this.creationTime = that.creationTime;
+        this.lastAccessTime = that.lastAccessTime;
+        this.accessCount = that.accessCount;
     }
     
     public BlockCacheMetadata(String hash, long size, long creationTime) {
@@ -105,6 +111,8 @@ public class BlockCacheMetadata {
         this.hash = hash;
         this.size = size;
         this.creationTime = creationTime;
+        this.lastAccessTime = creationTime;
+        this.accessCount = 0;
     }
     
     @JsonProperty("hash")
@@ -141,6 +149,40 @@ public class BlockCacheMetadata {
         this.creationTime = creationTime;
     }
 
+    @JsonProperty("last_access_time")
+    public long getLastAccessTime() {
+        return this.lastAccessTime;
+    }
+    
+    @JsonProperty("last_access_time")
+    public void setLastAccessTime(long lastAccessTime) {
+        if(lastAccessTime < 0) {
+            throw new IllegalArgumentException("lastAccessTime is invalid");
+        }
+        
+        this.lastAccessTime = lastAccessTime;
+    }
+    
+    @JsonProperty("access_count")
+    public long getAccessCount() {
+        return this.accessCount;
+    }
+    
+    @JsonProperty("access_count")
+    public void setAccessCount(long accessCount) {
+        if(accessCount < 0) {
+            throw new IllegalArgumentException("accessCount is invalid");
+        }
+        
+        this.accessCount = accessCount;
+    }
+    
+    @JsonIgnore
+    public void markAccessed(long accessTime) {
+        this.lastAccessTime = accessTime;
+        this.accessCount++;
+    }
+    
     @JsonIgnore
     public boolean isEmpty() {
         if(this.hash == null || this.hash.isEmpty()) {
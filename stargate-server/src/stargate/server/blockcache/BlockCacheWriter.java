@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.blockcache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.utils.DateTimeUtils;
+
+/**
+ *
+ * @author iychoi
+ */
+public class BlockCacheWriter {
+    
+    private static final Log LOG = LogFactory.getLog(BlockCacheWriter.class);
+    
+    private BlockCacheManager blockCacheManager;
+    private String hash;
+    private URI tempEntryFilePath;
+    private OutputStream outputStream;
+    private long size;
+    private boolean closed;
+    
+    BlockCacheWriter(BlockCacheManager blockCacheManager, String hash, URI tempEntryFilePath, OutputStream outputStream) {
+        if(blockCacheManager == null) {
+            throw new IllegalArgumentException("blockCacheManager is null");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is empty or null");
+        }
+        
+        if(tempEntryFilePath == null) {
+            throw new IllegalArgumentException("tempEntryFilePath is null");
+        }
+        
+        if(outputStream == null) {
+            throw new IllegalArgumentException("outputStream is null");
+        }
+        
+        this.blockCacheManager = blockCacheManager;
+        this.hash = hash;
+        this.tempEntryFilePath = tempEntryFilePath;
+        this.outputStream = outputStream;
+        this.size = 0;
+        this.closed = false;
+    }
+    
+    public String getHash() {
+        return this.hash;
+    }
+    
+    public long getSize() {
+        return this.size;
+    }
+    
+    public void write(int b) throws IOException {
+        if(this.closed) {
+            throw new IOException("writer is already closed");
+        }
+        
+        this.outputStream.write(b);
+        this.size++;
+    }
+    
+    public void write(byte[] buffer, int offset, int len) throws IOException {
+        if(this.closed) {
+            throw new IOException("writer is already closed");
+        }
+        
+        this.outputStream.write(buffer, offset, len);
+        this.size += len;
+    }
+    
+    public void commit() throws IOException {
+        if(this.closed) {
+            throw new IOException("writer is already closed");
+        }
+        
+        this.closed = true;
+        this.outputStream.close();
+        
+        BlockCacheMetadata metadata = new BlockCacheMetadata(this.hash, this.size, DateTimeUtils.getCurrentTime());
+        try {
+            this.blockCacheManager.commitBlockCache(metadata, this.tempEntryFilePath);
+        } catch (IOException ex) {
+            this.blockCacheManager.discardBlockCache(this.tempEntryFilePath);
+            throw ex;
+        }
+    }
+    
+    public void discard() {
+        if(this.closed) {
+            return;
+        }
+        
+        this.closed = true;
+        IOUtils.closeQuietly(this.outputStream);
+        
+        try {
+            this.blockCacheManager.discardBlockCache(this.tempEntryFilePath);
+        } catch (IOException ex) {
+            LOG.error("Failed to discard a temporary block cache - " + this.tempEntryFilePath.toString(), ex);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.blockcache;
+
+/**
+ *
+ * @author iychoi
+ */
+public class FrequencySketch {
+    
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0x2c1b3c6d, 0x5bd1e995, 0x7feb352d};
+    
+    private int width;
+    private int[][] table;
+    private int sampleSize;
+    private int additions;
+    
+    public FrequencySketch(int width) {
+        if(width <= 0) {
+            throw new IllegalArgumentException("width is invalid");
+        }
+        
+        // round up to power of 2
+        int w = 1;
+        while(w < width) {
+            w <<= 1;
+        }
+        
+        this.width = w;
+        this.table = new int[DEPTH][w];
+        this.sampleSize = w * 10;
+        this.additions = 0;
+    }
+    
+    private int indexOf(String key, int row) {
+        int h = key.hashCode() * SEEDS[row];
+        h ^= (h >>> 16);
+        return h & (this.width - 1);
+    }
+    
+    public synchronized void increment(String key) {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        boolean added = false;
+        for(int i=0;i<DEPTH;i++) {
+            int idx = indexOf(key, i);
+            if(this.table[i][idx] < MAX_COUNT) {
+                this.table[i][idx]++;
+                added = true;
+            }
+        }
+        
+        if(added) {
+            this.additions++;
+            if(this.additions >= this.sampleSize) {
+                reset();
+            }
+        }
+    }
+    
+    public synchronized int frequency(String key) {
+        if(key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        
+        int freq = MAX_COUNT;
+        for(int i=0;i<DEPTH;i++) {
+            freq = Math.min(freq, this.table[i][indexOf(key, i)]);
+        }
+        return freq;
+    }
+    
+    private void reset() {
+        // age all counters
+        for(int i=0;i<DEPTH;i++) {
+            for(int j=0;j<this.width;j++) {
+                this.table[i][j] >>>= 1;
+            }
+        }
+        this.additions /= 2;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.blockcache;
+
+import stargate.commons.policy.VolumePolicy;
+
+/**
+ *
+ * @author iychoi
+ */
+public class GDSFBlockCacheEvictionPolicy implements IBlockCacheEvictionPolicy {
+
+    private static final double SIZE_UNIT = 1024 * 1024;
+    // how long (in millisec) one unit of frequency per MB keeps an entry
+    private static final double FREQUENCY_WEIGHT = 60 * 1000;
+    
+    @Override
+    public String getName() {
+        return VolumePolicy.BLOCK_CACHE_EVICTION_POLICY_GDSF;
+    }
+
+    @Override
+    public double getRetentionValue(BlockCacheMetadata metadata, long currentTime) {
+        if(metadata == null) {
+            throw new IllegalArgumentException("metadata is null");
+        }
+        
+        // greedy-dual-size-frequency, using last access time as the inflation value
+        double size = Math.max(metadata.getSize(), 1) / SIZE_UNIT;
+        double frequency = metadata.getAccessCount() + 1;
+        return metadata.getLastAccessTime() + FREQUENCY_WEIGHT * frequency / size;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.blockcache;
+
+import stargate.commons.policy.VolumePolicy;
+
+/**
+ *
+ * @author iychoi
+ */
+public class LFUBlockCacheEvictionPolicy implements IBlockCacheEvictionPolicy {
+
+    @Override
+    public String getName() {
+        return VolumePolicy.BLOCK_CACHE_EVICTION_POLICY_LFU;
+    }
+
+    @Override
+    public double getRetentionValue(BlockCacheMetadata metadata, long currentTime) {
+        if(metadata == null) {
+            throw new IllegalArgumentException("metadata is null");
+        }
+        
+        // break ties among same access counts by recency
+        double recency = 0;
+        if(currentTime > 0) {
+            recency = (double) metadata.getLastAccessTime() / (double) currentTime;
+        }
+        return metadata.getAccessCount() + Math.min(recency, 1.0) * 0.5;
+    }
+}
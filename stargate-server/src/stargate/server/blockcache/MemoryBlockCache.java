@@ -0,0 +1,239 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.blockcache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.utils.DateTimeUtils;
+
+/**
+ *
+ * @author iychoi
+ */
+public class MemoryBlockCache {
+    
+    private static final Log LOG = LogFactory.getLog(MemoryBlockCache.class);
+    
+    public static final int SLAB_SIZE = 256 * 1024;
+    
+    private long capacity;
+    private int maxSlabs;
+    private int allocatedSlabs;
+    private int usedSlabs;
+    private Deque<ByteBuffer> freeSlabs = new ArrayDeque<ByteBuffer>();
+    // access-ordered for LRU
+    private LinkedHashMap<String, MemoryBlockCacheEntry> entries = new LinkedHashMap<String, MemoryBlockCacheEntry>(16, 0.75f, true);
+    
+    public MemoryBlockCache(long capacity) {
+        if(capacity < SLAB_SIZE) {
+            throw new IllegalArgumentException("capacity is too small");
+        }
+        
+        this.capacity = capacity;
+        this.maxSlabs = (int) Math.min(capacity / SLAB_SIZE, Integer.MAX_VALUE);
+        this.allocatedSlabs = 0;
+        this.usedSlabs = 0;
+    }
+    
+    public static int getSlabCount(long size) {
+        return (int) ((size + SLAB_SIZE - 1) / SLAB_SIZE);
+    }
+    
+    public long getCapacity() {
+        return this.capacity;
+    }
+    
+    public synchronized long getUsedSize() {
+        return (long) this.usedSlabs * SLAB_SIZE;
+    }
+    
+    public synchronized int getEntryCount() {
+        return this.entries.size();
+    }
+    
+    public synchronized boolean contains(String hash) {
+        return this.entries.containsKey(hash);
+    }
+    
+    public synchronized MemoryBlockCacheInputStream getInputStream(String hash) {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is empty or null");
+        }
+        
+        MemoryBlockCacheEntry entry = this.entries.get(hash);
+        if(entry == null) {
+            return null;
+        }
+        
+        entry.markAccessed(DateTimeUtils.getCurrentTime());
+        return entry.getInputStream();
+    }
+    
+    /*
+     * Reserve given slabs, removing least recently used entries only if the reservation succeeds.
+     * Only entries not being read are evicted, so their slabs become free once released.
+     * Returns null if slabs cannot be reserved, nothing is evicted in that case.
+     * Returned entries are still referenced; caller must release them and then call allocateReservedSlabs.
+     */
+    public synchronized List<MemoryBlockCacheEntry> reserveSlabs(int slabs) {
+        if(slabs < 0 || slabs > this.maxSlabs) {
+            return null;
+        }
+        
+        int logicalAvailable = this.maxSlabs - this.usedSlabs;
+        // slabs of evicted entries may still be in use by readers
+        int physicalAvailable = this.freeSlabs.size() + (this.maxSlabs - this.allocatedSlabs);
+        
+        List<MemoryBlockCacheEntry> victims = new ArrayList<MemoryBlockCacheEntry>();
+        int reclaimable = 0;
+        Iterator<MemoryBlockCacheEntry> iterator = this.entries.values().iterator();
+        while((logicalAvailable + reclaimable < slabs || physicalAvailable + reclaimable < slabs) && iterator.hasNext()) {
+            MemoryBlockCacheEntry entry = iterator.next();
+            if(entry.isIdle()) {
+                victims.add(entry);
+                reclaimable += entry.getSlabs().length;
+            }
+        }
+        
+        if(logicalAvailable + reclaimable < slabs || physicalAvailable + reclaimable < slabs) {
+            return null;
+        }
+        
+        for(MemoryBlockCacheEntry victim : victims) {
+            this.entries.remove(victim.getHash());
+            this.usedSlabs -= victim.getSlabs().length;
+        }
+        this.usedSlabs += slabs;
+        return victims;
+    }
+    
+    /*
+     * Allocate slabs reserved by reserveSlabs, returns null and cancels the reservation
+     * if other allocations took the reclaimed slabs meanwhile.
+     */
+    public synchronized ByteBuffer[] allocateReservedSlabs(int slabs) {
+        if(slabs < 0) {
+            throw new IllegalArgumentException("slabs is invalid");
+        }
+        
+        if(this.freeSlabs.size() + (this.maxSlabs - this.allocatedSlabs) < slabs) {
+            this.usedSlabs -= slabs;
+            return null;
+        }
+        
+        return takeSlabs(slabs);
+    }
+    
+    public synchronized ByteBuffer[] allocateSlabs(int slabs) {
+        if(slabs < 0) {
+            throw new IllegalArgumentException("slabs is invalid");
+        }
+        
+        if(this.maxSlabs - this.usedSlabs < slabs) {
+            return null;
+        }
+        
+        // slabs of evicted entries may still be in use by readers
+        if(this.freeSlabs.size() + (this.maxSlabs - this.allocatedSlabs) < slabs) {
+            return null;
+        }
+        
+        this.usedSlabs += slabs;
+        return takeSlabs(slabs);
+    }
+    
+    private ByteBuffer[] takeSlabs(int slabs) {
+        ByteBuffer[] buffers = new ByteBuffer[slabs];
+        for(int i=0;i<slabs;i++) {
+            ByteBuffer slab = this.freeSlabs.poll();
+            if(slab == null) {
+                slab = ByteBuffer.allocateDirect(SLAB_SIZE);
+                this.allocatedSlabs++;
+            }
+            slab.clear();
+            buffers[i] = slab;
+        }
+        return buffers;
+    }
+    
+    public synchronized void cancelSlabs(ByteBuffer[] slabs) {
+        if(slabs == null) {
+            throw new IllegalArgumentException("slabs is null");
+        }
+        
+        this.usedSlabs -= slabs.length;
+        releaseSlabs(slabs);
+    }
+    
+    synchronized void releaseSlabs(ByteBuffer[] slabs) {
+        for(ByteBuffer slab : slabs) {
+            slab.clear();
+            this.freeSlabs.push(slab);
+        }
+    }
+    
+    public synchronized MemoryBlockCacheEntry put(String hash, long size, ByteBuffer[] slabs) {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is empty or null");
+        }
+        
+        if(slabs == null) {
+            throw new IllegalArgumentException("slabs is null");
+        }
+        
+        if(this.entries.containsKey(hash)) {
+            // loaded by other thread
+            cancelSlabs(slabs);
+            return this.entries.get(hash);
+        }
+        
+        MemoryBlockCacheEntry entry = new MemoryBlockCacheEntry(this, hash, size, slabs, DateTimeUtils.getCurrentTime());
+        this.entries.put(hash, entry);
+        return entry;
+    }
+    
+    public synchronized void remove(String hash) {
+        MemoryBlockCacheEntry entry = this.entries.remove(hash);
+        if(entry != null) {
+            this.usedSlabs -= entry.getSlabs().length;
+            entry.release();
+        }
+    }
+    
+    public synchronized void clear() {
+        for(MemoryBlockCacheEntry entry : this.entries.values()) {
+            this.usedSlabs -= entry.getSlabs().length;
+            entry.release();
+        }
+        this.entries.clear();
+    }
+}
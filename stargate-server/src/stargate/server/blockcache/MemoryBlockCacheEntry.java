@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.blockcache;
+
+import java.nio.ByteBuffer;
+
+/**
+ *
+ * @author iychoi
+ */
+public class MemoryBlockCacheEntry {
+    
+    private MemoryBlockCache cache;
+    private String hash;
+    private long size;
+    private ByteBuffer[] slabs;
+    private int refCount;
+    private long lastAccessTime;
+    private long accessCount;
+    
+    MemoryBlockCacheEntry(MemoryBlockCache cache, String hash, long size, ByteBuffer[] slabs, long creationTime) {
+        if(cache == null) {
+            throw new IllegalArgumentException("cache is null");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is empty or null");
+        }
+        
+        if(size < 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        if(slabs == null) {
+            throw new IllegalArgumentException("slabs is null");
+        }
+        
+        this.cache = cache;
+        this.hash = hash;
+        this.size = size;
+        this.slabs = slabs;
+        // reference held by the cache
+        this.refCount = 1;
+        this.lastAccessTime = creationTime;
+        this.accessCount = 0;
+    }
+    
+    public String getHash() {
+        return this.hash;
+    }
+    
+    public long getSize() {
+        return this.size;
+    }
+    
+    ByteBuffer[] getSlabs() {
+        return this.slabs;
+    }
+    
+    public synchronized long getLastAccessTime() {
+        return this.lastAccessTime;
+    }
+    
+    public synchronized long getAccessCount() {
+        return this.accessCount;
+    }
+    
+    synchronized void markAccessed(long accessTime) {
+        this.lastAccessTime = accessTime;
+        this.accessCount++;
+    }
+    
+    /*
+     * true if only the cache references this entry
+     */
+    synchronized boolean isIdle() {
+        return this.refCount == 1;
+    }
+    
+    synchronized void retain() {
+        if(this.refCount <= 0) {
+            throw new IllegalStateException("entry is already released");
+        }
+        this.refCount++;
+    }
+    
+    public void release() {
+        boolean free = false;
+        synchronized(this) {
+            if(this.refCount <= 0) {
+                return;
+            }
+            
+            this.refCount--;
+            if(this.refCount == 0) {
+                free = true;
+            }
+        }
+        
+        if(free) {
+            this.cache.releaseSlabs(this.slabs);
+        }
+    }
+    
+    public MemoryBlockCacheInputStream getInputStream() {
+        retain();
+        return new MemoryBlockCacheInputStream(this);
+    }
+}
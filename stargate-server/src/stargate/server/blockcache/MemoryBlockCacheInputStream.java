@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.blockcache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ *
+ * @author iychoi
+ */
+public class MemoryBlockCacheInputStream extends InputStream {
+    
+    private MemoryBlockCacheEntry entry;
+    private ByteBuffer[] slabs;
+    private int slabIndex;
+    private long remaining;
+    private boolean closed;
+    
+    MemoryBlockCacheInputStream(MemoryBlockCacheEntry entry) {
+        if(entry == null) {
+            throw new IllegalArgumentException("entry is null");
+        }
+        
+        this.entry = entry;
+        
+        // read through independent views of slabs
+        ByteBuffer[] entrySlabs = entry.getSlabs();
+        this.slabs = new ByteBuffer[entrySlabs.length];
+        long left = entry.getSize();
+        for(int i=0;i<entrySlabs.length;i++) {
+            ByteBuffer view = entrySlabs[i].duplicate();
+            view.clear();
+            view.limit((int) Math.min(left, view.capacity()));
+            left -= view.limit();
+            this.slabs[i] = view;
+        }
+        
+        this.slabIndex = 0;
+        this.remaining = entry.getSize();
+        this.closed = false;
+    }
+    
+    private ByteBuffer currentSlab() {
+        while(this.slabIndex < this.slabs.length) {
+            ByteBuffer slab = this.slabs[this.slabIndex];
+            if(slab.hasRemaining()) {
+                return slab;
+            }
+            this.slabIndex++;
+        }
+        return null;
+    }
+    
+    @Override
+    public synchronized int read() throws IOException {
+        if(this.closed) {
+            throw new IOException("stream is already closed");
+        }
+        
+        ByteBuffer slab = currentSlab();
+        if(slab == null) {
+            return -1;
+        }
+        
+        this.remaining--;
+        return slab.get() & 0xff;
+    }
+    
+    @Override
+    public synchronized int read(byte[] buffer, int offset, int len) throws IOException {
+        if(this.closed) {
+            throw new IOException("stream is already closed");
+        }
+        
+        if(buffer == null) {
+            throw new IllegalArgumentException("buffer is null");
+        }
+        
+        if(len == 0) {
+            return 0;
+        }
+        
+        int read = 0;
+        while(read < len) {
+            ByteBuffer slab = currentSlab();
+            if(slab == null) {
+                break;
+            }
+            
+            int toRead = Math.min(len - read, slab.remaining());
+            slab.get(buffer, offset + read, toRead);
+            read += toRead;
+        }
+        
+        if(read == 0) {
+            return -1;
+        }
+        
+        this.remaining -= read;
+        return read;
+    }
+    
+    @Override
+    public synchronized long skip(long n) throws IOException {
+        if(this.closed) {
+            throw new IOException("stream is already closed");
+        }
+        
+        long skipped = 0;
+        while(skipped < n) {
+            ByteBuffer slab = currentSlab();
+            if(slab == null) {
+                break;
+            }
+            
+            int toSkip = (int) Math.min(n - skipped, slab.remaining());
+            slab.position(slab.position() + toSkip);
+            skipped += toSkip;
+        }
+        
+        this.remaining -= skipped;
+        return skipped;
+    }
+    
+    @Override
+    public synchronized int available() throws IOException {
+        return (int) Math.min(this.remaining, Integer.MAX_VALUE);
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if(!this.closed) {
+            this.closed = true;
+            this.entry.release();
+        }
+    }
+}
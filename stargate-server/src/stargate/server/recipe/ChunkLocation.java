@@ -0,0 +1,192 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.recipe;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.codehaus.jackson.annotate.JsonIgnore;
+import org.codehaus.jackson.annotate.JsonProperty;
+import stargate.commons.common.JsonSerializer;
+import stargate.commons.recipe.DataObjectPath;
+
+/**
+ *
+ * @author iychoi
+ */
+public class ChunkLocation {
+    
+    private static final Log LOG = LogFactory.getLog(ChunkLocation.class);
+    
+    private DataObjectPath path;
+    private URI resourcePath;
+    private long offset;
+    private int length;
+    
+    public static ChunkLocation createInstance(File file) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+
+        JsonSerializer serializer = new JsonSerializer();
+        return (ChunkLocation) serializer.fromJsonFile(file, ChunkLocation.class);
+    }
+    
+    public static ChunkLocation createInstance(String json) throws IOException {
+        if(json == null || json.isEmpty()) {
+            throw new IllegalArgumentException("json is empty or null");
+        }
+        
+        JsonSerializer serializer = new JsonSerializer();
+        return (ChunkLocation) serializer.fromJson(json, ChunkLocation.class);
+    }
+    
+    public ChunkLocation() {
+        this.path = null;
+        this.resourcePath = null;
+        this.offset = 0;
+        this.length = 0;
+    }
+    
+    public ChunkLocation(ChunkLocation that) {
+        this.path = that.path;
+        this.resourcePath = that.resourcePath;
+        this.offset = that.offset;
+        this.length = that.length;
+    }
+    
+    public ChunkLocation(DataObjectPath path, URI resourcePath, long offset, int length) {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        if(resourcePath == null) {
+            throw new IllegalArgumentException("resourcePath is null");
+        }
+        
+        if(offset < 0) {
+            throw new IllegalArgumentException("offset is invalid");
+        }
+        
+        if(length < 0) {
+            throw new IllegalArgumentException("length is invalid");
+        }
+        
+        initialize(path, resourcePath, offset, length);
+    }
+    
+    private void initialize(DataObjectPath path, URI resourcePath, long offset, int length) {
+        this.path = path;
+        this.resourcePath = resourcePath;
+        this.offset = offset;
+        this.length = length;
+    }
+    
+    @JsonProperty("path")
+    public DataObjectPath getPath() {
+        return this.path;
+    }
+    
+    @JsonProperty("path")
+    public void setPath(DataObjectPath path) {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        this.path = path;
+    }
+    
+    @JsonProperty("resource_path")
+    public URI getResourcePath() {
+        return this.resourcePath;
+    }
+    
+    @JsonProperty("resource_path")
+    public void setResourcePath(URI resourcePath) {
+        if(resourcePath == null) {
+            throw new IllegalArgumentException("resourcePath is null");
+        }
+        
+        this.resourcePath = resourcePath;
+    }
+    
+    @JsonProperty("offset")
+    public long getOffset() {
+        return this.offset;
+    }
+    
+    @JsonProperty("offset")
+    public void setOffset(long offset) {
+        if(offset < 0) {
+            throw new IllegalArgumentException("offset is invalid");
+        }
+        
+        this.offset = offset;
+    }
+    
+    @JsonProperty("length")
+    public int getLength() {
+        return this.length;
+    }
+    
+    @JsonProperty("length")
+    public void setLength(int length) {
+        if(length < 0) {
+            throw new IllegalArgumentException("length is invalid");
+        }
+        
+        this.length = length;
+    }
+    
+    @JsonIgnore
+    public boolean isEmpty() {
+        if(this.path == null || this.resourcePath == null) {
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public String toString() {
+        return this.resourcePath.toString() + "(" + this.offset + ", " + this.length + ")";
+    }
+    
+    @JsonIgnore
+    public synchronized String toJson() throws IOException {
+        JsonSerializer serializer = new JsonSerializer();
+        return serializer.toJson(this);
+    }
+    
+    @JsonIgnore
+    public synchronized void saveTo(File file) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+        
+        JsonSerializer serializer = new JsonSerializer();
+        serializer.toJsonFile(file, this);
+    }
+}
@@ -23,10 +23,15 @@
  */
 package stargate.server.recipe;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import stargate.commons.dataexport.DataExportEntry;
+import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
 import stargate.server.cluster.ClusterManager;
@@ -46,6 +51,9 @@ public class DataExportChangedEventHandler implements IDataExportEventHandler {
     private RecipeGeneratorManager recipeGeneratorManager;
     private ClusterManager clusterManager;
     private RecipeManager recipeManager;
+    
+    // recipes are generated one at a time, large files are already split into ranges by the generator
+    private ExecutorService recipeGenerationThreadPool;
 
     public DataExportChangedEventHandler(SourceFileSystemManager sourceFileSystemManager, RecipeGeneratorManager recipeGeneratorManager, ClusterManager clusterManager, RecipeManager recipeManager) {
         if(sourceFileSystemManager == null) {
@@ -68,6 +76,19 @@ public class DataExportChangedEventHandler implements IDataExportEventHandler {
         this.recipeGeneratorManager = recipeGeneratorManager;
         this.clusterManager = clusterManager;
         this.recipeManager = recipeManager;
+        this.recipeGenerationThreadPool = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "DataExportChangedEventHandler-recipe");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+    
+    public void stop() {
+        this.recipeGenerationThreadPool.shutdownNow();
     }
     
     @Override
@@ -76,15 +97,76 @@ public class DataExportChangedEventHandler implements IDataExportEventHandler {
     }
 
     @Override
-    public void dataExportEntryAdded(DataExportManager manager, DataExportEntry entry) {
+    public void dataExportEntryAdded(final DataExportManager manager, final DataExportEntry entry) {
+        // called while the data export manager is locked, recipe is generated in background
         try {
-            // generate recipe
-            Recipe recipe = RecipeFactory.createRecipe(this.sourceFileSystemManager, this.recipeGeneratorManager, this.clusterManager.getLocalClusterManager(), entry);
-            this.recipeManager.addRecipe(recipe);
+            DataObjectMetadata metadata;
+            try {
+                // size and time of the source file are reported until the recipe is ready
+                metadata = RecipeFactory.createDataObjectMetadata(this.sourceFileSystemManager, this.clusterManager.getLocalClusterManager(), entry);
+            } catch (IOException ex) {
+                LOG.error("Exception occurred while reading a metadata of a data export entry", ex);
+                DataObjectPath path = RecipeFactory.createDataObjectPath(this.clusterManager.getLocalClusterManager(), entry);
+                metadata = new DataObjectMetadata(path, 0, false, 0);
+            }
+            metadata.setStatus(DataObjectMetadata.STATUS_PENDING);
+            this.recipeManager.setPendingDataObjectMetadata(metadata);
+            
+            this.recipeGenerationThreadPool.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    generateRecipe(manager, entry);
+                }
+            });
         } catch (IOException ex) {
             LOG.error("Exception occurred while adding a data export entry", ex);
         }
     }
+    
+    private void generateRecipe(DataExportManager manager, DataExportEntry entry) {
+        DataObjectPath path = null;
+        try {
+            if(manager.getDataExport(entry.getVirtualPath()) == null) {
+                // removed before the recipe is generated
+                return;
+            }
+            
+            path = RecipeFactory.createDataObjectPath(this.clusterManager.getLocalClusterManager(), entry);
+            Recipe recipe = this.recipeManager.getRecipe(path);
+            if(recipe != null) {
+                // recipe generated before, e.g. persisted recipe of an export registered again
+                Recipe newRecipe = RecipeFactory.updateRecipe(this.sourceFileSystemManager, this.recipeGeneratorManager, this.clusterManager.getLocalClusterManager(), entry, recipe);
+                this.recipeManager.updateRecipe(newRecipe);
+                return;
+            }
+            
+            DataObjectMetadata metadata = RecipeFactory.createDataObjectMetadata(this.sourceFileSystemManager, this.clusterManager.getLocalClusterManager(), entry);
+            metadata.setStatus(DataObjectMetadata.STATUS_INDEXING);
+            this.recipeManager.setPendingDataObjectMetadata(metadata);
+            
+            // generate recipe
+            Recipe newRecipe = RecipeFactory.createRecipe(this.sourceFileSystemManager, this.recipeGeneratorManager, this.clusterManager.getLocalClusterManager(), entry);
+            if(manager.getDataExport(entry.getVirtualPath()) == null) {
+                // removed while the recipe is generated
+                this.recipeManager.removeRecipe(path);
+                return;
+            }
+            this.recipeManager.addRecipe(newRecipe);
+        } catch (FileNotFoundException ex) {
+            LOG.error("Source file of a data export entry is not found", ex);
+            if(path != null) {
+                try {
+                    this.recipeManager.removeRecipe(path);
+                } catch (IOException ex1) {
+                    LOG.error("Exception occurred while removing a recipe", ex1);
+                }
+            }
+        } catch (IOException ex) {
+            // transient failure - existing recipe and indexing status are kept, recipe sync task will retry
+            LOG.error("Exception occurred while generating a recipe of a data export entry", ex);
+        }
+    }
 
     @Override
     public void dataExportEntryRemoved(DataExportManager manager, DataExportEntry entry) {
@@ -89,6 +89,31 @@ public class RecipeFactory {
         SourceFileMetadata metadata = sourceFileSystemManager.getMetadata(dataExportEntry.getResourcePath());
         DataObjectMetadata dataObjectMetadata = new DataObjectMetadata(dataObjectPath, metadata.getFileSize(), false, metadata.getLastModificationTime());
         
-        return recipeGeneratorManager.getRecipe(dataObjectMetadata, sourceFileSystemManager.getInputStream(dataExportEntry.getResourcePath()));
+        return recipeGeneratorManager.getRecipe(dataObjectMetadata, sourceFileSystemManager, dataExportEntry.getResourcePath());
+    }
+    
+    /*
+     * reuses unchanged chunks of the existing recipe where possible
+     */
+    public static Recipe updateRecipe(SourceFileSystemManager sourceFileSystemManager, RecipeGeneratorManager recipeGeneratorManager, LocalClusterManager localClusterManager, DataExportEntry dataExportEntry, Recipe oldRecipe) throws IOException {
+        if(sourceFileSystemManager == null) {
+            throw new IllegalArgumentException("sourceFileSystemManager is null");
+        }
+        
+        if(recipeGeneratorManager == null) {
+            throw new IllegalArgumentException("recipeGeneratorManager is null");
+        }
+        
+        if(localClusterManager == null) {
+            throw new IllegalArgumentException("localClusterManager is null");
+        }
+        
+        if(dataExportEntry == null) {
+            throw new IllegalArgumentException("dataExportEntry is null");
+        }
+        
+        DataObjectMetadata dataObjectMetadata = createDataObjectMetadata(sourceFileSystemManager, localClusterManager, dataExportEntry);
+        
+        return recipeGeneratorManager.updateRecipe(dataObjectMetadata, sourceFileSystemManager, dataExportEntry.getResourcePath(), oldRecipe);
     }
 }
@@ -25,12 +25,22 @@ package stargate.server.recipe;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import stargate.commons.recipe.ARecipeGeneratorDriver;
 import stargate.commons.recipe.DataObjectMetadata;
+import stargate.commons.recipe.HashAlgorithm;
 import stargate.commons.recipe.Recipe;
+import stargate.commons.recipe.RecipeChunk;
 import stargate.commons.service.ServiceNotStartedException;
+import stargate.server.sourcefs.SourceFileSystemManager;
 
 /**
  *
@@ -40,9 +50,13 @@ public class RecipeGeneratorManager {
 
     private static final Log LOG = LogFactory.getLog(RecipeGeneratorManager.class);
     
+    private static final int RANGE_SIZE = 64*1024*1024;
+    private static final int BUFFER_SIZE = 100*1024;
+    
     private static RecipeGeneratorManager instance;
 
     private ARecipeGeneratorDriver driver;
+    private ForkJoinPool recipeThreadPool;
     
     public static RecipeGeneratorManager getInstance(ARecipeGeneratorDriver driver) {
         synchronized (RecipeGeneratorManager.class) {
@@ -76,9 +90,16 @@ public class RecipeGeneratorManager {
     
     public synchronized void start() throws IOException {
         this.driver.startDriver();
+        
+        this.recipeThreadPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
     }
 
     public synchronized void stop() throws IOException {
+        if(this.recipeThreadPool != null) {
+            this.recipeThreadPool.shutdownNow();
+            this.recipeThreadPool = null;
+        }
+        
         this.driver.stopDriver();
     }
     
@@ -90,14 +111,196 @@ public class RecipeGeneratorManager {
         return this.driver.getHashAlgorithm();
     }
     
-    public synchronized String getHash(byte[] buffer) throws IOException {
+    public String getHash(byte[] buffer) throws IOException {
         return this.driver.getHash(buffer);
     }
     
-    public synchronized Recipe getRecipe(DataObjectMetadata metadata, InputStream is) throws IOException {
+    public Recipe getRecipe(DataObjectMetadata metadata, InputStream is) throws IOException {
         return this.driver.getRecipe(metadata, is);
     }
     
+    /*
+     * hashes chunk-aligned ranges of the file concurrently
+     * drivers with variable-sized chunks read the whole file sequentially
+     */
+    public Recipe getRecipe(DataObjectMetadata metadata, SourceFileSystemManager sourceFileSystemManager, URI resourcePath) throws IOException {
+        if(metadata == null || metadata.isEmpty()) {
+            throw new IllegalArgumentException("metadata is null or empty");
+        }
+        
+        if(sourceFileSystemManager == null) {
+            throw new IllegalArgumentException("sourceFileSystemManager is null");
+        }
+        
+        if(resourcePath == null) {
+            throw new IllegalArgumentException("resourcePath is null");
+        }
+        
+        List<RecipeChunk> chunk = getRecipeChunks(sourceFileSystemManager, resourcePath, 0, metadata.getObjectSize());
+        return new Recipe(metadata, this.driver.getHashAlgorithm(), this.driver.getChunkSize(), chunk);
+    }
+    
+    /*
+     * reuses leading chunks of the old recipe and hashes only the rest of the file
+     * every reused chunk is rehashed, chunks are regenerated from the first chunk
+     * whose content changed
+     */
+    public Recipe updateRecipe(DataObjectMetadata metadata, SourceFileSystemManager sourceFileSystemManager, URI resourcePath, Recipe oldRecipe) throws IOException {
+        if(metadata == null || metadata.isEmpty()) {
+            throw new IllegalArgumentException("metadata is null or empty");
+        }
+        
+        if(sourceFileSystemManager == null) {
+            throw new IllegalArgumentException("sourceFileSystemManager is null");
+        }
+        
+        if(resourcePath == null) {
+            throw new IllegalArgumentException("resourcePath is null");
+        }
+        
+        if(oldRecipe == null || oldRecipe.isEmpty()) {
+            return getRecipe(metadata, sourceFileSystemManager, resourcePath);
+        }
+        
+        List<RecipeChunk> oldChunk = new ArrayList<RecipeChunk>(oldRecipe.getChunk());
+        int candidates = getReusableChunkCount(metadata, oldRecipe, oldChunk);
+        int reusable = 0;
+        if(candidates > 0) {
+            reusable = countUnchangedChunks(sourceFileSystemManager, resourcePath, oldRecipe.getHashAlgorithm(), oldChunk, candidates);
+        }
+        
+        if(reusable <= 0) {
+            return getRecipe(metadata, sourceFileSystemManager, resourcePath);
+        }
+        
+        if(reusable < candidates) {
+            LOG.info("existing chunks are modified, regenerating a recipe from chunk " + reusable + " - " + metadata.getPath().toString());
+        }
+        
+        RecipeChunk lastChunk = oldChunk.get(reusable - 1);
+        long tailOffset = lastChunk.getOffset() + lastChunk.getLength();
+        
+        List<RecipeChunk> chunk = new ArrayList<RecipeChunk>(oldChunk.subList(0, reusable));
+        chunk.addAll(getRecipeChunks(sourceFileSystemManager, resourcePath, tailOffset, metadata.getObjectSize() - tailOffset));
+        return new Recipe(metadata, this.driver.getHashAlgorithm(), this.driver.getChunkSize(), chunk);
+    }
+    
+    /*
+     * returns the number of leading chunks of the old recipe that may be reused if unchanged
+     */
+    private int getReusableChunkCount(DataObjectMetadata metadata, Recipe oldRecipe, List<RecipeChunk> oldChunk) {
+        if(!this.driver.getHashAlgorithm().equalsIgnoreCase(oldRecipe.getHashAlgorithm())) {
+            return 0;
+        }
+        
+        int chunkSize = this.driver.getChunkSize();
+        if(oldRecipe.getChunkSize() != chunkSize) {
+            return 0;
+        }
+        
+        // the last chunk of a content-defined recipe was cut by the end of the file
+        int last = oldChunk.size();
+        if(chunkSize <= 0) {
+            last--;
+        }
+        
+        int count = 0;
+        long offset = 0;
+        for(int i=0;i<last;i++) {
+            RecipeChunk chunk = oldChunk.get(i);
+            if(chunk.getOffset() != offset || offset + chunk.getLength() > metadata.getObjectSize()) {
+                break;
+            }
+            
+            if(chunkSize > 0 && chunk.getLength() != chunkSize) {
+                // every full fixed-size chunk
+                break;
+            }
+            
+            offset += chunk.getLength();
+            count++;
+        }
+        return count;
+    }
+    
+    /*
+     * rehashes leading chunks in a single pass and stops at the first changed chunk
+     * boundaries of the chunks before it only depend on their own content, so chunking
+     * resynchronizes from the start of the changed chunk
+     */
+    private int countUnchangedChunks(SourceFileSystemManager sourceFileSystemManager, URI resourcePath, String hashAlgorithm, List<RecipeChunk> oldChunk, int candidates) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = HashAlgorithm.getThreadMessageDigest(hashAlgorithm);
+        } catch (NoSuchAlgorithmException ex) {
+            return 0;
+        }
+        
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count = 0;
+        InputStream is = sourceFileSystemManager.getInputStream(resourcePath);
+        try {
+            for(int i=0;i<candidates;i++) {
+                RecipeChunk chunk = oldChunk.get(i);
+                long remaining = chunk.getLength();
+                while(remaining > 0) {
+                    int nread = is.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if(nread < 0) {
+                        return count;
+                    }
+                    messageDigest.update(buffer, 0, nread);
+                    remaining -= nread;
+                }
+                
+                if(!chunk.hasHash(messageDigest.digest())) {
+                    return count;
+                }
+                count++;
+            }
+        } finally {
+            is.close();
+        }
+        return count;
+    }
+    
+    private List<RecipeChunk> getRecipeChunks(SourceFileSystemManager sourceFileSystemManager, URI resourcePath, long offset, long size) throws IOException {
+        int chunkSize = this.driver.getChunkSize();
+        ForkJoinPool pool = this.recipeThreadPool;
+        if(chunkSize <= 0 || pool == null || size <= RANGE_SIZE) {
+            InputStream is;
+            if(offset == 0) {
+                is = sourceFileSystemManager.getInputStream(resourcePath);
+            } else if(size <= Integer.MAX_VALUE) {
+                is = sourceFileSystemManager.getInputStream(resourcePath, offset, (int) size);
+            } else {
+                is = sourceFileSystemManager.getInputStream(resourcePath);
+                IOUtils.skipFully(is, offset);
+            }
+            
+            try {
+                return this.driver.getRecipeChunks(offset, size, is);
+            } finally {
+                is.close();
+            }
+        }
+        
+        int rangeSize = Math.max(chunkSize, (RANGE_SIZE / chunkSize) * chunkSize);
+        RecipeRangeTask task = new RecipeRangeTask(this.driver, sourceFileSystemManager, resourcePath, offset, size, rangeSize);
+        
+        try {
+            return pool.invoke(task);
+        } catch (RuntimeException ex) {
+            Throwable cause = ex;
+            while(cause != null) {
+                if(cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                cause = cause.getCause();
+            }
+            throw ex;
+        }
+    }
+    
     @Override
     public synchronized String toString() {
         return "RecipeGeneratorManager";
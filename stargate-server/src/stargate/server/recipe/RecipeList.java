@@ -84,14 +84,21 @@ public class RecipeList {
         this.path.addAll(path);
     }
     
+    /*
+     * a path is listed once even if its data object has the chunk at several offsets
+     */
     @JsonIgnore
     public void addList(DataObjectPath path) {
-        this.path.add(path);
+        if(!this.path.contains(path)) {
+            this.path.add(path);
+        }
     }
     
     @JsonIgnore
     public void removeList(DataObjectPath path) {
-        this.path.remove(path);
+        // also drops duplicates listed by older versions
+        while(this.path.remove(path)) {
+        }
     }
     
     @JsonIgnore
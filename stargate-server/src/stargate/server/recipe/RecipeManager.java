@@ -24,14 +24,21 @@
 package stargate.server.recipe;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import stargate.commons.dataexport.DataExportEntry;
 import stargate.commons.datastore.ADistributedDataStore;
+import stargate.commons.datastore.AReplicatedDataStore;
+import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
 import stargate.commons.recipe.RecipeChunk;
@@ -52,6 +59,12 @@ public class RecipeManager {
     
     public static final String RECIPEMANAGER_RECIPE_MAP_ID = "RecipeManager_Recipe";
     public static final String RECIPEMANAGER_HASH_MAP_ID = "RecipeManager_Hash";
+    public static final String RECIPEMANAGER_CHUNK_LOCATION_MAP_ID = "RecipeManager_ChunkLocation";
+    public static final String RECIPEMANAGER_METADATA_MAP_ID = "RecipeManager_Metadata";
+    public static final String RECIPEMANAGER_INDEXING_MAP_ID = "RecipeManager_Indexing";
+    public static final String RECIPEMANAGER_UPDATE_TIME_MAP_ID = "RecipeManager_Update_Time";
+    
+    private static final String UPDATE_TIME_KEY = "lastUpdateTime";
     
     private static RecipeManager instance;
     
@@ -63,9 +76,14 @@ public class RecipeManager {
     
     private ADistributedDataStore recipe;
     private ADistributedDataStore hash;
+    private ADistributedDataStore chunkLocation;
+    private ADistributedDataStore metadata;
+    // time when recipe generation of a data object is queued or started
+    private ADistributedDataStore indexing;
+    // time of the last recipe change made by any node in the local cluster
+    private AReplicatedDataStore updateTime;
     
     private DataExportChangedEventHandler dataExportChangedHandler;
-    protected long lastUpdateTime;
     
     public static RecipeManager getInstance(DataStoreManager dataStoreManager, RecipeGeneratorManager recipeGeneratorManager, SourceFileSystemManager sourceFileSystemManager, ClusterManager clusterManager, DataExportManager dataExportManager) {
         synchronized (RecipeManager.class) {
@@ -114,11 +132,20 @@ public class RecipeManager {
         
         this.recipe = this.dataStoreManager.getPersistentDistributedDataStore(RECIPEMANAGER_RECIPE_MAP_ID, Recipe.class);
         this.hash = this.dataStoreManager.getPersistentDistributedDataStore(RECIPEMANAGER_HASH_MAP_ID, RecipeList.class);
+        this.chunkLocation = this.dataStoreManager.getPersistentDistributedDataStore(RECIPEMANAGER_CHUNK_LOCATION_MAP_ID, ChunkLocation.class);
+        this.metadata = this.dataStoreManager.getPersistentDistributedDataStore(RECIPEMANAGER_METADATA_MAP_ID, DataObjectMetadata.class);
+        this.indexing = this.dataStoreManager.getDistributedDataStore(RECIPEMANAGER_INDEXING_MAP_ID, String.class);
+        this.updateTime = this.dataStoreManager.getReplicatedDataStore(RECIPEMANAGER_UPDATE_TIME_MAP_ID, String.class);
         
         this.dataExportChangedHandler = new DataExportChangedEventHandler(this.sourceFileSystemManager, this.recipeGeneratorManager, this.clusterManager, this);
         this.dataExportManager.addEventHandler(this.dataExportChangedHandler);
     }
     
+    public synchronized void stop() {
+        this.dataExportManager.removeEventHandler(this.dataExportChangedHandler);
+        this.dataExportChangedHandler.stop();
+    }
+    
     public synchronized int getRecipeCount() {
         return this.recipe.size();
     }
@@ -159,25 +186,320 @@ public class RecipeManager {
         return null;
     }
     
-    public synchronized void addRecipe(Recipe recipe) throws IOException {
-        if(recipe == null || recipe.isEmpty()) {
-            throw new IllegalArgumentException("recipe is null or empty");
+    /*
+     * returns metadata of all recipes without deserializing their chunk lists
+     */
+    public Collection<DataObjectMetadata> getDataObjectMetadata() throws IOException {
+        List<DataObjectPath> paths = new ArrayList<DataObjectPath>();
+        for(String recipeKey : this.recipe.keySet()) {
+            paths.add(new DataObjectPath(recipeKey));
         }
         
-        this.recipe.put(recipe.getMetadata().getPath().toString(), recipe);
-        for(RecipeChunk chunk : recipe.getChunk()) {
-            String hashString = chunk.getHashString();
+        Map<String, DataObjectMetadata> metadataMap = getDataObjectMetadata(paths);
+        return Collections.unmodifiableCollection(metadataMap.values());
+    }
+    
+    /*
+     * returns metadata of recipes whose partitions are owned by this member
+     */
+    public Collection<DataObjectMetadata> getLocalDataObjectMetadata() throws IOException {
+        List<DataObjectPath> paths = new ArrayList<DataObjectPath>();
+        for(String recipeKey : this.recipe.localKeySet()) {
+            paths.add(new DataObjectPath(recipeKey));
+        }
+        
+        Map<String, DataObjectMetadata> metadataMap = getDataObjectMetadata(paths);
+        return Collections.unmodifiableCollection(metadataMap.values());
+    }
+    
+    public boolean isLocalRecipe(DataObjectPath path) {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        return this.recipe.isLocalKey(path.toString());
+    }
+    
+    /*
+     * reads metadata without deserializing chunk lists of recipes
+     */
+    public DataObjectMetadata getDataObjectMetadata(DataObjectPath path) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        DataObjectMetadata metadata = (DataObjectMetadata)this.metadata.get(path.toString());
+        if(metadata == null) {
+            // recipes stored before metadata map was introduced
+            Recipe recipe = getRecipe(path);
+            if(recipe != null) {
+                metadata = recipe.getMetadata();
+                this.metadata.putIfAbsent(path.toString(), metadata);
+            }
+        }
+        return metadata;
+    }
+    
+    /*
+     * returns metadata of given paths keyed by path string, missing ones are excluded
+     */
+    public Map<String, DataObjectMetadata> getDataObjectMetadata(Collection<DataObjectPath> paths) throws IOException {
+        if(paths == null) {
+            throw new IllegalArgumentException("paths is null");
+        }
+        
+        Set<String> keys = new HashSet<String>();
+        for(DataObjectPath path : paths) {
+            keys.add(path.toString());
+        }
+        
+        Map<String, DataObjectMetadata> metadataMap = new HashMap<String, DataObjectMetadata>();
+        if(keys.isEmpty()) {
+            return metadataMap;
+        }
+        
+        Map<String, Object> values = this.metadata.getAll(keys);
+        for(Map.Entry<String, Object> entry : values.entrySet()) {
+            metadataMap.put(entry.getKey(), (DataObjectMetadata) entry.getValue());
+        }
+        
+        if(metadataMap.size() < keys.size()) {
+            // recipes stored before metadata map was introduced
+            Set<String> missingKeys = new HashSet<String>(keys);
+            missingKeys.removeAll(metadataMap.keySet());
+            
+            Map<String, Object> recipes = this.recipe.getAll(missingKeys);
+            for(Map.Entry<String, Object> entry : recipes.entrySet()) {
+                DataObjectMetadata metadata = ((Recipe) entry.getValue()).getMetadata();
+                metadataMap.put(entry.getKey(), metadata);
+                this.metadata.putIfAbsent(entry.getKey(), metadata);
+            }
+        }
+        return metadataMap;
+    }
+    
+    /*
+     * returns null if the hash is not indexed
+     */
+    public ChunkLocation getChunkLocation(String hash) throws IOException {
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        return (ChunkLocation)this.chunkLocation.get(hash);
+    }
+    
+    private URI getResourcePath(Recipe recipe) throws IOException {
+        DataExportEntry dataExport = this.dataExportManager.getDataExport(recipe.getMetadata().getPath().getPath());
+        if(dataExport == null) {
+            return null;
+        }
+        return dataExport.getResourcePath();
+    }
+    
+    /*
+     * adds the path to the hash index entry of the chunk
+     * entries are shared by recipes updated at other members, so they are modified under a cluster-wide lock
+     */
+    private void addHashIndex(DataObjectPath path, URI resourcePath, RecipeChunk chunk) throws IOException {
+        String hashString = chunk.getHashString();
+        this.hash.lock(hashString);
+        try {
             RecipeList list = (RecipeList)this.hash.get(hashString);
             if(list == null) {
                 // create new
                 list = new RecipeList();
             }
             
-            list.addList(recipe.getMetadata().getPath());
+            list.addList(path);
             this.hash.put(hashString, list);
+            
+            if(resourcePath != null && !this.chunkLocation.containsKey(hashString)) {
+                ChunkLocation location = new ChunkLocation(path, resourcePath, chunk.getOffset(), chunk.getLength());
+                this.chunkLocation.put(hashString, location);
+            }
+        } finally {
+            this.hash.unlock(hashString);
+        }
+    }
+    
+    /*
+     * removes the path from the hash index entry of the chunk
+     * chunk location pointing the removed chunk is moved to newChunk if given, or other data objects having the chunk
+     */
+    private void removeHashIndex(DataObjectPath path, RecipeChunk chunk, boolean matchOffset, URI resourcePath, RecipeChunk newChunk) throws IOException {
+        String hashString = chunk.getHashString();
+        this.hash.lock(hashString);
+        try {
+            RecipeList list = (RecipeList)this.hash.get(hashString);
+            if(list != null) {
+                list.removeList(path);
+                
+                if(list.getList().isEmpty()) {
+                    this.hash.remove(hashString);
+                } else {
+                    this.hash.put(hashString, list);
+                }
+            }
+            
+            ChunkLocation location = (ChunkLocation)this.chunkLocation.get(hashString);
+            if(location != null && location.getPath().equals(path) && (!matchOffset || location.getOffset() == chunk.getOffset())) {
+                ChunkLocation newLocation = null;
+                if(newChunk != null && resourcePath != null) {
+                    newLocation = new ChunkLocation(path, resourcePath, newChunk.getOffset(), newChunk.getLength());
+                } else if(list != null) {
+                    newLocation = findChunkLocation(list, path, chunk.getHash());
+                }
+                
+                if(newLocation != null) {
+                    this.chunkLocation.put(hashString, newLocation);
+                } else {
+                    this.chunkLocation.remove(hashString);
+                }
+            }
+        } finally {
+            this.hash.unlock(hashString);
+        }
+    }
+    
+    private void indexRecipe(Recipe recipe) throws IOException {
+        DataObjectPath path = recipe.getMetadata().getPath();
+        URI resourcePath = getResourcePath(recipe);
+        if(resourcePath == null) {
+            LOG.error("unable to find dataexport for " + path.getPath());
         }
         
-        this.lastUpdateTime = DateTimeUtils.getCurrentTime();
+        for(RecipeChunk chunk : getDistinctChunks(recipe).values()) {
+            addHashIndex(path, resourcePath, chunk);
+        }
+    }
+    
+    private void unindexRecipe(Recipe recipe) throws IOException {
+        DataObjectPath path = recipe.getMetadata().getPath();
+        
+        for(RecipeChunk chunk : getDistinctChunks(recipe).values()) {
+            removeHashIndex(path, chunk, false, null, null);
+        }
+    }
+    
+    /*
+     * first chunk of each hash, hash index entries are kept per hash and path
+     */
+    private Map<String, RecipeChunk> getDistinctChunks(Recipe recipe) {
+        Map<String, RecipeChunk> chunks = new HashMap<String, RecipeChunk>();
+        for(RecipeChunk chunk : recipe.getChunk()) {
+            if(!chunks.containsKey(chunk.getHashString())) {
+                chunks.put(chunk.getHashString(), chunk);
+            }
+        }
+        return chunks;
+    }
+    
+    private String makeChunkKey(RecipeChunk chunk) {
+        return chunk.getOffset() + ":" + chunk.getLength() + ":" + chunk.getHashString();
+    }
+    
+    /*
+     * updates hash index entries of changed chunks only
+     */
+    private void reindexRecipe(Recipe oldRecipe, Recipe newRecipe) throws IOException {
+        DataObjectPath path = newRecipe.getMetadata().getPath();
+        URI resourcePath = getResourcePath(newRecipe);
+        if(resourcePath == null) {
+            LOG.error("unable to find dataexport for " + path.getPath());
+        }
+        
+        Map<String, RecipeChunk> oldChunks = new HashMap<String, RecipeChunk>();
+        for(RecipeChunk chunk : oldRecipe.getChunk()) {
+            oldChunks.put(makeChunkKey(chunk), chunk);
+        }
+        Map<String, RecipeChunk> oldChunksByHash = getDistinctChunks(oldRecipe);
+        Map<String, RecipeChunk> newChunksByHash = getDistinctChunks(newRecipe);
+        
+        // index entries are per hash, the path is added only for hashes it did not have
+        Map<String, RecipeChunk> addedChunks = new HashMap<String, RecipeChunk>();
+        for(RecipeChunk chunk : newRecipe.getChunk()) {
+            if(oldChunks.remove(makeChunkKey(chunk)) == null && !oldChunksByHash.containsKey(chunk.getHashString())) {
+                addedChunks.put(chunk.getHashString(), newChunksByHash.get(chunk.getHashString()));
+            }
+        }
+        
+        for(RecipeChunk chunk : addedChunks.values()) {
+            addHashIndex(path, resourcePath, chunk);
+        }
+        
+        // chunks left are moved or removed
+        Set<String> removedHashes = new HashSet<String>();
+        for(RecipeChunk chunk : oldChunks.values()) {
+            RecipeChunk newChunk = newChunksByHash.get(chunk.getHashString());
+            if(newChunk != null) {
+                // the path is still indexed for the hash, its location moves to the same chunk at other offset
+                relocateChunk(path, resourcePath, chunk, newChunk);
+            } else if(removedHashes.add(chunk.getHashString())) {
+                removeHashIndex(path, chunk, false, resourcePath, null);
+            }
+        }
+    }
+    
+    private void relocateChunk(DataObjectPath path, URI resourcePath, RecipeChunk oldChunk, RecipeChunk newChunk) throws IOException {
+        String hashString = oldChunk.getHashString();
+        this.hash.lock(hashString);
+        try {
+            ChunkLocation location = (ChunkLocation)this.chunkLocation.get(hashString);
+            if(location != null && location.getPath().equals(path) && location.getOffset() == oldChunk.getOffset()) {
+                if(resourcePath != null) {
+                    this.chunkLocation.put(hashString, new ChunkLocation(path, resourcePath, newChunk.getOffset(), newChunk.getLength()));
+                } else {
+                    this.chunkLocation.remove(hashString);
+                }
+            }
+        } finally {
+            this.hash.unlock(hashString);
+        }
+    }
+    
+    private ChunkLocation findChunkLocation(RecipeList list, DataObjectPath excludePath, byte[] hash) throws IOException {
+        // other data objects having the same chunk
+        for(DataObjectPath otherPath : list.getList()) {
+            if(otherPath.equals(excludePath)) {
+                continue;
+            }
+            
+            Recipe otherRecipe = getRecipe(otherPath);
+            if(otherRecipe == null) {
+                continue;
+            }
+            
+            URI resourcePath = getResourcePath(otherRecipe);
+            if(resourcePath == null) {
+                continue;
+            }
+            
+            for(RecipeChunk otherChunk : otherRecipe.getChunk()) {
+                if(otherChunk.hasHash(hash)) {
+                    return new ChunkLocation(otherPath, resourcePath, otherChunk.getOffset(), otherChunk.getLength());
+                }
+            }
+        }
+        return null;
+    }
+    
+    public synchronized void addRecipe(Recipe recipe) throws IOException {
+        if(recipe == null || recipe.isEmpty()) {
+            throw new IllegalArgumentException("recipe is null or empty");
+        }
+        
+        Recipe existing_recipe = (Recipe)this.recipe.get(recipe.getMetadata().getPath().toString());
+        if(existing_recipe != null) {
+            unindexRecipe(existing_recipe);
+        }
+        
+        this.recipe.put(recipe.getMetadata().getPath().toString(), recipe);
+        this.metadata.put(recipe.getMetadata().getPath().toString(), recipe.getMetadata());
+        this.indexing.remove(recipe.getMetadata().getPath().toString());
+        indexRecipe(recipe);
+        
+        setLastUpdateTime(DateTimeUtils.getCurrentTime());
     }
 
     public synchronized void removeRecipe(Recipe recipe) throws IOException {
@@ -195,19 +517,16 @@ public class RecipeManager {
         
         Recipe recipe = (Recipe)this.recipe.get(path.toString());
         if(recipe != null) {
-            for(RecipeChunk chunk : recipe.getChunk()) {
-                String hashString = chunk.getHashString();
-                RecipeList list = (RecipeList)this.hash.get(hashString);
-                if(list != null) {
-                    list.removeList(recipe.getMetadata().getPath());
-                }
-
-                this.hash.put(hashString, list);
-            }
-            
             this.recipe.remove(path.toString());
-            this.lastUpdateTime = DateTimeUtils.getCurrentTime();
+            this.metadata.remove(path.toString());
+            unindexRecipe(recipe);
+            
+            setLastUpdateTime(DateTimeUtils.getCurrentTime());
+        } else {
+            // metadata of a recipe not generated yet
+            this.metadata.remove(path.toString());
         }
+        this.indexing.remove(path.toString());
     }
     
     public synchronized void updateRecipe(Recipe recipe) throws IOException {
@@ -216,36 +535,53 @@ public class RecipeManager {
         }
         
         Recipe existing_recipe = (Recipe)this.recipe.get(recipe.getMetadata().getPath().toString());
+        
+        this.recipe.put(recipe.getMetadata().getPath().toString(), recipe);
+        this.metadata.put(recipe.getMetadata().getPath().toString(), recipe.getMetadata());
+        this.indexing.remove(recipe.getMetadata().getPath().toString());
+        
         if(existing_recipe != null) {
-            for(RecipeChunk chunk : existing_recipe.getChunk()) {
-                String hashString = chunk.getHashString();
-                RecipeList list = (RecipeList)this.hash.get(hashString);
-                if(list != null) {
-                    list.removeList(recipe.getMetadata().getPath());
-                }
+            reindexRecipe(existing_recipe, recipe);
+        } else {
+            indexRecipe(recipe);
+        }
+        
+        setLastUpdateTime(DateTimeUtils.getCurrentTime());
+    }
 
-                this.hash.put(hashString, list);
-            }
-            
-            this.lastUpdateTime = DateTimeUtils.getCurrentTime();
+    /*
+     * registers metadata of a data object whose recipe is not ready yet
+     * metadata of a recipe already generated is kept
+     */
+    public synchronized void setPendingDataObjectMetadata(DataObjectMetadata metadata) throws IOException {
+        if(metadata == null || metadata.isEmpty()) {
+            throw new IllegalArgumentException("metadata is null or empty");
         }
         
-        this.recipe.put(recipe.getMetadata().getPath().toString(), recipe);
-        for(RecipeChunk chunk : recipe.getChunk()) {
-            String hashString = chunk.getHashString();
-            RecipeList list = (RecipeList)this.hash.get(hashString);
-            if(list == null) {
-                // create new
-                list = new RecipeList();
-            }
-            
-            list.addList(recipe.getMetadata().getPath());
-            this.hash.put(hashString, list);
+        String key = metadata.getPath().toString();
+        if(!this.recipe.containsKey(key)) {
+            this.metadata.put(key, metadata);
+            this.indexing.put(key, Long.toString(DateTimeUtils.getCurrentTime()));
+        }
+    }
+    
+    /*
+     * true if recipe generation of the data object is queued or running,
+     * generations not finished within the timeout are considered failed
+     */
+    public synchronized boolean isIndexing(DataObjectPath path, long timeoutSec) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
         }
         
-        this.lastUpdateTime = DateTimeUtils.getCurrentTime();
+        String time = (String) this.indexing.get(path.toString());
+        if(time == null) {
+            return false;
+        }
+        
+        return !DateTimeUtils.timeElapsedSecond(Long.parseLong(time), DateTimeUtils.getCurrentTime(), timeoutSec);
     }
-
+    
     public synchronized boolean hasRecipe(DataObjectPath path) {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
@@ -262,12 +598,16 @@ public class RecipeManager {
         return false;
     }
     
-    public synchronized long getLastUpdateTime() {
-        return this.lastUpdateTime;
+    public synchronized long getLastUpdateTime() throws IOException {
+        String time = (String) this.updateTime.get(UPDATE_TIME_KEY);
+        if(time == null) {
+            return 0;
+        }
+        return Long.parseLong(time);
     }
     
-    public synchronized void setLastUpdateTime(long time) {
-        this.lastUpdateTime = time;
+    public synchronized void setLastUpdateTime(long time) throws IOException {
+        this.updateTime.put(UPDATE_TIME_KEY, Long.toString(time));
     }
     
     @Override
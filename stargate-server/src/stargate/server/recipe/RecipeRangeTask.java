@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.recipe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.recipe.ARecipeGeneratorDriver;
+import stargate.commons.recipe.RecipeChunk;
+import stargate.server.sourcefs.SourceFileSystemManager;
+
+/**
+ *
+ * @author iychoi
+ */
+public class RecipeRangeTask extends RecursiveTask<List<RecipeChunk>> {
+
+    private static final long serialVersionUID = 1L;
+    
+    private static final Log LOG = LogFactory.getLog(RecipeRangeTask.class);
+    
+    private ARecipeGeneratorDriver driver;
+    private SourceFileSystemManager sourceFileSystemManager;
+    private URI resourcePath;
+    private long offset;
+    private long size;
+    private int rangeSize;
+    
+    public RecipeRangeTask(ARecipeGeneratorDriver driver, SourceFileSystemManager sourceFileSystemManager, URI resourcePath, long offset, long size, int rangeSize) {
+        if(driver == null) {
+            throw new IllegalArgumentException("driver is null");
+        }
+        
+        if(sourceFileSystemManager == null) {
+            throw new IllegalArgumentException("sourceFileSystemManager is null");
+        }
+        
+        if(resourcePath == null) {
+            throw new IllegalArgumentException("resourcePath is null");
+        }
+        
+        if(offset < 0) {
+            throw new IllegalArgumentException("offset is invalid");
+        }
+        
+        if(size < 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        if(rangeSize <= 0) {
+            throw new IllegalArgumentException("rangeSize is invalid");
+        }
+        
+        this.driver = driver;
+        this.sourceFileSystemManager = sourceFileSystemManager;
+        this.resourcePath = resourcePath;
+        this.offset = offset;
+        this.size = size;
+        this.rangeSize = rangeSize;
+    }
+    
+    @Override
+    protected List<RecipeChunk> compute() {
+        if(this.size <= this.rangeSize) {
+            try {
+                return computeRange();
+            } catch (IOException ex) {
+                LOG.error("Exception occurred while generating a recipe of " + this.resourcePath.toString() + " at " + this.offset, ex);
+                throw new RecipeRangeException(ex);
+            }
+        }
+        
+        // split at a range boundary, which is also a chunk boundary
+        long ranges = (this.size + this.rangeSize - 1) / this.rangeSize;
+        long leftSize = (ranges / 2) * this.rangeSize;
+        
+        RecipeRangeTask left = new RecipeRangeTask(this.driver, this.sourceFileSystemManager, this.resourcePath, this.offset, leftSize, this.rangeSize);
+        RecipeRangeTask right = new RecipeRangeTask(this.driver, this.sourceFileSystemManager, this.resourcePath, this.offset + leftSize, this.size - leftSize, this.rangeSize);
+        
+        left.fork();
+        List<RecipeChunk> rightChunk = right.compute();
+        List<RecipeChunk> leftChunk = left.join();
+        
+        List<RecipeChunk> chunk = new ArrayList<RecipeChunk>(leftChunk.size() + rightChunk.size());
+        chunk.addAll(leftChunk);
+        chunk.addAll(rightChunk);
+        return chunk;
+    }
+    
+    private List<RecipeChunk> computeRange() throws IOException {
+        if(this.size == 0) {
+            return new ArrayList<RecipeChunk>();
+        }
+        
+        InputStream is = this.sourceFileSystemManager.getInputStream(this.resourcePath, this.offset, (int) this.size);
+        try {
+            return this.driver.getRecipeChunks(this.offset, this.size, is);
+        } finally {
+            is.close();
+        }
+    }
+    
+    /*
+     * carries IOExceptions out of the fork-join pool
+     */
+    public static class RecipeRangeException extends RuntimeException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        public RecipeRangeException(IOException ex) {
+            super(ex);
+        }
+        
+        public IOException getIOException() {
+            return (IOException) getCause();
+        }
+    }
+}
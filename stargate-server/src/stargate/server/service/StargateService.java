@@ -60,6 +60,7 @@ import stargate.server.recipe.RecipeManager;
 import stargate.server.schedule.ScheduleManager;
 import stargate.server.sourcefs.SourceFileSystemManager;
 import stargate.server.tasks.RecipeSyncTask;
+import stargate.server.tasks.WakeupPreloadTask;
 import stargate.server.tasks.RemoteClusterSyncTask;
 import stargate.server.transport.TransportManager;
 import stargate.server.userinterface.UserInterfaceManager;
@@ -93,6 +94,7 @@ public class StargateService extends AService {
     private TransportManager transportManager;
     private VolumeManager volumeManager;
     private UserInterfaceManager userInterfaceManager;
+    private RecipeSyncTask recipeSyncTask;
     
     public static StargateService getInstance(StargateServiceConfiguration config) throws Exception {
         synchronized (StargateService.class) {
@@ -149,8 +151,11 @@ public class StargateService extends AService {
         this.dataStoreManager = DataStoreManager.getInstance(dataStoreDriver);
         this.dataStoreManager.start();
 
+        // init policy manager
+        this.policyManager = PolicyManager.getInstance(this.dataStoreManager);
+        
         // init block cache manager
-        this.blockCacheManager = BlockCacheManager.getInstance(this.temporalStorageManager, this.dataStoreManager);
+        this.blockCacheManager = BlockCacheManager.getInstance(this.temporalStorageManager, this.dataStoreManager, this.policyManager);
         
         // init source file system manager
         // init source file system driver
@@ -173,9 +178,6 @@ public class StargateService extends AService {
         this.scheduleManager = ScheduleManager.getInstance(scheduleDriver);
         this.scheduleManager.start();
         
-        // init policy manager
-        this.policyManager = PolicyManager.getInstance(this.dataStoreManager);
-        
         // init cluster manager
         this.clusterManager = ClusterManager.getInstance(this.dataStoreManager);
         
@@ -189,7 +191,7 @@ public class StargateService extends AService {
         // init transport driver
         ATransportDriver transportDriver = (ATransportDriver)DriverFactory.createDriver(this.config.getTransportConfiguration().getDriverSetting());
         transportDriver.setService(this);
-        this.transportManager = TransportManager.getInstance(transportDriver, this.dataStoreManager, this.recipeManager, this.recipeGeneratorManager, this.sourceFileSystemManager, this.dataExportManager, this.blockCacheManager);
+        this.transportManager = TransportManager.getInstance(this.config.getTransportConfiguration(), transportDriver, this.dataStoreManager, this.recipeManager, this.recipeGeneratorManager, this.sourceFileSystemManager, this.dataExportManager, this.blockCacheManager, this.clusterManager);
         this.transportManager.start();
         
         // setup cluster
@@ -216,7 +218,9 @@ public class StargateService extends AService {
 
         // register schedules
         this.scheduleManager.setScheduledTask(new RemoteClusterSyncTask(this.policyManager, this.clusterManager, this.transportManager));
-        this.scheduleManager.setScheduledTask(new RecipeSyncTask(this.policyManager, this.sourceFileSystemManager, this.clusterManager, this.dataExportManager, this.recipeManager, this.recipeGeneratorManager));
+        this.recipeSyncTask = new RecipeSyncTask(this.policyManager, this.sourceFileSystemManager, this.clusterManager, this.dataExportManager, this.recipeManager, this.recipeGeneratorManager, this.dataStoreManager);
+        this.scheduleManager.setScheduledTask(this.recipeSyncTask);
+        this.scheduleManager.setScheduledTask(new WakeupPreloadTask(this.transportManager));
         
         this.serviceStarted = true;
         LOG.info("Stargate service started");
@@ -232,6 +236,8 @@ public class StargateService extends AService {
         this.scheduleManager.stop();
         this.scheduleManager = null;
         
+        this.recipeManager.stop();
+        
         this.recipeGeneratorManager.stop();
         this.recipeGeneratorManager = null;
         
@@ -476,6 +482,14 @@ public class StargateService extends AService {
         return this.userInterfaceManager;
     }
     
+    public synchronized RecipeSyncTask getRecipeSyncTask() throws ServiceNotStartedException {
+        if(this.serviceStarted) {
+            return this.recipeSyncTask;
+        } else {
+            throw new ServiceNotStartedException("Stargate service is not started");
+        }
+    }
+    
     public synchronized StargateServiceConfiguration getConfiguration() {
         return this.config;
     }
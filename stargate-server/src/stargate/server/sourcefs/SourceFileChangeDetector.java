@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.sourcefs;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.sourcefs.ASourceFileSystemDriver;
+import stargate.commons.sourcefs.ISourceFileChangeEventSource;
+import stargate.commons.sourcefs.SourceFileMetadata;
+
+/**
+ *
+ * @author iychoi
+ */
+public class SourceFileChangeDetector {
+    
+    private static final Log LOG = LogFactory.getLog(SourceFileChangeDetector.class);
+    
+    private ASourceFileSystemDriver driver;
+    // watched files and their last known metadata
+    private Map<URI, SourceFileMetadata> watched = new HashMap<URI, SourceFileMetadata>();
+    private boolean fullScanRequired = true;
+    
+    public SourceFileChangeDetector(ASourceFileSystemDriver driver) {
+        if(driver == null) {
+            throw new IllegalArgumentException("driver is null");
+        }
+        
+        this.driver = driver;
+    }
+    
+    public synchronized void watch(URI path, long fileSize, long lastModificationTime) {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        this.watched.put(path, new SourceFileMetadata(path, fileSize, lastModificationTime));
+    }
+    
+    public synchronized void unwatch(URI path) {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        this.watched.remove(path);
+    }
+    
+    /*
+     * stops watching files not in the given paths
+     */
+    public synchronized void retain(Collection<URI> paths) {
+        if(paths == null) {
+            throw new IllegalArgumentException("paths is null");
+        }
+        
+        this.watched.keySet().retainAll(paths);
+    }
+    
+    public synchronized boolean isWatched(URI path) {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        return this.watched.containsKey(path);
+    }
+    
+    public synchronized int getWatchedCount() {
+        return this.watched.size();
+    }
+    
+    /*
+     * returns changed files with their new metadata, deleted files map to null
+     * uses driver events if available, otherwise lists each parent directory once
+     */
+    public synchronized Map<URI, SourceFileMetadata> detectChanges() throws IOException {
+        if(!this.fullScanRequired && this.driver instanceof ISourceFileChangeEventSource) {
+            ISourceFileChangeEventSource eventSource = (ISourceFileChangeEventSource) this.driver;
+            if(eventSource.isChangeEventAvailable()) {
+                Collection<URI> changedPaths = eventSource.pollChangedPaths();
+                if(changedPaths != null) {
+                    return checkChangedPaths(changedPaths);
+                }
+                LOG.info("source file change events are lost, checking all files");
+            }
+        }
+        
+        Map<URI, SourceFileMetadata> changes = scanDirectories();
+        this.fullScanRequired = false;
+        return changes;
+    }
+    
+    private Map<URI, SourceFileMetadata> checkChangedPaths(Collection<URI> changedPaths) throws IOException {
+        Map<URI, SourceFileMetadata> changes = new HashMap<URI, SourceFileMetadata>();
+        for(URI path : changedPaths) {
+            SourceFileMetadata known = this.watched.get(path);
+            if(known == null) {
+                continue;
+            }
+            
+            SourceFileMetadata current;
+            try {
+                current = this.driver.getMetadata(path);
+            } catch (FileNotFoundException ex) {
+                current = null;
+            }
+            
+            compare(path, known, current, changes);
+        }
+        return changes;
+    }
+    
+    private Map<URI, SourceFileMetadata> scanDirectories() throws IOException {
+        // group by parent directory
+        Map<URI, List<URI>> directories = new HashMap<URI, List<URI>>();
+        for(URI path : this.watched.keySet()) {
+            URI parent = path.resolve(".");
+            List<URI> files = directories.get(parent);
+            if(files == null) {
+                files = new ArrayList<URI>();
+                directories.put(parent, files);
+            }
+            files.add(path);
+        }
+        
+        Map<URI, SourceFileMetadata> changes = new HashMap<URI, SourceFileMetadata>();
+        for(Map.Entry<URI, List<URI>> entry : directories.entrySet()) {
+            Map<String, SourceFileMetadata> listing = new HashMap<String, SourceFileMetadata>();
+            try {
+                for(SourceFileMetadata metadata : this.driver.listDirectoryWithMetadata(entry.getKey())) {
+                    listing.put(getName(metadata.getPath()), metadata);
+                }
+            } catch (FileNotFoundException ex) {
+                // directory removed, all files in it are gone
+            }
+            
+            for(URI path : entry.getValue()) {
+                SourceFileMetadata current = listing.get(getName(path));
+                compare(path, this.watched.get(path), current, changes);
+            }
+        }
+        return changes;
+    }
+    
+    private void compare(URI path, SourceFileMetadata known, SourceFileMetadata current, Map<URI, SourceFileMetadata> changes) {
+        if(current == null) {
+            changes.put(path, null);
+            this.watched.remove(path);
+        } else if(known.getFileSize() != current.getFileSize() ||
+                known.getLastModificationTime() != current.getLastModificationTime()) {
+            SourceFileMetadata metadata = new SourceFileMetadata(path, current.getFileSize(), current.getLastModificationTime());
+            changes.put(path, metadata);
+            this.watched.put(path, metadata);
+        }
+    }
+    
+    private String getName(URI path) {
+        String pathString = path.getPath();
+        if(pathString.endsWith("/")) {
+            pathString = pathString.substring(0, pathString.length() - 1);
+        }
+        
+        int idx = pathString.lastIndexOf("/");
+        if(idx >= 0) {
+            return pathString.substring(idx + 1);
+        }
+        return pathString;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return "SourceFileChangeDetector";
+    }
+}
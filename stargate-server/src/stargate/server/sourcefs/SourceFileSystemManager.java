@@ -23,6 +23,7 @@
  */
 package stargate.server.sourcefs;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -43,6 +44,7 @@ public class SourceFileSystemManager {
     private static SourceFileSystemManager instance;
 
     private ASourceFileSystemDriver driver;
+    private SourceFileChangeDetector changeDetector;
     
     public static SourceFileSystemManager getInstance(ASourceFileSystemDriver driver) {
         synchronized (SourceFileSystemManager.class) {
@@ -68,6 +70,7 @@ public class SourceFileSystemManager {
         }
         
         this.driver = driver;
+        this.changeDetector = new SourceFileChangeDetector(driver);
     }
     
     public synchronized ASourceFileSystemDriver getDriver() {
@@ -91,7 +94,15 @@ public class SourceFileSystemManager {
     }
     
     public synchronized InputStream getInputStream(URI path, long offset, int size) throws IOException {
-        return this.getInputStream(path, offset, size);
+        return this.driver.getInputStream(path, offset, size);
+    }
+    
+    public synchronized File getLocalFile(URI path) throws IOException {
+        return this.driver.getLocalFile(path);
+    }
+    
+    public SourceFileChangeDetector getChangeDetector() {
+        return this.changeDetector;
     }
     
     @Override
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.tasks;
+
+import java.io.IOException;
+import org.codehaus.jackson.annotate.JsonIgnore;
+import org.codehaus.jackson.annotate.JsonProperty;
+import stargate.commons.common.JsonSerializer;
+
+/**
+ *
+ * @author iychoi
+ */
+public class RecipeSyncStatus {
+    
+    private long processedFileCount;
+    private long failedFileCount;
+    private long backlogSize;
+    private double filesPerSecond;
+    
+    public RecipeSyncStatus() {
+        this.processedFileCount = 0;
+        this.failedFileCount = 0;
+        this.backlogSize = 0;
+        this.filesPerSecond = 0;
+    }
+    
+    public RecipeSyncStatus(long processedFileCount, long failedFileCount, long backlogSize, double filesPerSecond) {
+        this.processedFileCount = processedFileCount;
+        this.failedFileCount = failedFileCount;
+        this.backlogSize = backlogSize;
+        this.filesPerSecond = filesPerSecond;
+    }
+    
+    @JsonProperty("processed_files")
+    public long getProcessedFileCount() {
+        return this.processedFileCount;
+    }
+    
+    @JsonProperty("processed_files")
+    public void setProcessedFileCount(long processedFileCount) {
+        this.processedFileCount = processedFileCount;
+    }
+    
+    @JsonProperty("failed_files")
+    public long getFailedFileCount() {
+        return this.failedFileCount;
+    }
+    
+    @JsonProperty("failed_files")
+    public void setFailedFileCount(long failedFileCount) {
+        this.failedFileCount = failedFileCount;
+    }
+    
+    @JsonProperty("backlog_size")
+    public long getBacklogSize() {
+        return this.backlogSize;
+    }
+    
+    @JsonProperty("backlog_size")
+    public void setBacklogSize(long backlogSize) {
+        this.backlogSize = backlogSize;
+    }
+    
+    @JsonProperty("files_per_second")
+    public double getFilesPerSecond() {
+        return this.filesPerSecond;
+    }
+    
+    @JsonProperty("files_per_second")
+    public void setFilesPerSecond(double filesPerSecond) {
+        this.filesPerSecond = filesPerSecond;
+    }
+    
+    @JsonIgnore
+    public String toJson() throws IOException {
+        JsonSerializer serializer = new JsonSerializer();
+        return serializer.toJson(this);
+    }
+}
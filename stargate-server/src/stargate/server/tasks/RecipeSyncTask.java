@@ -23,31 +23,56 @@
  */
 package stargate.server.tasks;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import stargate.commons.dataexport.DataExportEntry;
+import stargate.commons.datastore.ADistributedDataStore;
 import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
-import stargate.commons.schedule.AScheduledLeaderTask;
+import stargate.commons.schedule.AScheduledTask;
+import stargate.commons.sourcefs.SourceFileMetadata;
+import stargate.commons.utils.DateTimeUtils;
 import stargate.server.cluster.ClusterManager;
 import stargate.server.dataexport.DataExportManager;
+import stargate.server.datastore.DataStoreManager;
 import stargate.server.policy.PolicyManager;
 import stargate.server.recipe.RecipeFactory;
 import stargate.server.recipe.RecipeGeneratorManager;
 import stargate.server.recipe.RecipeManager;
+import stargate.server.sourcefs.SourceFileChangeDetector;
 import stargate.server.sourcefs.SourceFileSystemManager;
 
 /**
  *
  * @author iychoi
  */
-public class RecipeSyncTask extends AScheduledLeaderTask {
+public class RecipeSyncTask extends AScheduledTask {
 
     private static final Log LOG = LogFactory.getLog(RecipeSyncTask.class);
     
+    private static final String RECIPESYNCTASK_PENDING_MAP_ID = "RecipeSyncTask_Pending";
+    
+    private static final int WORKER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    
+    // recipe generations (in sec) started at export registration are retried after this
+    private static final long INDEXING_TIMEOUT = 60 * 60;
+    
     private PolicyManager policyManager;
     private SourceFileSystemManager sourceFileSystemManager;
     private ClusterManager clusterManager;
@@ -55,9 +80,18 @@ public class RecipeSyncTask extends AScheduledLeaderTask {
     private RecipeManager recipeManager;
     private RecipeGeneratorManager recipeGeneratorManager;
     
+    // data object paths being synchronized, kept until done to resume after a failure
+    private ADistributedDataStore pending;
+    
     private long syncInterval;
     
-    public RecipeSyncTask(PolicyManager policyManager, SourceFileSystemManager sourceFileSystemManager, ClusterManager clusterManager, DataExportManager dataExportManager, RecipeManager recipeManager, RecipeGeneratorManager recipeGeneratorManager) throws IOException {
+    // files synchronized successfully, failures are counted separately
+    private AtomicLong processedFileCount = new AtomicLong(0);
+    private AtomicLong failedFileCount = new AtomicLong(0);
+    private AtomicLong backlogSize = new AtomicLong(0);
+    private volatile double filesPerSecond = 0;
+    
+    public RecipeSyncTask(PolicyManager policyManager, SourceFileSystemManager sourceFileSystemManager, ClusterManager clusterManager, DataExportManager dataExportManager, RecipeManager recipeManager, RecipeGeneratorManager recipeGeneratorManager, DataStoreManager dataStoreManager) throws IOException {
         if(policyManager == null) {
             throw new IllegalArgumentException("policyManager is null");
         }
@@ -82,63 +116,195 @@ public class RecipeSyncTask extends AScheduledLeaderTask {
             throw new IllegalArgumentException("recipeGeneratorManager is null");
         }
         
+        if(dataStoreManager == null) {
+            throw new IllegalArgumentException("dataStoreManager is null");
+        }
+        
         this.policyManager = policyManager;
         this.sourceFileSystemManager = sourceFileSystemManager;
         this.clusterManager = clusterManager;
         this.dataExportManager = dataExportManager;
         this.recipeManager = recipeManager;
         this.recipeGeneratorManager = recipeGeneratorManager;
-        ;
+        this.pending = dataStoreManager.getPersistentDistributedDataStore(RECIPESYNCTASK_PENDING_MAP_ID, String.class);
+        
         this.syncInterval = policyManager.getVolumePolicy().getLocalClusterRecipeSyncPeriod();
     }
     
+    public long getProcessedFileCount() {
+        return this.processedFileCount.get();
+    }
+    
+    public long getFailedFileCount() {
+        return this.failedFileCount.get();
+    }
+    
+    public long getBacklogSize() {
+        return this.backlogSize.get();
+    }
+    
+    public double getFilesPerSecond() {
+        return this.filesPerSecond;
+    }
+    
+    public RecipeSyncStatus getStatus() {
+        return new RecipeSyncStatus(getProcessedFileCount(), getFailedFileCount(), getBacklogSize(), getFilesPerSecond());
+    }
+    
     @Override
     public void run() {
         LOG.info("Start - RecipeSyncTask");
-
+        
+        long startTime = DateTimeUtils.getCurrentTime();
+        
         try {
-            Collection<Recipe> localRecipe = this.recipeManager.getRecipe();
-            for(Recipe recipe : localRecipe) {
+            // every member only synchronizes data objects whose partitions are owned by itself
+            Set<String> works = new HashSet<String>();
+            
+            // resume synchronizations interrupted in previous runs
+            works.addAll(this.pending.localKeySet());
+            
+            SourceFileChangeDetector changeDetector = this.sourceFileSystemManager.getChangeDetector();
+            
+            Map<URI, DataObjectPath> watchedPaths = new HashMap<URI, DataObjectPath>();
+            Collection<DataObjectMetadata> localMetadata = this.recipeManager.getLocalDataObjectMetadata();
+            for(DataObjectMetadata metadata : localMetadata) {
                 try {
-                    DataExportEntry dataExportEntry = this.dataExportManager.getDataExport(recipe.getMetadata().getPath().getPath());
-                    if(dataExportEntry != null) {
+                    DataExportEntry dataExportEntry = this.dataExportManager.getDataExport(metadata.getPath().getPath());
+                    if(dataExportEntry == null) {
                         // remove
-                        this.recipeManager.removeRecipe(recipe);
-                    } else {
-                        // check updated
-                        DataObjectMetadata metadata = RecipeFactory.createDataObjectMetadata(this.sourceFileSystemManager, this.clusterManager.getLocalClusterManager(), dataExportEntry);
-                        if(recipe.getMetadata().getObjectSize() != metadata.getObjectSize() ||
-                                recipe.getMetadata().getLastModificationTime() != metadata.getLastModificationTime()) {
-                            // updated
-                            Recipe newRecipe = RecipeFactory.createRecipe(this.sourceFileSystemManager, this.recipeGeneratorManager, this.clusterManager.getLocalClusterManager(), dataExportEntry);
-                            this.recipeManager.updateRecipe(newRecipe);
-                        }
+                        works.add(metadata.getPath().toString());
+                        continue;
+                    }
+                    
+                    URI resourcePath = dataExportEntry.getResourcePath();
+                    watchedPaths.put(resourcePath, metadata.getPath());
+                    if(!changeDetector.isWatched(resourcePath)) {
+                        changeDetector.watch(resourcePath, metadata.getObjectSize(), metadata.getLastModificationTime());
                     }
                 } catch (IOException ex) {
                     LOG.error("Exception occurred while synchronizing recipes", ex);
-                    // remove
-                    this.recipeManager.removeRecipe(recipe);
+                }
+            }
+            changeDetector.retain(watchedPaths.keySet());
+            
+            // only changed files are checked
+            Map<URI, SourceFileMetadata> changes = changeDetector.detectChanges();
+            for(Map.Entry<URI, SourceFileMetadata> change : changes.entrySet()) {
+                DataObjectPath path = watchedPaths.get(change.getKey());
+                if(path != null) {
+                    works.add(path.toString());
                 }
             }
             
             Collection<DataExportEntry> dataExportEntry = this.dataExportManager.getDataExport();
             for(DataExportEntry entry : dataExportEntry) {
-                try {
-                    DataObjectPath dataObjectPath = RecipeFactory.createDataObjectPath(this.clusterManager.getLocalClusterManager(), entry);
-                    if(!this.recipeManager.hasRecipe(dataObjectPath)) {
-                        // add
-                        Recipe newRecipe = RecipeFactory.createRecipe(this.sourceFileSystemManager, this.recipeGeneratorManager, this.clusterManager.getLocalClusterManager(), entry);
-                        this.recipeManager.addRecipe(newRecipe);
+                DataObjectPath dataObjectPath = RecipeFactory.createDataObjectPath(this.clusterManager.getLocalClusterManager(), entry);
+                if(this.recipeManager.isLocalRecipe(dataObjectPath) && !this.recipeManager.hasRecipe(dataObjectPath)) {
+                    if(this.recipeManager.isIndexing(dataObjectPath, INDEXING_TIMEOUT)) {
+                        // being generated in background
+                        continue;
                     }
-                } catch (IOException ex) {
-                    LOG.error("Exception occurred while synchronizing recipes", ex);
+                    
+                    // add
+                    works.add(dataObjectPath.toString());
                 }
             }
+            
+            processWorks(works);
         } catch (IOException ex) {
             LOG.error("Exception occurred while synchronizing recipes", ex);
         }
+        
+        long elapsed = DateTimeUtils.getCurrentTime() - startTime;
+        LOG.info("Done - RecipeSyncTask (" + this.processedFileCount.get() + " files processed, " + this.failedFileCount.get() + " failed, " + String.format("%.2f", this.filesPerSecond) + " files/sec, " + elapsed + " ms)");
+    }
+    
+    private void processWorks(Collection<String> works) throws IOException {
+        if(works.isEmpty()) {
+            return;
+        }
+        
+        long now = DateTimeUtils.getCurrentTime();
+        
+        // checkpoint
+        for(String work : works) {
+            this.pending.put(work, Long.toString(now));
+        }
+        this.backlogSize.set(works.size());
+        long processedBefore = this.processedFileCount.get();
+        
+        ExecutorService workerPool = Executors.newFixedThreadPool(Math.min(WORKER_THREADS, works.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for(final String work : works) {
+                futures.add(workerPool.submit(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        try {
+                            syncDataObject(new DataObjectPath(work));
+                            pending.remove(work);
+                            processedFileCount.incrementAndGet();
+                        } catch (IOException ex) {
+                            LOG.error("Exception occurred while synchronizing recipes", ex);
+                            failedFileCount.incrementAndGet();
+                        } finally {
+                            backlogSize.decrementAndGet();
+                        }
+                    }
+                }));
+            }
             
-        LOG.info("Done - RecipeSyncTask");
+            // wait for completion
+            for(Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                } catch (ExecutionException ex) {
+                    LOG.error("Exception occurred while synchronizing recipes", ex);
+                }
+            }
+        } finally {
+            workerPool.shutdownNow();
+        }
+        
+        long elapsed = DateTimeUtils.getCurrentTime() - now;
+        long processed = this.processedFileCount.get() - processedBefore;
+        this.filesPerSecond = processed * 1000.0 / Math.max(1, elapsed);
+    }
+    
+    /*
+     * recipe is removed only if the source file is gone,
+     * other failures may be transient and are thrown to keep the work in the checkpoint
+     */
+    private void syncDataObject(DataObjectPath path) throws IOException {
+        DataExportEntry dataExportEntry = this.dataExportManager.getDataExport(path.getPath());
+        if(dataExportEntry == null) {
+            // remove
+            this.recipeManager.removeRecipe(path);
+            return;
+        }
+        
+        try {
+            Recipe recipe = this.recipeManager.getRecipe(path);
+            if(recipe == null) {
+                // add
+                Recipe newRecipe = RecipeFactory.createRecipe(this.sourceFileSystemManager, this.recipeGeneratorManager, this.clusterManager.getLocalClusterManager(), dataExportEntry);
+                this.recipeManager.addRecipe(newRecipe);
+            } else {
+                // updated
+                Recipe newRecipe = RecipeFactory.updateRecipe(this.sourceFileSystemManager, this.recipeGeneratorManager, this.clusterManager.getLocalClusterManager(), dataExportEntry, recipe);
+                this.recipeManager.updateRecipe(newRecipe);
+            }
+        } catch (FileNotFoundException ex) {
+            LOG.error("Source file of a data export is not found - " + dataExportEntry.getResourcePath().toString(), ex);
+            // source file is removed
+            this.recipeManager.removeRecipe(path);
+            this.sourceFileSystemManager.getChangeDetector().unwatch(dataExportEntry.getResourcePath());
+        }
     }
     
     @Override
@@ -69,6 +69,6 @@ public class WakeupPreloadTask extends AScheduledLeaderTask {
 
     @Override
     public long getInterval() {
-        return 1000;
+        return 60;
     }
 }
@@ -120,6 +120,10 @@ public class TemporalStorageManager {
         return this.driver.removeDir(path, recursive);
     }
     
+    public synchronized boolean rename(URI src, URI dest) throws IOException, FileNotFoundException {
+        return this.driver.rename(src, dest);
+    }
+    
     public synchronized InputStream getInputStream(URI path) throws IOException, FileNotFoundException {
         return this.driver.getInputStream(path);
     }
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.recipe.DataChunkBatchWriter;
+import stargate.server.volume.VolumeManager;
+
+/**
+ *
+ * @author iychoi
+ */
+public class DataChunkBatchStreamingOutput implements StreamingOutput {
+    
+    private static final Log LOG = LogFactory.getLog(DataChunkBatchStreamingOutput.class);
+    
+    public static final int MAX_BATCH_SIZE = 256;
+    
+    private VolumeManager volumeManager;
+    private String clusterName;
+    private String hashAlgorithm;
+    private Collection<String> hashes;
+    private long maxDataSize;
+    
+    public DataChunkBatchStreamingOutput(VolumeManager volumeManager, String clusterName, Collection<String> hashes) {
+        this(volumeManager, clusterName, null, hashes, Long.MAX_VALUE);
+    }
+    
+    public DataChunkBatchStreamingOutput(VolumeManager volumeManager, String clusterName, String hashAlgorithm, Collection<String> hashes) {
+        this(volumeManager, clusterName, hashAlgorithm, hashes, Long.MAX_VALUE);
+    }
+    
+    public DataChunkBatchStreamingOutput(VolumeManager volumeManager, String clusterName, Collection<String> hashes, long maxDataSize) {
+        this(volumeManager, clusterName, null, hashes, maxDataSize);
+    }
+    
+    /*
+     * hashAlgorithm is the algorithm of the recipe owning the chunks, null if not known
+     * chunks that do not fit in maxDataSize are sent as unavailable, clients fetch them individually
+     */
+    public DataChunkBatchStreamingOutput(VolumeManager volumeManager, String clusterName, String hashAlgorithm, Collection<String> hashes, long maxDataSize) {
+        if(volumeManager == null) {
+            throw new IllegalArgumentException("volumeManager is null");
+        }
+        
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hashes == null) {
+            throw new IllegalArgumentException("hashes is null");
+        }
+        
+        if(hashes.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("too many hashes in a batch : " + hashes.size());
+        }
+        
+        if(maxDataSize <= 0) {
+            throw new IllegalArgumentException("maxDataSize is invalid");
+        }
+        
+        this.volumeManager = volumeManager;
+        this.clusterName = clusterName;
+        this.hashAlgorithm = hashAlgorithm;
+        this.hashes = hashes;
+        this.maxDataSize = maxDataSize;
+    }
+    
+    @Override
+    public void write(OutputStream out) throws IOException, WebApplicationException {
+        try {
+            this.volumeManager.scheduleDataChunkTransfers(this.clusterName, this.hashAlgorithm, this.hashes);
+        } catch (IOException ex) {
+            LOG.error("unable to schedule transfers of data chunks in a batch", ex);
+        }
+        
+        DataChunkBatchWriter writer = new DataChunkBatchWriter(out);
+        for(String hash : this.hashes) {
+            if(writer.getDataSize() >= this.maxDataSize) {
+                writer.writeUnavailableDataChunk(hash);
+                continue;
+            }
+            
+            InputStream is = null;
+            try {
+                is = this.volumeManager.getDataChunk(this.clusterName, this.hashAlgorithm, hash);
+            } catch (IOException ex) {
+                LOG.error("unable to open a data chunk in a batch - " + hash, ex);
+            }
+            
+            // failures while streaming a chunk abort the whole batch
+            writer.writeDataChunk(hash, is);
+        }
+        writer.finish();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.jetty.server.HttpOutput;
+import stargate.commons.recipe.ChunkBufferPool;
+import stargate.server.volume.DataChunkRegion;
+
+/**
+ *
+ * @author iychoi
+ */
+public class DataChunkStreamingOutput implements StreamingOutput {
+    
+    private static final Log LOG = LogFactory.getLog(DataChunkStreamingOutput.class);
+    
+    public static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_DIRECT_BUFFERS = 64;
+    
+    // direct buffers are expensive to allocate, keep them for following requests
+    private static final ConcurrentLinkedQueue<ByteBuffer> directBuffers = new ConcurrentLinkedQueue<ByteBuffer>();
+    
+    private InputStream is;
+    private DataChunkRegion region;
+    private HttpServletResponse servletResponse;
+    
+    public DataChunkStreamingOutput(InputStream is) {
+        if(is == null) {
+            throw new IllegalArgumentException("is is null");
+        }
+        
+        this.is = is;
+    }
+    
+    public DataChunkStreamingOutput(DataChunkRegion region, HttpServletResponse servletResponse) {
+        if(region == null) {
+            throw new IllegalArgumentException("region is null");
+        }
+        
+        this.region = region;
+        this.servletResponse = servletResponse;
+    }
+    
+    private static ByteBuffer allocateDirectBuffer() {
+        ByteBuffer buffer = directBuffers.poll();
+        if(buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        buffer.clear();
+        return buffer;
+    }
+    
+    private static void releaseDirectBuffer(ByteBuffer buffer) {
+        // size() walks the queue, but the queue is short
+        if(directBuffers.size() < MAX_POOLED_DIRECT_BUFFERS) {
+            directBuffers.offer(buffer);
+        }
+    }
+    
+    @Override
+    public void write(OutputStream out) throws IOException, WebApplicationException {
+        try {
+            if(this.region != null) {
+                writeRegion(out);
+            } else {
+                writeStream(out);
+            }
+        } catch (IOException ex) {
+            throw new WebApplicationException(ex);
+        }
+    }
+    
+    private void writeRegion(OutputStream out) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(this.region.getFile(), "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if(this.servletResponse != null) {
+                // commit headers through jersey before bypassing its stream
+                out.flush();
+                
+                ServletOutputStream servletOutputStream = this.servletResponse.getOutputStream();
+                if(servletOutputStream instanceof HttpOutput) {
+                    // jetty writes direct buffers to the socket without copying to heap
+                    writeRegion(channel, (HttpOutput) servletOutputStream);
+                    return;
+                }
+            }
+            
+            ChunkBufferPool pool = ChunkBufferPool.getSharedInstance();
+            byte[] copyBuffer = pool.allocate(BUFFER_SIZE);
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(copyBuffer, 0, BUFFER_SIZE);
+                long position = this.region.getOffset();
+                long left = this.region.getLength();
+                while(left > 0) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(BUFFER_SIZE, left));
+                    int read = channel.read(buffer, position);
+                    if(read < 0) {
+                        throw new IOException("unexpected end of file - " + this.region.getFile().getPath());
+                    }
+                    out.write(copyBuffer, 0, read);
+                    position += read;
+                    left -= read;
+                }
+            } finally {
+                pool.release(copyBuffer);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+    
+    private void writeRegion(FileChannel channel, HttpOutput out) throws IOException {
+        ByteBuffer buffer = allocateDirectBuffer();
+        try {
+            long position = this.region.getOffset();
+            long left = this.region.getLength();
+            while(left > 0) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, left));
+                int read = channel.read(buffer, position);
+                if(read < 0) {
+                    throw new IOException("unexpected end of file - " + this.region.getFile().getPath());
+                }
+                buffer.flip();
+                out.write(buffer);
+                position += read;
+                left -= read;
+            }
+        } finally {
+            releaseDirectBuffer(buffer);
+        }
+    }
+    
+    private void writeStream(OutputStream out) throws IOException {
+        ChunkBufferPool pool = ChunkBufferPool.getSharedInstance();
+        byte[] copyBuffer = pool.allocate(BUFFER_SIZE);
+        try {
+            int read = 0;
+            while((read = this.is.read(copyBuffer, 0, BUFFER_SIZE)) > 0) {
+                out.write(copyBuffer, 0, read);
+            }
+        } finally {
+            pool.release(copyBuffer);
+            this.is.close();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.transport;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.codehaus.jackson.annotate.JsonIgnore;
+import org.codehaus.jackson.annotate.JsonProperty;
+import stargate.commons.common.JsonSerializer;
+
+/**
+ *
+ * @author iychoi
+ */
+public class PreloadRequest {
+    
+    private static final Log LOG = LogFactory.getLog(PreloadRequest.class);
+    
+    public static final int DEFAULT_PRIORITY = 0;
+    
+    private String clusterName;
+    // algorithm of the recipe owning the chunk, null if not known
+    private String hashAlgorithm;
+    private String hash;
+    private int priority;
+    private long creationTime;
+    private int attempts;
+    // node processing the request and the time it claimed the request
+    private String claimOwner;
+    private long claimTime;
+    
+    public static PreloadRequest createInstance(File file) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+
+        JsonSerializer serializer = new JsonSerializer();
+        return (PreloadRequest) serializer.fromJsonFile(file, PreloadRequest.class);
+    }
+    
+    public static PreloadRequest createInstance(String json) throws IOException {
+        if(json == null || json.isEmpty()) {
+            throw new IllegalArgumentException("json is empty or null");
+        }
+        
+        JsonSerializer serializer = new JsonSerializer();
+        return (PreloadRequest) serializer.fromJson(json, PreloadRequest.class);
+    }
+    
+    public PreloadRequest() {
+        this.clusterName = null;
+        this.hashAlgorithm = null;
+        this.hash = null;
+        this.priority = DEFAULT_PRIORITY;
+        this.creationTime = 0;
+        this.attempts = 0;
+        this.claimOwner = null;
+        this.claimTime = 0;
+    }
+    
+    public PreloadRequest(PreloadRequest that) {
+        this.clusterName = that.clusterName;
+        this.hashAlgorithm = that.hashAlgorithm;
+        this.hash = that.hash;
+        this.priority = that.priority;
+        this.creationTime = that.creationTime;
+        this.attempts = that.attempts;
+        this.claimOwner = that.claimOwner;
+        this.claimTime = that.claimTime;
+    }
+    
+    public PreloadRequest(String clusterName, String hashAlgorithm, String hash, int priority, long creationTime) {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        if(creationTime < 0) {
+            throw new IllegalArgumentException("creationTime is invalid");
+        }
+        
+        initialize(clusterName, hashAlgorithm, hash, priority, creationTime);
+    }
+    
+    private void initialize(String clusterName, String hashAlgorithm, String hash, int priority, long creationTime) {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        if(creationTime < 0) {
+            throw new IllegalArgumentException("creationTime is invalid");
+        }
+        
+        this.clusterName = clusterName;
+        this.hashAlgorithm = hashAlgorithm;
+        this.hash = hash;
+        this.priority = priority;
+        this.creationTime = creationTime;
+        this.attempts = 0;
+        this.claimOwner = null;
+        this.claimTime = 0;
+    }
+    
+    @JsonProperty("cluster_name")
+    public String getClusterName() {
+        return this.clusterName;
+    }
+    
+    @JsonProperty("cluster_name")
+    public void setClusterName(String clusterName) {
+        this.clusterName = clusterName;
+    }
+    
+    @JsonProperty("hash_algorithm")
+    public String getHashAlgorithm() {
+        return this.hashAlgorithm;
+    }
+    
+    @JsonProperty("hash_algorithm")
+    public void setHashAlgorithm(String hashAlgorithm) {
+        this.hashAlgorithm = hashAlgorithm;
+    }
+    
+    @JsonProperty("hash")
+    public String getHash() {
+        return this.hash;
+    }
+    
+    @JsonProperty("hash")
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+    
+    @JsonProperty("priority")
+    public int getPriority() {
+        return this.priority;
+    }
+    
+    @JsonProperty("priority")
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+    
+    @JsonProperty("creation_time")
+    public long getCreationTime() {
+        return this.creationTime;
+    }
+    
+    @JsonProperty("creation_time")
+    public void setCreationTime(long creationTime) {
+        if(creationTime < 0) {
+            throw new IllegalArgumentException("creationTime is invalid");
+        }
+        
+        this.creationTime = creationTime;
+    }
+    
+    @JsonProperty("attempts")
+    public int getAttempts() {
+        return this.attempts;
+    }
+    
+    @JsonProperty("attempts")
+    public void setAttempts(int attempts) {
+        if(attempts < 0) {
+            throw new IllegalArgumentException("attempts is invalid");
+        }
+        
+        this.attempts = attempts;
+    }
+    
+    @JsonIgnore
+    public void increaseAttempts() {
+        this.attempts++;
+    }
+    
+    @JsonProperty("claim_owner")
+    public String getClaimOwner() {
+        return this.claimOwner;
+    }
+    
+    @JsonProperty("claim_owner")
+    public void setClaimOwner(String claimOwner) {
+        this.claimOwner = claimOwner;
+    }
+    
+    @JsonProperty("claim_time")
+    public long getClaimTime() {
+        return this.claimTime;
+    }
+    
+    @JsonProperty("claim_time")
+    public void setClaimTime(long claimTime) {
+        if(claimTime < 0) {
+            throw new IllegalArgumentException("claimTime is invalid");
+        }
+        
+        this.claimTime = claimTime;
+    }
+    
+    @JsonIgnore
+    public boolean isClaimed() {
+        return this.claimOwner != null && !this.claimOwner.isEmpty();
+    }
+    
+    @JsonIgnore
+    public void claim(String owner, long time) {
+        if(owner == null || owner.isEmpty()) {
+            throw new IllegalArgumentException("owner is null or empty");
+        }
+        
+        if(time < 0) {
+            throw new IllegalArgumentException("time is invalid");
+        }
+        
+        this.claimOwner = owner;
+        this.claimTime = time;
+    }
+    
+    @JsonIgnore
+    public void releaseClaim() {
+        this.claimOwner = null;
+        this.claimTime = 0;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        if(this.clusterName == null || this.clusterName.isEmpty()) {
+            return true;
+        }
+        
+        if(this.hash == null || this.hash.isEmpty()) {
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public String toString() {
+        return this.clusterName + ":" + this.hash + "(" + this.priority + ")";
+    }
+    
+    @JsonIgnore
+    public synchronized String toJson() throws IOException {
+        JsonSerializer serializer = new JsonSerializer();
+        return serializer.toJson(this);
+    }
+    
+    @JsonIgnore
+    public synchronized void saveTo(File file) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+        
+        JsonSerializer serializer = new JsonSerializer();
+        serializer.toJsonFile(file, this);
+    }
+}
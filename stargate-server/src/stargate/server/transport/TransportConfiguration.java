@@ -40,7 +40,16 @@ public class TransportConfiguration extends AImmutableConfiguration {
     
     private static final Log LOG = LogFactory.getLog(TransportConfiguration.class);
     
+    public static final int DEFAULT_TRANSFER_THREAD_POOL_SIZE = 16;
+    public static final int DEFAULT_MAX_TRANSFERS_PER_CLUSTER = 8;
+    public static final int DEFAULT_PRELOAD_THREAD_POOL_SIZE = 4;
+    public static final int DEFAULT_TRANSFER_BATCH_SIZE = 16;
+    
     private DriverSetting driverSetting;
+    private int transferThreadPoolSize = DEFAULT_TRANSFER_THREAD_POOL_SIZE;
+    private int maxTransfersPerCluster = DEFAULT_MAX_TRANSFERS_PER_CLUSTER;
+    private int preloadThreadPoolSize = DEFAULT_PRELOAD_THREAD_POOL_SIZE;
+    private int transferBatchSize = DEFAULT_TRANSFER_BATCH_SIZE;
     
     public static TransportConfiguration createInstance(File file) throws IOException {
         if(file == null) {
@@ -79,6 +88,71 @@ public class TransportConfiguration extends AImmutableConfiguration {
         return this.driverSetting;
     }
     
+    @JsonProperty("transfer_thread_pool_size")
+    public void setTransferThreadPoolSize(int size) {
+        if(size <= 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.transferThreadPoolSize = size;
+    }
+    
+    @JsonProperty("transfer_thread_pool_size")
+    public int getTransferThreadPoolSize() {
+        return this.transferThreadPoolSize;
+    }
+    
+    @JsonProperty("max_transfers_per_cluster")
+    public void setMaxTransfersPerCluster(int max) {
+        if(max <= 0) {
+            throw new IllegalArgumentException("max is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.maxTransfersPerCluster = max;
+    }
+    
+    @JsonProperty("max_transfers_per_cluster")
+    public int getMaxTransfersPerCluster() {
+        return this.maxTransfersPerCluster;
+    }
+    
+    @JsonProperty("preload_thread_pool_size")
+    public void setPreloadThreadPoolSize(int size) {
+        if(size <= 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.preloadThreadPoolSize = size;
+    }
+    
+    @JsonProperty("preload_thread_pool_size")
+    public int getPreloadThreadPoolSize() {
+        return this.preloadThreadPoolSize;
+    }
+    
+    @JsonProperty("transfer_batch_size")
+    public void setTransferBatchSize(int size) {
+        // servers reject batches larger than this
+        if(size <= 0 || size > DataChunkBatchStreamingOutput.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        super.verifyMutable();
+        
+        this.transferBatchSize = size;
+    }
+    
+    @JsonProperty("transfer_batch_size")
+    public int getTransferBatchSize() {
+        return this.transferBatchSize;
+    }
+    
     @Override
     public void setImmutable() {
         super.setImmutable();
@@ -27,11 +27,35 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import stargate.commons.cluster.Node;
 import stargate.commons.cluster.RemoteCluster;
 import stargate.commons.dataexport.DataExportEntry;
+import stargate.commons.datastore.ADistributedDataStore;
+import stargate.commons.recipe.DataChunkBatchReader;
 import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
@@ -39,11 +63,13 @@ import stargate.commons.recipe.RecipeChunk;
 import stargate.commons.service.ServiceNotStartedException;
 import stargate.commons.transport.ATransportClient;
 import stargate.commons.transport.ATransportDriver;
+import stargate.commons.utils.DateTimeUtils;
 import stargate.commons.volume.Directory;
-import stargate.server.blockcache.BlockCacheEntry;
 import stargate.server.blockcache.BlockCacheManager;
+import stargate.server.cluster.ClusterManager;
 import stargate.server.dataexport.DataExportManager;
 import stargate.server.datastore.DataStoreManager;
+import stargate.server.recipe.ChunkLocation;
 import stargate.server.recipe.RecipeGeneratorManager;
 import stargate.server.recipe.RecipeManager;
 import stargate.server.sourcefs.SourceFileSystemManager;
@@ -59,6 +85,12 @@ public class TransportManager {
 
     private static final Log LOG = LogFactory.getLog(TransportManager.class);
     
+    private static final String TRANSPORTMANAGER_PRELOAD_QUEUE_MAP_ID = "TransportManager_Preload_Queue";
+    private static final int PRELOAD_QUEUE_INITIAL_CAPACITY = 1024;
+    private static final int PRELOAD_MAX_ATTEMPTS = 3;
+    // claims not released within the timeout are taken over by other nodes
+    private static final long PRELOAD_CLAIM_TIMEOUT_SEC = 600;
+    
     private static TransportManager instance;
 
     private DataStoreManager dataStoreManager;
@@ -68,13 +100,23 @@ public class TransportManager {
     private DataExportManager dataExportManager;
     private BlockCacheManager blockCacheManager;
     
+    private TransportConfiguration config;
     private ATransportDriver driver;
-    private Thread preloadTaskThread;
+    private volatile ExecutorService transferThreadPool;
+    private ConcurrentHashMap<String, Semaphore> transferLimits = new ConcurrentHashMap<String, Semaphore>();
+    private ConcurrentHashMap<String, Future<byte[]>> pendingTransfers = new ConcurrentHashMap<String, Future<byte[]>>();
+    private ClusterManager clusterManager;
+    private ADistributedDataStore preloadStore;
+    private PriorityBlockingQueue<PreloadRequest> preloadQueue;
+    private Map<String, PreloadRequest> queuedPreloads = new HashMap<String, PreloadRequest>();
+    private ExecutorService preloadThreadPool;
+    private AtomicLong preloadCompleted = new AtomicLong();
+    private AtomicLong preloadFailed = new AtomicLong();
     
-    public static TransportManager getInstance(ATransportDriver driver, DataStoreManager dataStoreManager, RecipeManager recipeManager, RecipeGeneratorManager recipeGeneratorManager, SourceFileSystemManager sourceFileSystemManager, DataExportManager dataExportManager, BlockCacheManager blockCacheManager) {
+    public static TransportManager getInstance(TransportConfiguration config, ATransportDriver driver, DataStoreManager dataStoreManager, RecipeManager recipeManager, RecipeGeneratorManager recipeGeneratorManager, SourceFileSystemManager sourceFileSystemManager, DataExportManager dataExportManager, BlockCacheManager blockCacheManager, ClusterManager clusterManager) {
         synchronized (TransportManager.class) {
             if(instance == null) {
-                instance = new TransportManager(driver, dataStoreManager, recipeManager, recipeGeneratorManager, sourceFileSystemManager, dataExportManager, blockCacheManager);
+                instance = new TransportManager(config, driver, dataStoreManager, recipeManager, recipeGeneratorManager, sourceFileSystemManager, dataExportManager, blockCacheManager, clusterManager);
             }
             return instance;
         }
@@ -89,7 +131,11 @@ public class TransportManager {
         }
     }
     
-    TransportManager(ATransportDriver driver, DataStoreManager dataStoreManager, RecipeManager recipeManager, RecipeGeneratorManager recipeGeneratorManager, SourceFileSystemManager sourceFileSystemManager, DataExportManager dataExportManager, BlockCacheManager blockCacheManager) {
+    TransportManager(TransportConfiguration config, ATransportDriver driver, DataStoreManager dataStoreManager, RecipeManager recipeManager, RecipeGeneratorManager recipeGeneratorManager, SourceFileSystemManager sourceFileSystemManager, DataExportManager dataExportManager, BlockCacheManager blockCacheManager, ClusterManager clusterManager) {
+        if(config == null) {
+            throw new IllegalArgumentException("config is null");
+        }
+        
         if(driver == null) {
             throw new IllegalArgumentException("driver is null");
         }
@@ -118,6 +164,11 @@ public class TransportManager {
             throw new IllegalArgumentException("blockCacheManager is null");
         }
         
+        if(clusterManager == null) {
+            throw new IllegalArgumentException("clusterManager is null");
+        }
+        
+        this.config = config;
         this.driver = driver;
         this.dataStoreManager = dataStoreManager;
         this.recipeManager = recipeManager;
@@ -125,6 +176,24 @@ public class TransportManager {
         this.sourceFileSystemManager = sourceFileSystemManager;
         this.dataExportManager = dataExportManager;
         this.blockCacheManager = blockCacheManager;
+        this.clusterManager = clusterManager;
+        
+        this.preloadStore = this.dataStoreManager.getPersistentDistributedDataStore(TRANSPORTMANAGER_PRELOAD_QUEUE_MAP_ID, PreloadRequest.class);
+        this.preloadQueue = new PriorityBlockingQueue<PreloadRequest>(PRELOAD_QUEUE_INITIAL_CAPACITY, new Comparator<PreloadRequest>() {
+
+            @Override
+            public int compare(PreloadRequest t1, PreloadRequest t2) {
+                if(t1.getPriority() != t2.getPriority()) {
+                    // higher priority first
+                    return t1.getPriority() > t2.getPriority() ? -1 : 1;
+                }
+                
+                if(t1.getCreationTime() != t2.getCreationTime()) {
+                    return t1.getCreationTime() < t2.getCreationTime() ? -1 : 1;
+                }
+                return 0;
+            }
+        });
     }
     
     public ATransportDriver getDriver() {
@@ -133,9 +202,33 @@ public class TransportManager {
     
     public synchronized void start() throws IOException {
         this.driver.startDriver();
+        
+        this.transferThreadPool = Executors.newFixedThreadPool(this.config.getTransferThreadPoolSize());
     }
 
     public synchronized void stop() throws IOException {
+        if(this.preloadThreadPool != null) {
+            this.preloadThreadPool.shutdownNow();
+            this.preloadThreadPool = null;
+        }
+        
+        // fail transfers not finished so that waiters do not block forever
+        for(Future<byte[]> transfer : this.pendingTransfers.values()) {
+            transfer.cancel(true);
+        }
+        
+        if(this.transferThreadPool != null) {
+            List<Runnable> droppedJobs = this.transferThreadPool.shutdownNow();
+            for(Runnable job : droppedJobs) {
+                if(job instanceof TransferJob) {
+                    // never run, give back the transfer slot
+                    ((TransferJob) job).cancel();
+                }
+            }
+            this.transferThreadPool = null;
+        }
+        this.pendingTransfers.clear();
+        
         this.driver.stopDriver();
     }
     
@@ -143,7 +236,7 @@ public class TransportManager {
         return this.driver.getTransportClient(remoteCluster);
     }
     
-    public synchronized RemoteCluster getClusterInfo(RemoteCluster remoteCluster) throws IOException {
+    public RemoteCluster getClusterInfo(RemoteCluster remoteCluster) throws IOException {
         if(remoteCluster == null || remoteCluster.isEmpty()) {
             throw new IllegalArgumentException("remoteCluster is null or empty");
         }
@@ -156,7 +249,7 @@ public class TransportManager {
         }
     }
     
-    public synchronized Directory getDirectory(RemoteCluster remoteCluster, DataObjectPath path) throws IOException {
+    public Directory getDirectory(RemoteCluster remoteCluster, DataObjectPath path) throws IOException {
         if(remoteCluster == null || remoteCluster.isEmpty()) {
             throw new IllegalArgumentException("remoteCluster is null or empty");
         }
@@ -173,7 +266,7 @@ public class TransportManager {
         }
     }
     
-    public synchronized DataObjectMetadata getDataObjectMetadata(RemoteCluster remoteCluster, DataObjectPath path) throws IOException {
+    public DataObjectMetadata getDataObjectMetadata(RemoteCluster remoteCluster, DataObjectPath path) throws IOException {
         if(remoteCluster == null || remoteCluster.isEmpty()) {
             throw new IllegalArgumentException("remoteCluster is null or empty");
         }
@@ -190,7 +283,7 @@ public class TransportManager {
         }
     }
     
-    public synchronized Collection<DataObjectMetadata> listDataObjectMetadata(RemoteCluster remoteCluster, DataObjectPath path) throws IOException {
+    public Collection<DataObjectMetadata> listDataObjectMetadata(RemoteCluster remoteCluster, DataObjectPath path) throws IOException {
         if(remoteCluster == null || remoteCluster.isEmpty()) {
             throw new IllegalArgumentException("remoteCluster is null or empty");
         }
@@ -207,7 +300,7 @@ public class TransportManager {
         }
     }
 
-    public synchronized Recipe getRecipe(RemoteCluster remoteCluster, DataObjectPath path) throws IOException {
+    public Recipe getRecipe(RemoteCluster remoteCluster, DataObjectPath path) throws IOException {
         if(remoteCluster == null || remoteCluster.isEmpty()) {
             throw new IllegalArgumentException("remoteCluster is null or empty");
         }
@@ -224,17 +317,15 @@ public class TransportManager {
         }
     }
     
-    public synchronized InputStream getDataChunk(RemoteCluster remoteCluster, String hash) throws IOException {
-        if(remoteCluster == null || remoteCluster.isEmpty()) {
-            throw new IllegalArgumentException("remoteCluster is null or empty");
-        }
-        
-        if(hash == null) {
-            throw new IllegalArgumentException("hash is null or empty");
-        }
-        
+    private InputStream getLocalDataChunk(String hash) {
         // step 1. check out local recipe to check if a block exists locally
         try {
+            ChunkLocation location = this.recipeManager.getChunkLocation(hash);
+            if(location != null) {
+                return this.sourceFileSystemManager.getInputStream(location.getResourcePath(), location.getOffset(), location.getLength());
+            }
+            
+            // not indexed - search recipes
             Recipe recipe = this.recipeManager.getRecipe(hash);
             if(recipe != null) {
                 DataExportEntry dataExport = this.dataExportManager.getDataExport(recipe.getMetadata().getPath().getPath());
@@ -249,25 +340,24 @@ public class TransportManager {
             }
         } catch (IOException ex) {
         }
-
+        return null;
+    }
+    
+    private InputStream getCachedDataChunk(String hash) {
         // step 2. check block-cache
         try {
-            BlockCacheEntry blockCache = this.blockCacheManager.getBlockCacheEntry(hash);
-            if(blockCache != null) {
-                byte[] blockData = blockCache.getBlockData();
-                if(blockData != null) {
-                    ByteArrayInputStream bais = new ByteArrayInputStream(blockData);
-                    return bais;
-                }
-            }
+            return this.blockCacheManager.getBlockCacheInputStream(hash);
         } catch (IOException ex) {
         }
-
+        return null;
+    }
+    
+    private InputStream getRemoteDataChunk(RemoteCluster remoteCluster, String hashAlgorithm, String hash) throws IOException {
         // step 3. go remote
         ATransportClient transportClient = getTransportClient(remoteCluster);
         if(transportClient != null) {
             InputStream dataChunkInputStream = transportClient.getDataChunk(remoteCluster.getName(), hash);
-            IInterceptableInputStreamHandler handler = new CachedInputStreamHandler(this.blockCacheManager, this.recipeGeneratorManager, hash);
+            IInterceptableInputStreamHandler handler = new CachedInputStreamHandler(this.blockCacheManager, getVerifyHashAlgorithm(hashAlgorithm), hash);
 
             InterceptableInputStream iterceptableInputStream = new InterceptableInputStream(dataChunkInputStream, handler);
 
@@ -277,7 +367,307 @@ public class TransportManager {
         }
     }
     
-    public synchronized void scheduleTransferAndFillCache(RemoteCluster remoteCluster, String hash) throws IOException {
+    private InputStream openDataChunk(RemoteCluster remoteCluster, String hashAlgorithm, String hash) throws IOException {
+        InputStream localDataChunk = getLocalDataChunk(hash);
+        if(localDataChunk != null) {
+            return localDataChunk;
+        }
+        
+        InputStream cachedDataChunk = getCachedDataChunk(hash);
+        if(cachedDataChunk != null) {
+            return cachedDataChunk;
+        }
+        
+        return getRemoteDataChunk(remoteCluster, hashAlgorithm, hash);
+    }
+    
+    /*
+     * algorithm of the recipe owning the chunk, chunks of recipes not known are
+     * verified with the local algorithm
+     */
+    private String getVerifyHashAlgorithm(String hashAlgorithm) {
+        if(hashAlgorithm == null || hashAlgorithm.isEmpty()) {
+            return this.recipeGeneratorManager.getHashAlgorithm();
+        }
+        return hashAlgorithm;
+    }
+    
+    private byte[] transferDataChunk(RemoteCluster remoteCluster, String hashAlgorithm, String hash) throws IOException {
+        InputStream dataChunkInputStream = openDataChunk(remoteCluster, hashAlgorithm, hash);
+        try {
+            return IOUtils.toByteArray(dataChunkInputStream);
+        } finally {
+            IOUtils.closeQuietly(dataChunkInputStream);
+        }
+    }
+    
+    /*
+     * completes the transfer of each data chunk as soon as it is received
+     */
+    private void transferDataChunks(RemoteCluster remoteCluster, String hashAlgorithm, Map<String, BatchedTransfer> transfers) throws IOException {
+        ATransportClient transportClient = getTransportClient(remoteCluster);
+        if(transportClient == null) {
+            throw new IOException("unable to contact a remote cluster - " + remoteCluster.getName());
+        }
+        
+        DataChunkBatchReader reader = transportClient.getDataChunks(remoteCluster.getName(), transfers.keySet());
+        try {
+            while(reader.next()) {
+                if(!reader.isAvailable()) {
+                    continue;
+                }
+                
+                String hash = reader.getHash();
+                IInterceptableInputStreamHandler handler = new CachedInputStreamHandler(this.blockCacheManager, getVerifyHashAlgorithm(hashAlgorithm), hash);
+                InputStream dataChunkInputStream = new InterceptableInputStream(reader.getInputStream(), handler);
+                byte[] data;
+                try {
+                    data = IOUtils.toByteArray(dataChunkInputStream);
+                } finally {
+                    IOUtils.closeQuietly(dataChunkInputStream);
+                }
+                
+                BatchedTransfer transfer = transfers.get(hash);
+                if(transfer != null) {
+                    transfer.complete(data);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+    
+    private Semaphore getTransferLimit(RemoteCluster remoteCluster) {
+        Semaphore limit = this.transferLimits.get(remoteCluster.getName());
+        if(limit == null) {
+            Semaphore newLimit = new Semaphore(this.config.getMaxTransfersPerCluster());
+            limit = this.transferLimits.putIfAbsent(remoteCluster.getName(), newLimit);
+            if(limit == null) {
+                limit = newLimit;
+            }
+        }
+        return limit;
+    }
+    
+    private byte[] waitDataChunkTransfer(Future<byte[]> transfer) throws IOException {
+        try {
+            return transfer.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            throw new IOException(ex.getCause());
+        } catch (CancellationException ex) {
+            throw new IOException("transfer of a data chunk is cancelled", ex);
+        }
+    }
+    
+    /*
+     * hashAlgorithm is the algorithm of the recipe owning the chunk, null if not known
+     */
+    public InputStream getDataChunk(RemoteCluster remoteCluster, String hashAlgorithm, String hash) throws IOException {
+        if(remoteCluster == null || remoteCluster.isEmpty()) {
+            throw new IllegalArgumentException("remoteCluster is null or empty");
+        }
+        
+        if(hash == null) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        // join a transfer in progress
+        Future<byte[]> transfer = this.pendingTransfers.get(hash);
+        if(transfer != null) {
+            try {
+                return new ByteArrayInputStream(waitDataChunkTransfer(transfer));
+            } catch (IOException ex) {
+                LOG.error("transfer of a data chunk failed - " + hash, ex);
+            }
+        }
+        
+        return openDataChunk(remoteCluster, hashAlgorithm, hash);
+    }
+    
+    public Future<byte[]> getDataChunkAsync(final RemoteCluster remoteCluster, final String hashAlgorithm, final String hash) throws IOException {
+        if(remoteCluster == null || remoteCluster.isEmpty()) {
+            throw new IllegalArgumentException("remoteCluster is null or empty");
+        }
+        
+        if(hash == null) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        Future<byte[]> transfer = this.pendingTransfers.get(hash);
+        if(transfer != null) {
+            return transfer;
+        }
+        
+        ExecutorService threadPool = this.transferThreadPool;
+        if(threadPool == null) {
+            throw new IOException("TransportManager is not started");
+        }
+        
+        // block caller if too many transfers are in-flight for the cluster
+        final Semaphore limit = getTransferLimit(remoteCluster);
+        try {
+            limit.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        
+        FutureTask<byte[]> task = new FutureTask<byte[]>(new Callable<byte[]>() {
+            
+            @Override
+            public byte[] call() throws Exception {
+                try {
+                    return transferDataChunk(remoteCluster, hashAlgorithm, hash);
+                } finally {
+                    pendingTransfers.remove(hash);
+                }
+            }
+        });
+        
+        transfer = this.pendingTransfers.putIfAbsent(hash, task);
+        if(transfer != null) {
+            limit.release();
+            return transfer;
+        }
+        
+        try {
+            threadPool.execute(new TransferJob(limit, task, Collections.<Future<?>>singletonList(task)));
+        } catch (RejectedExecutionException ex) {
+            this.pendingTransfers.remove(hash, task);
+            limit.release();
+            throw new IOException(ex);
+        }
+        return task;
+    }
+    
+    /*
+     * fetches remote data chunks in batches, each data chunk still gets its own future
+     * data chunks missing in a batch response are fetched individually
+     */
+    public Map<String, Future<byte[]>> getDataChunksAsync(final RemoteCluster remoteCluster, String hashAlgorithm, Collection<String> hashes) throws IOException {
+        if(remoteCluster == null || remoteCluster.isEmpty()) {
+            throw new IllegalArgumentException("remoteCluster is null or empty");
+        }
+        
+        if(hashes == null) {
+            throw new IllegalArgumentException("hashes is null");
+        }
+        
+        Map<String, Future<byte[]>> transfers = new HashMap<String, Future<byte[]>>();
+        List<String> remoteHashes = new ArrayList<String>();
+        for(String hash : hashes) {
+            if(transfers.containsKey(hash) || remoteHashes.contains(hash)) {
+                continue;
+            }
+            
+            if(this.pendingTransfers.containsKey(hash) || isDataChunkAvailable(hash)) {
+                transfers.put(hash, getDataChunkAsync(remoteCluster, hashAlgorithm, hash));
+            } else {
+                remoteHashes.add(hash);
+            }
+        }
+        
+        int batchSize = this.config.getTransferBatchSize();
+        for(int i=0;i<remoteHashes.size();i+=batchSize) {
+            List<String> batch = remoteHashes.subList(i, Math.min(i + batchSize, remoteHashes.size()));
+            transfers.putAll(scheduleDataChunkBatch(remoteCluster, hashAlgorithm, batch));
+        }
+        return transfers;
+    }
+    
+    private Map<String, Future<byte[]>> scheduleDataChunkBatch(final RemoteCluster remoteCluster, final String hashAlgorithm, Collection<String> hashes) throws IOException {
+        ExecutorService threadPool = this.transferThreadPool;
+        if(threadPool == null) {
+            throw new IOException("TransportManager is not started");
+        }
+        
+        // a batch takes a single transfer slot of the cluster
+        final Semaphore limit = getTransferLimit(remoteCluster);
+        try {
+            limit.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        
+        Map<String, Future<byte[]>> transfers = new HashMap<String, Future<byte[]>>();
+        final Map<String, BatchedTransfer> batchTransfers = new HashMap<String, BatchedTransfer>();
+        for(final String hash : hashes) {
+            // fetches the data chunk individually if the batch response misses it
+            BatchedTransfer task = new BatchedTransfer(hash, new Callable<byte[]>() {
+                
+                @Override
+                public byte[] call() throws Exception {
+                    return transferDataChunk(remoteCluster, hashAlgorithm, hash);
+                }
+            });
+            
+            Future<byte[]> transfer = this.pendingTransfers.putIfAbsent(hash, task);
+            if(transfer != null) {
+                transfers.put(hash, transfer);
+            } else {
+                transfers.put(hash, task);
+                batchTransfers.put(hash, task);
+            }
+        }
+        
+        if(batchTransfers.isEmpty()) {
+            limit.release();
+            return transfers;
+        }
+        
+        try {
+            threadPool.execute(new TransferJob(limit, new Runnable() {
+                
+                @Override
+                public void run() {
+                    try {
+                        transferDataChunks(remoteCluster, hashAlgorithm, batchTransfers);
+                    } catch (IOException ex) {
+                        LOG.error("batch transfer of data chunks failed", ex);
+                    }
+                    
+                    // no-op for transfers already completed by the batch
+                    for(BatchedTransfer task : batchTransfers.values()) {
+                        task.run();
+                    }
+                }
+            }, new ArrayList<Future<?>>(batchTransfers.values())));
+        } catch (RejectedExecutionException ex) {
+            for(String hash : batchTransfers.keySet()) {
+                this.pendingTransfers.remove(hash);
+            }
+            limit.release();
+            throw new IOException(ex);
+        }
+        return transfers;
+    }
+    
+    public void scheduleTransferAndFillCache(RemoteCluster remoteCluster, String hashAlgorithm, Collection<String> hashes) throws IOException {
+        if(remoteCluster == null || remoteCluster.isEmpty()) {
+            throw new IllegalArgumentException("remoteCluster is null or empty");
+        }
+        
+        if(hashes == null) {
+            throw new IllegalArgumentException("hashes is null");
+        }
+        
+        List<String> missingHashes = new ArrayList<String>();
+        for(String hash : hashes) {
+            if(!isDataChunkAvailable(hash)) {
+                missingHashes.add(hash);
+            }
+        }
+        
+        if(!missingHashes.isEmpty()) {
+            getDataChunksAsync(remoteCluster, hashAlgorithm, missingHashes);
+        }
+    }
+    
+    public void scheduleTransferAndFillCache(RemoteCluster remoteCluster, String hashAlgorithm, String hash) throws IOException {
         if(remoteCluster == null || remoteCluster.isEmpty()) {
             throw new IllegalArgumentException("remoteCluster is null or empty");
         }
@@ -286,52 +676,374 @@ public class TransportManager {
             throw new IllegalArgumentException("hash is null or empty");
         }
         
+        if(isDataChunkAvailable(hash)) {
+            return;
+        }
+        
+        // step 3. go remote
+        getDataChunkAsync(remoteCluster, hashAlgorithm, hash);
+    }
+    
+    public int getPendingTransferCount() {
+        return this.pendingTransfers.size();
+    }
+    
+    private boolean isDataChunkAvailable(String hash) {
         // step 1. check out local recipe to check if a block exists locally
         try {
+            if(this.recipeManager.getChunkLocation(hash) != null) {
+                return true;
+            }
+            
+            // not indexed - search recipes
             Recipe recipe = this.recipeManager.getRecipe(hash);
             if(recipe != null) {
-                return;
+                return true;
             }
         } catch (IOException ex) {
         }
-
+        
         // step 2. check block-cache
+        return this.blockCacheManager.hasBlockCache(hash);
+    }
+    
+    private boolean enqueuePreload(PreloadRequest request, boolean persist) throws IOException {
+        synchronized(this.queuedPreloads) {
+            PreloadRequest queuedRequest = this.queuedPreloads.get(request.getHash());
+            if(queuedRequest != null) {
+                // raise priority of a request already queued
+                if(queuedRequest.getPriority() < request.getPriority()) {
+                    if(this.preloadQueue.remove(queuedRequest)) {
+                        queuedRequest.setPriority(request.getPriority());
+                        this.preloadQueue.add(queuedRequest);
+                    }
+                }
+                return false;
+            }
+            
+            this.queuedPreloads.put(request.getHash(), request);
+            this.preloadQueue.add(request);
+        }
+        
+        if(persist) {
+            // keep a request claimed by other node
+            this.preloadStore.putIfAbsent(request.getHash(), request);
+        }
+        return true;
+    }
+    
+    /*
+     * marks the persisted request as being processed by this node
+     * returns false if the request is already processed or being processed by other node
+     */
+    private boolean claimPreloadRequest(PreloadRequest request) throws IOException {
+        Node localNode = this.clusterManager.getLocalClusterManager().getLocalNode();
+        if(localNode == null) {
+            throw new IOException("local node is not available");
+        }
+        
+        String hash = request.getHash();
+        this.preloadStore.lock(hash);
         try {
-            BlockCacheEntry blockCache = this.blockCacheManager.getBlockCacheEntry(hash);
-            if(blockCache != null) {
-                return;
+            PreloadRequest storedRequest = (PreloadRequest) this.preloadStore.get(hash);
+            if(storedRequest == null) {
+                // already processed by other node
+                return false;
+            }
+            
+            long now = DateTimeUtils.getCurrentTime();
+            if(storedRequest.isClaimed() && !storedRequest.getClaimOwner().equals(localNode.getName())) {
+                if(!DateTimeUtils.timeElapsedSecond(storedRequest.getClaimTime(), now, PRELOAD_CLAIM_TIMEOUT_SEC)) {
+                    // being processed by other node
+                    return false;
+                }
+                
+                LOG.info("Taking over a stale preload request - " + storedRequest.toString() + " claimed by " + storedRequest.getClaimOwner());
             }
+            
+            storedRequest.claim(localNode.getName(), now);
+            this.preloadStore.put(hash, storedRequest);
+            return true;
+        } finally {
+            this.preloadStore.unlock(hash);
+        }
+    }
+    
+    private void removePreloadRequest(PreloadRequest request) {
+        try {
+            this.preloadStore.remove(request.getHash());
         } catch (IOException ex) {
+            LOG.error("Exception occurred while removing a preload request - " + request.toString(), ex);
         }
-
-        // step 3. go remote
-        ATransportClient transportClient = getTransportClient(remoteCluster);
-        if(transportClient != null) {
-            InputStream dataChunkInputStream = transportClient.getDataChunk(remoteCluster.getName(), hash);
-            IInterceptableInputStreamHandler handler = new CachedInputStreamHandler(this.blockCacheManager, this.recipeGeneratorManager, hash);
-
-            InterceptableInputStream iterceptableInputStream = new InterceptableInputStream(dataChunkInputStream, handler);
-
-            return iterceptableInputStream;
+    }
+    
+    private void processPreloadRequests(List<PreloadRequest> requests) {
+        // group requests by cluster to transfer them in batches
+        Map<String, List<PreloadRequest>> transfers = new HashMap<String, List<PreloadRequest>>();
+        for(PreloadRequest request : requests) {
+            try {
+                // claim the request, it is removed after the transfer
+                if(!claimPreloadRequest(request)) {
+                    completePreloadRequest(request, true, false);
+                    continue;
+                }
+                
+                if(isDataChunkAvailable(request.getHash())) {
+                    completePreloadRequest(request, true, true);
+                    continue;
+                }
+                
+                // a batch is verified with a single hash algorithm
+                String transferKey = request.getClusterName() + ":" + request.getHashAlgorithm();
+                List<PreloadRequest> clusterRequests = transfers.get(transferKey);
+                if(clusterRequests == null) {
+                    clusterRequests = new ArrayList<PreloadRequest>();
+                    transfers.put(transferKey, clusterRequests);
+                }
+                clusterRequests.add(request);
+            } catch (IOException ex) {
+                LOG.error("Exception occurred while preloading a data chunk - " + request.toString(), ex);
+                completePreloadRequest(request, false, false);
+            }
+        }
+        
+        for(Map.Entry<String, List<PreloadRequest>> entry : transfers.entrySet()) {
+            List<PreloadRequest> clusterRequests = entry.getValue();
+            String clusterName = clusterRequests.get(0).getClusterName();
+            String hashAlgorithm = clusterRequests.get(0).getHashAlgorithm();
+            Map<String, Future<byte[]>> futures;
+            try {
+                RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(clusterName);
+                if(remoteCluster == null) {
+                    throw new IOException("unable to find a remote cluster - " + clusterName);
+                }
+                
+                List<String> hashes = new ArrayList<String>();
+                for(PreloadRequest request : clusterRequests) {
+                    hashes.add(request.getHash());
+                }
+                futures = getDataChunksAsync(remoteCluster, hashAlgorithm, hashes);
+            } catch (IOException ex) {
+                LOG.error("Exception occurred while preloading data chunks of a cluster - " + clusterName, ex);
+                for(PreloadRequest request : clusterRequests) {
+                    completePreloadRequest(request, false, false);
+                }
+                continue;
+            }
+            
+            for(PreloadRequest request : clusterRequests) {
+                try {
+                    waitDataChunkTransfer(futures.get(request.getHash()));
+                    completePreloadRequest(request, true, true);
+                } catch (IOException ex) {
+                    LOG.error("Exception occurred while preloading a data chunk - " + request.toString(), ex);
+                    completePreloadRequest(request, false, false);
+                }
+            }
+        }
+    }
+    
+    private void completePreloadRequest(PreloadRequest request, boolean success, boolean processed) {
+        synchronized(this.queuedPreloads) {
+            this.queuedPreloads.remove(request.getHash());
+        }
+        
+        if(success) {
+            if(processed) {
+                removePreloadRequest(request);
+                this.preloadCompleted.incrementAndGet();
+            }
         } else {
-            throw new IOException("unable to contact a remote cluster - " + remoteCluster.getName());
+            request.increaseAttempts();
+            if(request.getAttempts() < PRELOAD_MAX_ATTEMPTS) {
+                try {
+                    // release the claim so that any node can retry
+                    request.releaseClaim();
+                    this.preloadStore.put(request.getHash(), request);
+                    enqueuePreload(request, false);
+                } catch (IOException ex) {
+                    LOG.error("Exception occurred while requeuing a preload request - " + request.toString(), ex);
+                    this.preloadFailed.incrementAndGet();
+                }
+            } else {
+                LOG.error("Give up preloading a data chunk - " + request.toString());
+                removePreloadRequest(request);
+                this.preloadFailed.incrementAndGet();
+            }
         }
     }
     
-    public synchronized void wakeupPreloadTask() {
-        if(this.preloadTaskThread == null) {
-            this.preloadTaskThread = new Thread(new Runnable() {
+    private synchronized void ensurePreloadWorkers() {
+        if(this.preloadThreadPool == null) {
+            int workers = this.config.getPreloadThreadPoolSize();
+            this.preloadThreadPool = Executors.newFixedThreadPool(workers);
+            for(int i=0;i<workers;i++) {
+                this.preloadThreadPool.execute(new Runnable() {
 
-                @Override
-                public void run() {
-                    // check preload queue and cache
+                    @Override
+                    public void run() {
+                        while(!Thread.currentThread().isInterrupted()) {
+                            List<PreloadRequest> requests = new ArrayList<PreloadRequest>();
+                            try {
+                                requests.add(preloadQueue.take());
+                            } catch (InterruptedException ex) {
+                                break;
+                            }
+                            
+                            // pick up more requests queued so far to transfer them together
+                            preloadQueue.drainTo(requests, config.getTransferBatchSize() - 1);
+                            processPreloadRequests(requests);
+                        }
+                    }
+                });
+            }
+        }
+    }
+    
+    public void schedulePreload(RemoteCluster remoteCluster, String hashAlgorithm, String hash, int priority) throws IOException {
+        if(remoteCluster == null || remoteCluster.isEmpty()) {
+            throw new IllegalArgumentException("remoteCluster is null or empty");
+        }
+        
+        if(hash == null || hash.isEmpty()) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        if(isDataChunkAvailable(hash)) {
+            return;
+        }
+        
+        PreloadRequest request = new PreloadRequest(remoteCluster.getName(), hashAlgorithm, hash, priority, DateTimeUtils.getCurrentTime());
+        enqueuePreload(request, true);
+        
+        ensurePreloadWorkers();
+    }
+    
+    public void schedulePreload(RemoteCluster remoteCluster, String hashAlgorithm, Collection<String> hashes, int priority) throws IOException {
+        if(remoteCluster == null || remoteCluster.isEmpty()) {
+            throw new IllegalArgumentException("remoteCluster is null or empty");
+        }
+        
+        if(hashes == null) {
+            throw new IllegalArgumentException("hashes is null");
+        }
+        
+        long now = DateTimeUtils.getCurrentTime();
+        for(String hash : hashes) {
+            if(isDataChunkAvailable(hash)) {
+                continue;
+            }
+            
+            PreloadRequest request = new PreloadRequest(remoteCluster.getName(), hashAlgorithm, hash, priority, now);
+            enqueuePreload(request, true);
+        }
+        
+        ensurePreloadWorkers();
+    }
+    
+    public synchronized void wakeupPreloadTask() {
+        ensurePreloadWorkers();
+        
+        // pick up requests persisted by previous runs or other nodes
+        try {
+            Set<String> keys = this.preloadStore.keySet();
+            for(String key : keys) {
+                synchronized(this.queuedPreloads) {
+                    if(this.queuedPreloads.containsKey(key)) {
+                        continue;
+                    }
                 }
-            });
+                
+                PreloadRequest request = (PreloadRequest) this.preloadStore.get(key);
+                if(request != null && !request.isEmpty()) {
+                    enqueuePreload(request, false);
+                }
+            }
+        } catch (IOException ex) {
+            LOG.error("Exception occurred while loading preload requests", ex);
         }
     }
     
+    public int getPreloadQueueSize() {
+        synchronized(this.queuedPreloads) {
+            return this.queuedPreloads.size();
+        }
+    }
+    
+    public long getPreloadCompletedCount() {
+        return this.preloadCompleted.get();
+    }
+    
+    public long getPreloadFailedCount() {
+        return this.preloadFailed.get();
+    }
+    
     @Override
     public synchronized String toString() {
         return "TransportManager";
     }
+    
+    /*
+     * transfer of a data chunk requested in a batch
+     * completed when the chunk arrives in the batch response, or fetched on its own when run
+     */
+    private class BatchedTransfer extends FutureTask<byte[]> {
+        
+        private String hash;
+        
+        BatchedTransfer(String hash, Callable<byte[]> fallback) {
+            super(fallback);
+            
+            this.hash = hash;
+        }
+        
+        public void complete(byte[] data) {
+            set(data);
+        }
+        
+        @Override
+        protected void done() {
+            pendingTransfers.remove(this.hash, this);
+        }
+    }
+    
+    /*
+     * work queued to the transfer thread pool
+     * holds a transfer slot of a cluster until it finishes or is cancelled
+     */
+    private static class TransferJob implements Runnable {
+        
+        private Semaphore limit;
+        private Runnable work;
+        private List<Future<?>> futures;
+        private AtomicBoolean released = new AtomicBoolean(false);
+        
+        TransferJob(Semaphore limit, Runnable work, List<Future<?>> futures) {
+            this.limit = limit;
+            this.work = work;
+            this.futures = futures;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                this.work.run();
+            } finally {
+                release();
+            }
+        }
+        
+        public void cancel() {
+            for(Future<?> future : this.futures) {
+                future.cancel(true);
+            }
+            release();
+        }
+        
+        private void release() {
+            if(this.released.compareAndSet(false, true)) {
+                this.limit.release();
+            }
+        }
+    }
 }
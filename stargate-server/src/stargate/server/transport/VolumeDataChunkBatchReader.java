@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.recipe.DataChunkBatchReader;
+import stargate.server.volume.VolumeManager;
+
+/**
+ *
+ * @author iychoi
+ */
+public class VolumeDataChunkBatchReader extends DataChunkBatchReader {
+    
+    private static final Log LOG = LogFactory.getLog(VolumeDataChunkBatchReader.class);
+    
+    private VolumeManager volumeManager;
+    private String clusterName;
+    private String hashAlgorithm;
+    private Iterator<String> iterator;
+    private String hash;
+    private InputStream is;
+    
+    /*
+     * in-process counterpart of DataChunkBatchStreamingOutput
+     * data chunks are opened one at a time as the batch is iterated instead of being serialized
+     */
+    public VolumeDataChunkBatchReader(VolumeManager volumeManager, String clusterName, String hashAlgorithm, Collection<String> hashes) {
+        if(volumeManager == null) {
+            throw new IllegalArgumentException("volumeManager is null");
+        }
+        
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hashes == null) {
+            throw new IllegalArgumentException("hashes is null");
+        }
+        
+        if(hashes.size() > DataChunkBatchStreamingOutput.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("too many hashes in a batch : " + hashes.size());
+        }
+        
+        this.volumeManager = volumeManager;
+        this.clusterName = clusterName;
+        this.hashAlgorithm = hashAlgorithm;
+        this.iterator = hashes.iterator();
+        
+        try {
+            this.volumeManager.scheduleDataChunkTransfers(clusterName, hashAlgorithm, hashes);
+        } catch (IOException ex) {
+            LOG.error("unable to schedule transfers of data chunks in a batch", ex);
+        }
+    }
+    
+    @Override
+    public boolean next() throws IOException {
+        IOUtils.closeQuietly(this.is);
+        this.is = null;
+        
+        if(!this.iterator.hasNext()) {
+            this.hash = null;
+            return false;
+        }
+        
+        this.hash = this.iterator.next();
+        try {
+            this.is = this.volumeManager.getDataChunk(this.clusterName, this.hashAlgorithm, this.hash);
+        } catch (IOException ex) {
+            LOG.error("unable to open a data chunk in a batch - " + this.hash, ex);
+        }
+        return true;
+    }
+    
+    @Override
+    public String getHash() {
+        return this.hash;
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return this.is != null;
+    }
+    
+    @Override
+    public InputStream getInputStream() throws IOException {
+        if(this.is == null) {
+            throw new IOException("data chunk is not available");
+        }
+        return this.is;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        IOUtils.closeQuietly(this.is);
+        this.is = null;
+    }
+}
@@ -23,15 +23,15 @@
  */
 package stargate.server.volume;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import stargate.commons.utils.DateTimeUtils;
-import stargate.server.blockcache.BlockCacheEntry;
+import stargate.commons.recipe.HashAlgorithm;
+import stargate.commons.utils.HexaUtils;
 import stargate.server.blockcache.BlockCacheManager;
-import stargate.server.blockcache.BlockCacheMetadata;
-import stargate.server.recipe.RecipeGeneratorManager;
+import stargate.server.blockcache.BlockCacheWriter;
 
 /**
  *
@@ -42,17 +42,23 @@ public class CachedInputStreamHandler implements IInterceptableInputStreamHandle
     private static final Log LOG = LogFactory.getLog(CachedInputStreamHandler.class);
     
     private BlockCacheManager blockCacheManager;
-    private RecipeGeneratorManager recipeGeneratorManager;
+    private String hashAlgorithm;
     private String hash;
-    private ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    private MessageDigest messageDigest;
+    private BlockCacheWriter writer;
+    private boolean failed = false;
+    private boolean finished = false;
     
-    public CachedInputStreamHandler(BlockCacheManager blockCacheManager, RecipeGeneratorManager recipeGeneratorManager, String hash) {
+    /*
+     * hashAlgorithm is the algorithm of the recipe owning the chunk
+     */
+    public CachedInputStreamHandler(BlockCacheManager blockCacheManager, String hashAlgorithm, String hash) {
         if(blockCacheManager == null) {
             throw new IllegalArgumentException("blockCacheManager is null");
         }
         
-        if(recipeGeneratorManager == null) {
-            throw new IllegalArgumentException("recipeGeneratorManager is null");
+        if(hashAlgorithm == null || hashAlgorithm.isEmpty()) {
+            throw new IllegalArgumentException("hashAlgorithm is empty or null");
         }
         
         if(hash == null || hash.isEmpty()) {
@@ -60,52 +66,119 @@ public class CachedInputStreamHandler implements IInterceptableInputStreamHandle
         }
         
         this.blockCacheManager = blockCacheManager;
-        this.recipeGeneratorManager = recipeGeneratorManager;
+        this.hashAlgorithm = hashAlgorithm;
         this.hash = hash;
     }
+    
+    private boolean ensureWriter() {
+        if(this.failed) {
+            return false;
+        }
+        
+        if(this.writer == null) {
+            try {
+                this.messageDigest = HashAlgorithm.createMessageDigest(this.hashAlgorithm);
+                this.writer = this.blockCacheManager.createBlockCacheWriter(this.hash);
+            } catch (NoSuchAlgorithmException ex) {
+                LOG.error("Could not get a message digest", ex);
+                this.failed = true;
+                return false;
+            } catch (IOException ex) {
+                LOG.error("Could not create a block cache writer", ex);
+                this.failed = true;
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void write(byte[] buffer, int offset, int len) {
+        if(!ensureWriter()) {
+            return;
+        }
+        
+        this.messageDigest.update(buffer, offset, len);
+        try {
+            this.writer.write(buffer, offset, len);
+        } catch (IOException ex) {
+            LOG.error("Could not write to a block cache", ex);
+            this.writer.discard();
+            this.failed = true;
+        }
+    }
 
     @Override
     public void onRead(int b) {
         if(b == -1) {
             done();
         } else {
-            this.baos.write(b);
+            if(!ensureWriter()) {
+                return;
+            }
+            
+            this.messageDigest.update((byte) b);
+            try {
+                this.writer.write(b);
+            } catch (IOException ex) {
+                LOG.error("Could not write to a block cache", ex);
+                this.writer.discard();
+                this.failed = true;
+            }
         }
     }
 
     @Override
     public void onRead(int readLen, byte[] buffer) {
-        if(readLen != 0) {
-            this.baos.write(buffer, 0, readLen);
-        } else {
+        if(readLen > 0) {
+            write(buffer, 0, readLen);
+        } else if(readLen < 0) {
             done();
         }
     }
 
     @Override
     public void onRead(int readLen, byte[] buffer, int offset, int len) {
-        if(readLen != 0) {
-            this.baos.write(buffer, offset, readLen);
-        } else {
+        if(readLen > 0) {
+            write(buffer, offset, readLen);
+        } else if(readLen < 0) {
             done();
         }
     }
 
+    @Override
+    public void onError(IOException ex) {
+        if(this.finished) {
+            return;
+        }
+        this.finished = true;
+        
+        if(this.writer != null) {
+            LOG.error("reading a data chunk failed - discard", ex);
+            this.writer.discard();
+        }
+    }
+
     protected void done() {
-        byte[] blockData = this.baos.toByteArray();
+        if(this.finished) {
+            return;
+        }
+        this.finished = true;
         
-        try {
-            String hash = this.recipeGeneratorManager.getHash(blockData);
-            if(hash.equalsIgnoreCase(this.hash)) {
-                // good
-                BlockCacheMetadata metadata = new BlockCacheMetadata(hash, blockData.length, DateTimeUtils.getCurrentTime());
-                BlockCacheEntry entry = new BlockCacheEntry(metadata, blockData);
-                this.blockCacheManager.addBlockCache(entry);
-            } else {
-                LOG.error("hash of received data does not match to expected - discard");
+        if(this.failed || this.writer == null) {
+            return;
+        }
+        
+        String hash = HexaUtils.toHexString(this.messageDigest.digest());
+        if(hash.equalsIgnoreCase(this.hash)) {
+            // good
+            try {
+                this.writer.commit();
+            } catch (IOException ex) {
+                LOG.error("Could not commit a block cache", ex);
             }
-        } catch (IOException ex) {
-            LOG.error("Could not get a hashcode from bytes", ex);
+        } else {
+            LOG.error("hash of received data does not match to expected - discard");
+            this.writer.discard();
         }
     }
 }
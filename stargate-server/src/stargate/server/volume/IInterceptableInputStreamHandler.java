@@ -23,6 +23,8 @@
  */
 package stargate.server.volume;
 
+import java.io.IOException;
+
 /**
  *
  * @author iychoi
@@ -31,4 +33,5 @@ public interface IInterceptableInputStreamHandler {
     public void onRead(int b);
     public void onRead(int readLen, byte[] buffer);
     public void onRead(int readLen, byte[] buffer, int offset, int len);
+    public void onError(IOException ex);
 }
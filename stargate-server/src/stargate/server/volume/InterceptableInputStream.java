@@ -25,6 +25,7 @@ package stargate.server.volume;
 
 import java.io.IOException;
 import java.io.InputStream;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -37,6 +38,7 @@ public class InterceptableInputStream extends InputStream {
     
     private InputStream inputStream;
     private IInterceptableInputStreamHandler handler;
+    private boolean closed = false;
     
     public InterceptableInputStream(InputStream inputStream, IInterceptableInputStreamHandler handler) {
         if(inputStream == null) {
@@ -63,23 +65,54 @@ public class InterceptableInputStream extends InputStream {
         this.handler = handler;
     }
 
+    /*
+     * a failed read aborts the handler and releases the source stream
+     */
+    private void abort(IOException ex) {
+        if(this.closed) {
+            return;
+        }
+        this.closed = true;
+        
+        this.handler.onError(ex);
+        IOUtils.closeQuietly(this.inputStream);
+    }
+    
     @Override
     public int read() throws IOException {
-        int read = this.inputStream.read();
+        int read;
+        try {
+            read = this.inputStream.read();
+        } catch (IOException ex) {
+            abort(ex);
+            throw ex;
+        }
         this.handler.onRead(read);
         return read;
     }
 
     @Override
     public int read(byte[] buffer) throws IOException {
-        int read = this.inputStream.read(buffer);
+        int read;
+        try {
+            read = this.inputStream.read(buffer);
+        } catch (IOException ex) {
+            abort(ex);
+            throw ex;
+        }
         this.handler.onRead(read, buffer);
         return read;
     }
 
     @Override
     public int read(byte[] buffer, int offset, int len) throws IOException {
-        int read = this.inputStream.read(buffer, offset, len);
+        int read;
+        try {
+            read = this.inputStream.read(buffer, offset, len);
+        } catch (IOException ex) {
+            abort(ex);
+            throw ex;
+        }
         this.handler.onRead(read, buffer, offset, len);
         return read;
     }
@@ -90,9 +123,8 @@ public class InterceptableInputStream extends InputStream {
         long left = n;
         while(left > 0) {
             int toRead = (int) Math.min(left, 1024*4);
-            int read = this.inputStream.read(buffer, 0, toRead);
-            this.handler.onRead(read, buffer, 0, toRead);
-            if(read == 0) {
+            int read = read(buffer, 0, toRead);
+            if(read < 0) {
                 break;
             }
             left -= read;
@@ -107,18 +139,28 @@ public class InterceptableInputStream extends InputStream {
 
     @Override
     public synchronized void close() throws IOException {
-        // consume all
-        byte[] buffer = new byte[1024 * 4];
-        while(true) {
-            int toRead = 1024 * 4;
-            int read = this.inputStream.read(buffer, 0, toRead);
-            this.handler.onRead(read, buffer, 0, toRead);
-            if(read == 0) {
-                break;
-            }
+        if(this.closed) {
+            return;
         }
         
-        this.inputStream.close();
+        try {
+            // consume all
+            byte[] buffer = new byte[1024 * 4];
+            while(true) {
+                int toRead = 1024 * 4;
+                int read = this.inputStream.read(buffer, 0, toRead);
+                this.handler.onRead(read, buffer, 0, toRead);
+                if(read < 0) {
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            abort(ex);
+            throw ex;
+        } finally {
+            this.closed = true;
+            this.inputStream.close();
+        }
     }
 
     @Override
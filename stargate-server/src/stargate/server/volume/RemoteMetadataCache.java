@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.volume;
+
+import java.io.IOException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import stargate.commons.common.JsonSerializer;
+import stargate.commons.datastore.ADistributedDataStore;
+import stargate.commons.recipe.DataObjectPath;
+import stargate.commons.recipe.Recipe;
+import stargate.commons.utils.DateTimeUtils;
+
+/**
+ *
+ * @author iychoi
+ */
+public class RemoteMetadataCache {
+    
+    private static final Log LOG = LogFactory.getLog(RemoteMetadataCache.class);
+    
+    private ADistributedDataStore store;
+    private Class valueClass;
+    // recipes are kept in the compact binary form
+    private boolean useBinary;
+    private JsonSerializer serializer;
+    
+    public RemoteMetadataCache(ADistributedDataStore store, Class valueClass) {
+        if(store == null) {
+            throw new IllegalArgumentException("store is null");
+        }
+        
+        if(valueClass == null) {
+            throw new IllegalArgumentException("valueClass is null");
+        }
+        
+        this.store = store;
+        this.valueClass = valueClass;
+        this.useBinary = (valueClass == Recipe.class);
+        this.serializer = new JsonSerializer();
+    }
+    
+    /*
+     * returns null if the entry is missing or older than validPeriodSec
+     */
+    public RemoteMetadataEntry getEntry(DataObjectPath path, long validPeriodSec) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        RemoteMetadataEntry entry = (RemoteMetadataEntry) this.store.get(path.toString());
+        if(entry == null) {
+            return null;
+        }
+        
+        if(DateTimeUtils.timeElapsedSecond(entry.getCachedTime(), DateTimeUtils.getCurrentTime(), validPeriodSec)) {
+            this.store.remove(path.toString());
+            return null;
+        }
+        return entry;
+    }
+    
+    public Object getValue(RemoteMetadataEntry entry) throws IOException {
+        if(entry == null) {
+            throw new IllegalArgumentException("entry is null");
+        }
+        
+        if(entry.isNotFound()) {
+            return null;
+        }
+        
+        if(this.useBinary) {
+            if(entry.getBinaryValue() == null) {
+                return null;
+            }
+            return Recipe.createInstance(entry.getBinaryValue());
+        }
+        
+        if(entry.getValue() == null) {
+            return null;
+        }
+        return this.serializer.fromJson(entry.getValue(), this.valueClass);
+    }
+    
+    /*
+     * the entry is dropped by the store after ttlSec seconds
+     */
+    public void put(DataObjectPath path, Object value, long ttlSec) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        long now = DateTimeUtils.getCurrentTime();
+        RemoteMetadataEntry entry;
+        if(value == null) {
+            entry = new RemoteMetadataEntry(now, (String) null);
+        } else if(this.useBinary) {
+            entry = new RemoteMetadataEntry(now, ((Recipe) value).toBytes());
+        } else {
+            entry = new RemoteMetadataEntry(now, this.serializer.toJson(value));
+        }
+        
+        this.store.put(path.toString(), entry, ttlSec);
+    }
+    
+    public void putNotFound(DataObjectPath path, long ttlSec) throws IOException {
+        put(path, null, ttlSec);
+    }
+    
+    public void remove(DataObjectPath path) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        this.store.remove(path.toString());
+    }
+    
+    public void clear() {
+        this.store.clear();
+    }
+    
+    @Override
+    public String toString() {
+        return "RemoteMetadataCache(" + this.valueClass.getSimpleName() + ")";
+    }
+}
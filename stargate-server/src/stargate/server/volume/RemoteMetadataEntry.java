@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 iychoi.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package stargate.server.volume;
+
+import java.io.IOException;
+import org.codehaus.jackson.annotate.JsonIgnore;
+import org.codehaus.jackson.annotate.JsonProperty;
+import stargate.commons.common.JsonSerializer;
+
+/**
+ *
+ * @author iychoi
+ */
+public class RemoteMetadataEntry {
+    
+    private long cachedTime;
+    private boolean notFound;
+    private String value;
+    private byte[] binaryValue;
+    
+    public static RemoteMetadataEntry createInstance(String json) throws IOException {
+        if(json == null || json.isEmpty()) {
+            throw new IllegalArgumentException("json is empty or null");
+        }
+        
+        JsonSerializer serializer = new JsonSerializer();
+        return (RemoteMetadataEntry) serializer.fromJson(json, RemoteMetadataEntry.class);
+    }
+    
+    public RemoteMetadataEntry() {
+        this.cachedTime = 0;
+        this.notFound = false;
+        this.value = null;
+        this.binaryValue = null;
+    }
+    
+    public RemoteMetadataEntry(long cachedTime, String value) {
+        if(cachedTime < 0) {
+            throw new IllegalArgumentException("cachedTime is invalid");
+        }
+        
+        this.cachedTime = cachedTime;
+        this.notFound = (value == null);
+        this.value = value;
+        this.binaryValue = null;
+    }
+    
+    public RemoteMetadataEntry(long cachedTime, byte[] binaryValue) {
+        if(cachedTime < 0) {
+            throw new IllegalArgumentException("cachedTime is invalid");
+        }
+        
+        this.cachedTime = cachedTime;
+        this.notFound = (binaryValue == null);
+        this.value = null;
+        this.binaryValue = binaryValue;
+    }
+    
+    @JsonProperty("cached_time")
+    public long getCachedTime() {
+        return this.cachedTime;
+    }
+    
+    @JsonProperty("cached_time")
+    public void setCachedTime(long cachedTime) {
+        if(cachedTime < 0) {
+            throw new IllegalArgumentException("cachedTime is invalid");
+        }
+        
+        this.cachedTime = cachedTime;
+    }
+    
+    @JsonProperty("not_found")
+    public boolean isNotFound() {
+        return this.notFound;
+    }
+    
+    @JsonProperty("not_found")
+    public void setNotFound(boolean notFound) {
+        this.notFound = notFound;
+    }
+    
+    @JsonProperty("value")
+    public String getValue() {
+        return this.value;
+    }
+    
+    @JsonProperty("value")
+    public void setValue(String value) {
+        this.value = value;
+    }
+    
+    @JsonProperty("binary_value")
+    public byte[] getBinaryValue() {
+        return this.binaryValue;
+    }
+    
+    @JsonProperty("binary_value")
+    public void setBinaryValue(byte[] binaryValue) {
+        this.binaryValue = binaryValue;
+    }
+    
+    @Override
+    public String toString() {
+        if(this.notFound) {
+            return "not found (" + this.cachedTime + ")";
+        }
+        if(this.binaryValue != null) {
+            return this.binaryValue.length + " bytes (" + this.cachedTime + ")";
+        }
+        return this.value + " (" + this.cachedTime + ")";
+    }
+    
+    @JsonIgnore
+    public synchronized String toJson() throws IOException {
+        JsonSerializer serializer = new JsonSerializer();
+        return serializer.toJson(this);
+    }
+}
@@ -24,32 +24,43 @@
 
 package stargate.server.volume;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import stargate.commons.cluster.RemoteCluster;
 import stargate.commons.dataexport.DataExportEntry;
 import stargate.commons.datastore.ADistributedDataStore;
+import stargate.commons.datastore.AReplicatedDataStore;
 import stargate.commons.recipe.DataObjectMetadata;
 import stargate.commons.recipe.DataObjectPath;
 import stargate.commons.recipe.Recipe;
 import stargate.commons.recipe.RecipeChunk;
 import stargate.commons.service.ServiceNotStartedException;
 import stargate.commons.utils.DateTimeUtils;
+import stargate.commons.utils.RangedInputStream;
 import stargate.commons.volume.Directory;
 import stargate.server.cluster.ClusterManager;
 import stargate.server.dataexport.DataExportManager;
+import stargate.server.recipe.ChunkLocation;
 import stargate.server.datastore.DataStoreManager;
 import stargate.server.policy.PolicyManager;
 import stargate.server.recipe.RecipeManager;
 import stargate.server.sourcefs.SourceFileSystemManager;
+import stargate.server.transport.PreloadRequest;
 import stargate.server.transport.TransportManager;
 
 /**
@@ -61,8 +72,16 @@ public class VolumeManager {
     private static final Log LOG = LogFactory.getLog(VolumeManager.class);
     
     public static final String VOLUMEMANAGER_DIRECTORY_HIERARCHY_MAP_ID = "VolumeManager_Directory_Hierarchy";
+    public static final String VOLUMEMANAGER_REMOTE_DIRECTORY_MAP_ID = "VolumeManager_Remote_Directory";
+    public static final String VOLUMEMANAGER_REMOTE_METADATA_MAP_ID = "VolumeManager_Remote_Metadata";
+    public static final String VOLUMEMANAGER_REMOTE_LISTING_MAP_ID = "VolumeManager_Remote_Listing";
+    public static final String VOLUMEMANAGER_REMOTE_RECIPE_MAP_ID = "VolumeManager_Remote_Recipe";
+    public static final String VOLUMEMANAGER_UPDATE_TIME_MAP_ID = "VolumeManager_Update_Time";
+    
+    private static final String UPDATE_TIME_KEY = "lastUpdateTime";
     
     private static final long DIRECTORY_METADATA_SIZE = 4*1024;
+    private static final int PATH_LOCK_STRIPES = 64;
     
     private static VolumeManager instance;
     
@@ -76,8 +95,17 @@ public class VolumeManager {
     
     private ADistributedDataStore directoryHierarchy;
     
+    private RemoteMetadataCache remoteDirectoryCache;
+    private RemoteMetadataCache remoteMetadataCache;
+    private RemoteMetadataCache remoteListingCache;
+    private RemoteMetadataCache remoteRecipeCache;
+    
+    // time of the last directory change made by any node in the local cluster
+    private AReplicatedDataStore updateTime;
+    
     private DataExportChangedEventHandler dataExportChangedHandler;
-    protected long lastUpdateTime;
+    
+    private ReentrantLock[] pathLocks;
     
     public static VolumeManager getInstance(PolicyManager policyManager, DataStoreManager dataStoreManager, SourceFileSystemManager sourceFileSystemManager, ClusterManager clusterManager, DataExportManager dataExportManager, RecipeManager recipeManager, TransportManager transportManager) throws IOException {
         synchronized (VolumeManager.class) {
@@ -135,6 +163,18 @@ public class VolumeManager {
         this.transportManager = transportManager;
 
         this.directoryHierarchy = this.dataStoreManager.getPersistentDistributedDataStore(VOLUMEMANAGER_DIRECTORY_HIERARCHY_MAP_ID, Directory.class);
+        this.updateTime = this.dataStoreManager.getReplicatedDataStore(VOLUMEMANAGER_UPDATE_TIME_MAP_ID, String.class);
+        
+        // remote metadata are shared by all nodes in the local cluster
+        this.remoteDirectoryCache = new RemoteMetadataCache(this.dataStoreManager.getDistributedDataStore(VOLUMEMANAGER_REMOTE_DIRECTORY_MAP_ID, RemoteMetadataEntry.class), Directory.class);
+        this.remoteMetadataCache = new RemoteMetadataCache(this.dataStoreManager.getDistributedDataStore(VOLUMEMANAGER_REMOTE_METADATA_MAP_ID, RemoteMetadataEntry.class), DataObjectMetadata.class);
+        this.remoteListingCache = new RemoteMetadataCache(this.dataStoreManager.getDistributedDataStore(VOLUMEMANAGER_REMOTE_LISTING_MAP_ID, RemoteMetadataEntry.class), DataObjectMetadata[].class);
+        this.remoteRecipeCache = new RemoteMetadataCache(this.dataStoreManager.getDistributedDataStore(VOLUMEMANAGER_REMOTE_RECIPE_MAP_ID, RemoteMetadataEntry.class), Recipe.class);
+        
+        this.pathLocks = new ReentrantLock[PATH_LOCK_STRIPES];
+        for(int i=0;i<PATH_LOCK_STRIPES;i++) {
+            this.pathLocks[i] = new ReentrantLock();
+        }
         
         // make local cluster root
         Directory localClusterRootDir = makeLocalClusterRootDirectory();
@@ -180,7 +220,7 @@ public class VolumeManager {
         return path;
     }
     
-    private synchronized Directory getRootDirectory() throws IOException {
+    private Directory getRootDirectory() throws IOException {
         Directory directory = new Directory(new DataObjectPath("", "/"));
         // local cluster
         directory.addEntry(this.clusterManager.getLocalClusterManager().getName());
@@ -196,7 +236,7 @@ public class VolumeManager {
         return directory;
     }
     
-    public synchronized Directory getDirectory(DataObjectPath path) throws IOException {
+    public Directory getDirectory(DataObjectPath path) throws IOException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
@@ -218,9 +258,19 @@ public class VolumeManager {
             return directory;
         } else {
             // remote
-            RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(absPath.getClusterName());
+            final RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(absPath.getClusterName());
             if(remoteCluster != null) {
-                return this.transportManager.getDirectory(remoteCluster, absPath);
+                final DataObjectPath remotePath = absPath;
+                Directory directory = (Directory) getRemoteMetadata(this.remoteDirectoryCache, absPath, new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        return transportManager.getDirectory(remoteCluster, remotePath);
+                    }
+                });
+                if(directory == null) {
+                    throw new FileNotFoundException("directory not found - " + absPath.toString());
+                }
+                return directory;
             } else {
                 throw new IOException("unable to find a directory for " + absPath.toString());
             }
@@ -239,7 +289,7 @@ public class VolumeManager {
         }
     }
     
-    private synchronized boolean isLocalDataObject(DataObjectPath path) throws IOException {
+    private boolean isLocalDataObject(DataObjectPath path) throws IOException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
@@ -252,41 +302,67 @@ public class VolumeManager {
         return false;
     }
     
-    private synchronized void addLocalDirectory(Directory directory) throws IOException {
-        if(directory == null) {
-            throw new IllegalArgumentException("directory is null");
+    private ReentrantLock getPathLock(DataObjectPath path) {
+        int hash = path.toString().hashCode();
+        hash ^= (hash >>> 16);
+        return this.pathLocks[(hash & 0x7fffffff) % PATH_LOCK_STRIPES];
+    }
+    
+    private void ensureLocalDirectory(DataObjectPath path) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path is null");
         }
         
-        LOG.info("Adding a local directory - " + directory.getPath().toString());
-        
-        if(directory.getPath().isRoot()) {
+        if(path.isRoot()) {
             throw new IllegalArgumentException("root directory is not allowed");
-        } else if(isLocalDataObject(directory.getPath())) {
-            // local
-            // put directory
-            this.directoryHierarchy.put(directory.getPath().toString(), directory);
-            
-            // update parent if necessary
-            DataObjectPath parentPath = directory.getPath().getParent();
-            if(parentPath != null) {
-                Directory parentDir = (Directory)this.directoryHierarchy.get(parentPath.toString());
-                if(parentDir == null) {
-                    parentDir = new Directory(parentPath);
-
-                    // recurse
-                    addLocalDirectory(parentDir);
-                }
-                
-                LOG.info("Adding a directory - " + directory.getPath().toString() + " to " + parentDir.getPath().toString());
-                parentDir.addEntry(directory.getPath());
-                this.directoryHierarchy.put(parentPath.toString(), parentDir);
-            }
-        } else {
+        } else if(!isLocalDataObject(path)) {
             throw new IllegalArgumentException("directory of a remote cluster is not allowed");
         }
+        
+        if(this.directoryHierarchy.containsKey(path.toString())) {
+            return;
+        }
+        
+        LOG.info("Adding a local directory - " + path.toString());
+        
+        // put directory
+        this.directoryHierarchy.putIfAbsent(path.toString(), new Directory(path));
+        
+        // update parent if necessary
+        DataObjectPath parentPath = path.getParent();
+        if(parentPath != null) {
+            addEntryToLocalDirectory(parentPath, path);
+        }
+    }
+    
+    private void addEntryToLocalDirectory(DataObjectPath parentPath, DataObjectPath path) throws IOException {
+        boolean created = false;
+        
+        ensureLocalDirectory(parentPath);
+        
+        ReentrantLock lock = getPathLock(parentPath);
+        lock.lock();
+        try {
+            Directory parentDir = (Directory)this.directoryHierarchy.get(parentPath.toString());
+            if(parentDir == null) {
+                // removed concurrently
+                parentDir = new Directory(parentPath);
+                created = true;
+            }
+            
+            LOG.info("Adding an entry - " + path.toString() + " to " + parentPath.toString());
+            parentDir.addEntry(path);
+            this.directoryHierarchy.put(parentPath.toString(), parentDir);
+        } finally {
+            lock.unlock();
+        }
+        
+        if(created && parentPath.getParent() != null) {
+            addEntryToLocalDirectory(parentPath.getParent(), parentPath);
+        }
     }
     
-    public synchronized void addLocalDirectoryEntry(DataObjectPath path) throws IOException {
+    public void addLocalDirectoryEntry(DataObjectPath path) throws IOException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
@@ -302,16 +378,8 @@ public class VolumeManager {
             // put entry to parent directory
             DataObjectPath parentPath = absPath.getParent();
             if(parentPath != null) {
-                Directory parentDir = (Directory)this.directoryHierarchy.get(parentPath.toString());
-                if(parentDir == null) {
-                    parentDir = new Directory(parentPath);
-
-                    addLocalDirectory(parentDir);
-                }
-                parentDir.addEntry(absPath);
-                
-                this.directoryHierarchy.put(parentPath.toString(), parentDir);
-                this.lastUpdateTime = DateTimeUtils.getCurrentTime();
+                addEntryToLocalDirectory(parentPath, absPath);
+                setLastUpdateTime(DateTimeUtils.getCurrentTime());
             } else {
                 throw new IOException("path " + absPath.toString() + " has no parent");
             }
@@ -320,13 +388,17 @@ public class VolumeManager {
         }
     }
     
-    public synchronized void removeLocalDirectoryEntry(DataObjectPath path) throws IOException {
+    public void removeLocalDirectoryEntry(DataObjectPath path) throws IOException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
         
         DataObjectPath absPath = makeAbsolutePath(path);
         
+        removeLocalDirectoryEntry(absPath, false);
+    }
+    
+    private void removeLocalDirectoryEntry(DataObjectPath absPath, boolean directoryEntry) throws IOException {
         if(absPath.isRoot()) {
             throw new IllegalArgumentException("root entry is not allowed");
         } else if(absPath.isClusterRoot()) {
@@ -335,30 +407,46 @@ public class VolumeManager {
             // local
             DataObjectPath parentPath = absPath.getParent();
             if(parentPath != null) {
-                Directory parentDir = (Directory)this.directoryHierarchy.get(parentPath.toString());
-                if(parentDir == null) {
-                    throw new IOException("parent directory is not found");
-                }
-                
-                parentDir.removeEntry(absPath);
+                boolean parentRemoved = false;
                 
-                if(parentDir.isEmpty() && !parentPath.isClusterRoot()) {
-                    this.directoryHierarchy.remove(parentPath.toString());
+                ReentrantLock lock = getPathLock(parentPath);
+                lock.lock();
+                try {
+                    if(directoryEntry && this.directoryHierarchy.containsKey(absPath.toString())) {
+                        // directory is recreated concurrently
+                        return;
+                    }
+                    
+                    Directory parentDir = (Directory)this.directoryHierarchy.get(parentPath.toString());
+                    if(parentDir == null) {
+                        throw new IOException("parent directory is not found");
+                    }
+
+                    parentDir.removeEntry(absPath);
 
+                    if(parentDir.isEmpty() && !parentPath.isClusterRoot()) {
+                        this.directoryHierarchy.remove(parentPath.toString());
+                        parentRemoved = true;
+                    } else {
+                        this.directoryHierarchy.put(parentPath.toString(), parentDir);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                
+                if(parentRemoved) {
                     // recurse
-                    removeLocalDirectoryEntry(parentPath);
-                } else {
-                    this.directoryHierarchy.put(parentPath.toString(), parentDir);
+                    removeLocalDirectoryEntry(parentPath, true);
                 }
                 
-                this.lastUpdateTime = DateTimeUtils.getCurrentTime();
+                setLastUpdateTime(DateTimeUtils.getCurrentTime());
             }
         } else {
             throw new IllegalArgumentException("remote cluster is not allowed");
         }
     }
     
-    public synchronized Collection<DataObjectPath> listDirectory(DataObjectPath path) throws IOException {
+    public Collection<DataObjectPath> listDirectory(DataObjectPath path) throws IOException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
@@ -380,7 +468,7 @@ public class VolumeManager {
         return Collections.unmodifiableCollection(entry);
     }
     
-    public synchronized URI getLocalResourcePath(DataObjectPath path) throws IOException {
+    public URI getLocalResourcePath(DataObjectPath path) throws IOException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
@@ -412,7 +500,7 @@ public class VolumeManager {
         }
     }
     
-    public synchronized DataObjectMetadata getDataObjectMetadata(DataObjectPath path) throws IOException, FileNotFoundException {
+    public DataObjectMetadata getDataObjectMetadata(DataObjectPath path) throws IOException, FileNotFoundException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
@@ -432,26 +520,37 @@ public class VolumeManager {
                 // directory
                 return makeDirectoryDataObjectMetadata(absPath);
             } else {
-                // file
-                Recipe recipe = this.recipeManager.getRecipe(absPath);
-                if(recipe == null) {
+                // file, status is pending or indexing until its recipe is ready
+                DataObjectMetadata metadata = this.recipeManager.getDataObjectMetadata(absPath);
+                if(metadata == null) {
                     // not exist
                     throw new FileNotFoundException("file not found - " + absPath.toString());
                 }
-                return recipe.getMetadata();
+                return metadata;
             }
         } else {
             // remote
-            RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(absPath.getClusterName());
+            final RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(absPath.getClusterName());
             if(remoteCluster != null) {
-                return this.transportManager.getDataObjectMetadata(remoteCluster, absPath);
+                final DataObjectPath remotePath = absPath;
+                DataObjectMetadata metadata = (DataObjectMetadata) getRemoteMetadata(this.remoteMetadataCache, absPath, new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        return transportManager.getDataObjectMetadata(remoteCluster, remotePath);
+                    }
+                });
+                if(metadata == null) {
+                    // not exist
+                    throw new FileNotFoundException("file not found - " + absPath.toString());
+                }
+                return metadata;
             } else {
                 throw new IOException("unable to find a metadata at a remote cluster for " + absPath.toString());
             }
         }
     }
     
-    public synchronized Collection<DataObjectMetadata> listDataObjectMetadata(DataObjectPath path) throws IOException {
+    public Collection<DataObjectMetadata> listDataObjectMetadata(DataObjectPath path) throws IOException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
@@ -475,26 +574,76 @@ public class VolumeManager {
             List<DataObjectMetadata> entry = new ArrayList<DataObjectMetadata>();
             Directory dir = getDirectory(absPath);
             if(dir != null) {
-                for(String entryName : dir.getEntry()) {
-                    DataObjectPath entryPath = new DataObjectPath(absPath, entryName);
-                    DataObjectMetadata metadata = getDataObjectMetadata(entryPath);
-                    entry.add(metadata);
-                }
+                entry.addAll(listLocalDataObjectMetadata(absPath, dir));
             }
             return Collections.unmodifiableCollection(entry);
         } else {
             // remote
             LOG.info("Finding a remote cluster - " + absPath.getClusterName());
-            RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(absPath.getClusterName());
+            final RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(absPath.getClusterName());
             if(remoteCluster != null) {
-                return this.transportManager.listDataObjectMetadata(remoteCluster, absPath);
+                final DataObjectPath remotePath = absPath;
+                DataObjectMetadata[] entry = (DataObjectMetadata[]) getRemoteMetadata(this.remoteListingCache, absPath, new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        Collection<DataObjectMetadata> entry = transportManager.listDataObjectMetadata(remoteCluster, remotePath);
+                        if(entry == null) {
+                            return null;
+                        }
+                        return entry.toArray(new DataObjectMetadata[0]);
+                    }
+                });
+                if(entry == null) {
+                    throw new FileNotFoundException("directory not found - " + absPath.toString());
+                }
+                return Collections.unmodifiableCollection(Arrays.asList(entry));
             } else {
                 throw new IOException("unable to find a directory at a remote cluster for " + absPath.toString());
             }
         }
     }
     
-    public synchronized Recipe getRecipe(DataObjectPath path) throws IOException {
+    /*
+     * looks up all entries of a directory in batches instead of one by one
+     */
+    private List<DataObjectMetadata> listLocalDataObjectMetadata(DataObjectPath absPath, Directory dir) throws IOException {
+        List<DataObjectPath> entryPaths = new ArrayList<DataObjectPath>();
+        Set<String> entryKeys = new HashSet<String>();
+        for(String entryName : dir.getEntry()) {
+            DataObjectPath entryPath = new DataObjectPath(absPath, entryName);
+            entryPaths.add(entryPath);
+            entryKeys.add(entryPath.toString());
+        }
+        
+        Map<String, Object> directories = this.directoryHierarchy.getAll(entryKeys);
+        
+        List<DataObjectPath> filePaths = new ArrayList<DataObjectPath>();
+        for(DataObjectPath entryPath : entryPaths) {
+            if(!directories.containsKey(entryPath.toString())) {
+                filePaths.add(entryPath);
+            }
+        }
+        
+        Map<String, DataObjectMetadata> fileMetadata = this.recipeManager.getDataObjectMetadata(filePaths);
+        
+        List<DataObjectMetadata> entry = new ArrayList<DataObjectMetadata>();
+        for(DataObjectPath entryPath : entryPaths) {
+            String key = entryPath.toString();
+            if(directories.containsKey(key)) {
+                entry.add(makeDirectoryDataObjectMetadata(entryPath));
+            } else {
+                DataObjectMetadata metadata = fileMetadata.get(key);
+                if(metadata == null) {
+                    // not exist
+                    throw new FileNotFoundException("file not found - " + key);
+                }
+                entry.add(metadata);
+            }
+        }
+        return entry;
+    }
+    
+    public Recipe getRecipe(DataObjectPath path) throws IOException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
@@ -508,16 +657,51 @@ public class VolumeManager {
             return this.recipeManager.getRecipe(absPath);
         } else {
             // remote
-            RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(absPath.getClusterName());
+            final RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(absPath.getClusterName());
             if(remoteCluster != null) {
-                return this.transportManager.getRecipe(remoteCluster, absPath);
+                final DataObjectPath remotePath = absPath;
+                return (Recipe) getRemoteMetadata(this.remoteRecipeCache, absPath, new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        return transportManager.getRecipe(remoteCluster, remotePath);
+                    }
+                });
             } else {
                 throw new IOException("unable to find a recipe at a remote cluster for " + absPath.toString());
             }
         }
     }
     
-    public synchronized InputStream getDataChunk(DataObjectPath path, String hash) throws IOException {
+    /*
+     * returns remote metadata from the cluster-wide cache, or loads and caches it
+     * entries expire after the remote metadata sync period of the volume policy
+     * not-found results are cached as well and returned as null
+     */
+    private Object getRemoteMetadata(RemoteMetadataCache cache, DataObjectPath absPath, Callable<Object> loader) throws IOException {
+        long syncPeriod = this.policyManager.getVolumePolicy().getRemoteClusterDataObjectMetadataSyncPeriod();
+        
+        RemoteMetadataEntry entry = cache.getEntry(absPath, syncPeriod);
+        if(entry != null) {
+            return cache.getValue(entry);
+        }
+        
+        Object value;
+        try {
+            value = loader.call();
+        } catch (FileNotFoundException ex) {
+            cache.putNotFound(absPath, syncPeriod);
+            throw ex;
+        } catch (IOException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException(ex);
+        }
+        
+        cache.put(absPath, value, syncPeriod);
+        return value;
+    }
+    
+    public InputStream getDataChunk(DataObjectPath path, String hash) throws IOException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
@@ -528,10 +712,25 @@ public class VolumeManager {
         
         DataObjectPath absPath = makeAbsolutePath(path);
         
-        return getDataChunk(absPath.getClusterName(), hash);
+        String hashAlgorithm = null;
+        if(!isLocalDataObject(absPath)) {
+            Recipe recipe = getRecipe(absPath);
+            if(recipe != null) {
+                hashAlgorithm = recipe.getHashAlgorithm();
+            }
+        }
+        return getDataChunk(absPath.getClusterName(), hashAlgorithm, hash);
     }
     
-    public synchronized InputStream getDataChunk(String clusterName, String hash) throws IOException {
+    public InputStream getDataChunk(String clusterName, String hash) throws IOException {
+        return getDataChunk(clusterName, null, hash);
+    }
+    
+    /*
+     * hashAlgorithm is the algorithm of the recipe owning the chunk, used to verify remote chunks
+     * before caching them, null if not known
+     */
+    public InputStream getDataChunk(String clusterName, String hashAlgorithm, String hash) throws IOException {
         if(clusterName == null || clusterName.isEmpty()) {
             throw new IllegalArgumentException("clusterName is null or empty");
         }
@@ -544,36 +743,174 @@ public class VolumeManager {
         
         if(isLocalCluster(clusterName)) {
             // local
-            Recipe recipe = this.recipeManager.getRecipe(hash);
-            if(recipe == null) {
-                throw new IOException("unable to find recipe for " + hash);
-            }
-            
-            DataExportEntry dataExport = this.dataExportManager.getDataExport(recipe.getMetadata().getPath().getPath());
-            if(dataExport == null) {
-                throw new IOException("unable to find dataexport for " + recipe.getMetadata().getPath().getPath());
+            ChunkLocation location = getLocalChunkLocation(hash);
+            return this.sourceFileSystemManager.getInputStream(location.getResourcePath(), location.getOffset(), location.getLength());
+        } else {
+            // remote
+            RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(clusterName);
+            if(remoteCluster != null) {
+                return this.transportManager.getDataChunk(remoteCluster, hashAlgorithm, hash);
+            } else {
+                throw new IOException("unable to find a remote cluster for " + clusterName);
             }
-            
-            for(RecipeChunk chunk : recipe.getChunk()) {
-                if(chunk.hasHash(hash)) {
-                    URI resourcePath = dataExport.getResourcePath();
-                    return this.sourceFileSystemManager.getInputStream(resourcePath, chunk.getOffset(), chunk.getLength());
-                }
+        }
+    }
+    
+    /*
+     * starts batched transfers of remote chunks, following getDataChunk calls join them
+     */
+    public void scheduleDataChunkTransfers(String clusterName, String hashAlgorithm, Collection<String> hashes) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hashes == null) {
+            throw new IllegalArgumentException("hashes is null");
+        }
+        
+        if(isLocalCluster(clusterName)) {
+            return;
+        }
+        
+        RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(clusterName);
+        if(remoteCluster != null) {
+            this.transportManager.scheduleTransferAndFillCache(remoteCluster, hashAlgorithm, hashes);
+        } else {
+            throw new IOException("unable to find a remote cluster for " + clusterName);
+        }
+    }
+    
+    public InputStream getDataChunk(String clusterName, String hash, long offset, int size) throws IOException {
+        return getDataChunk(clusterName, null, hash, offset, size);
+    }
+    
+    /*
+     * offset is relative to the beginning of the chunk
+     */
+    public InputStream getDataChunk(String clusterName, String hashAlgorithm, String hash, long offset, int size) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        if(offset < 0) {
+            throw new IllegalArgumentException("offset is invalid");
+        }
+        
+        if(size < 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        LOG.info("Get a part of a data chunk - " + hash + " (" + offset + ", " + size + ")");
+        
+        if(isLocalCluster(clusterName)) {
+            // local
+            ChunkLocation location = getLocalChunkLocation(hash);
+            if(offset > location.getLength()) {
+                throw new IOException("offset is out of range of chunk " + hash);
             }
             
-            throw new IOException("unable to find chunk for " + hash);
+            int readSize = (int) Math.min(size, location.getLength() - offset);
+            return this.sourceFileSystemManager.getInputStream(location.getResourcePath(), location.getOffset() + offset, readSize);
         } else {
-            // remote
+            // remote - fetch the whole chunk to fill the cache
             RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(clusterName);
             if(remoteCluster != null) {
-                return this.transportManager.getDataChunk(remoteCluster, hash);
+                return new RangedInputStream(this.transportManager.getDataChunk(remoteCluster, hashAlgorithm, hash), offset, size);
             } else {
                 throw new IOException("unable to find a remote cluster for " + clusterName);
             }
         }
     }
     
-    public synchronized void schedulePreloadFile(DataObjectPath path) throws IOException {
+    /*
+     * locates a part of a local chunk on local disk so it can be served from the file directly
+     * returns null if the chunk is not on local disk
+     */
+    public DataChunkRegion getLocalDataChunkRegion(String clusterName, String hash, long offset, int size) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        if(offset < 0) {
+            throw new IllegalArgumentException("offset is invalid");
+        }
+        
+        if(size < 0) {
+            throw new IllegalArgumentException("size is invalid");
+        }
+        
+        if(!isLocalCluster(clusterName)) {
+            return null;
+        }
+        
+        ChunkLocation location = getLocalChunkLocation(hash);
+        if(offset > location.getLength()) {
+            throw new IOException("offset is out of range of chunk " + hash);
+        }
+        
+        File localFile = this.sourceFileSystemManager.getLocalFile(location.getResourcePath());
+        if(localFile == null) {
+            return null;
+        }
+        
+        int readSize = (int) Math.min(size, location.getLength() - offset);
+        return new DataChunkRegion(localFile, location.getOffset() + offset, readSize);
+    }
+    
+    /*
+     * returns -1 if the length is not known locally
+     */
+    public long getDataChunkLength(String clusterName, String hash) throws IOException {
+        if(clusterName == null || clusterName.isEmpty()) {
+            throw new IllegalArgumentException("clusterName is null or empty");
+        }
+        
+        if(hash == null) {
+            throw new IllegalArgumentException("hash is null or empty");
+        }
+        
+        if(isLocalCluster(clusterName)) {
+            ChunkLocation location = getLocalChunkLocation(hash);
+            return location.getLength();
+        }
+        return -1;
+    }
+    
+    private ChunkLocation getLocalChunkLocation(String hash) throws IOException {
+        ChunkLocation location = this.recipeManager.getChunkLocation(hash);
+        if(location != null) {
+            return location;
+        }
+        
+        // not indexed - search recipes
+        Recipe recipe = this.recipeManager.getRecipe(hash);
+        if(recipe == null) {
+            throw new FileNotFoundException("unable to find recipe for " + hash);
+        }
+        
+        DataExportEntry dataExport = this.dataExportManager.getDataExport(recipe.getMetadata().getPath().getPath());
+        if(dataExport == null) {
+            throw new FileNotFoundException("unable to find dataexport for " + recipe.getMetadata().getPath().getPath());
+        }
+        
+        for(RecipeChunk chunk : recipe.getChunk()) {
+            if(chunk.hasHash(hash)) {
+                return new ChunkLocation(recipe.getMetadata().getPath(), dataExport.getResourcePath(), chunk.getOffset(), chunk.getLength());
+            }
+        }
+        
+        throw new FileNotFoundException("unable to find chunk for " + hash);
+    }
+    
+    public void schedulePreloadFile(DataObjectPath path) throws IOException {
         if(path == null) {
             throw new IllegalArgumentException("path is null");
         }
@@ -588,10 +925,12 @@ public class VolumeManager {
             if(recipe != null && !recipe.isEmpty()) {
                 RemoteCluster remoteCluster = this.clusterManager.getRemoteCluster(absPath.getClusterName());
                 if(remoteCluster != null) {
-                    Collection<RecipeChunk> chunks = recipe.getChunk();
-                    for(RecipeChunk chunk : chunks) {
-                        this.transportManager.scheduleTransferAndFillCache(remoteCluster, chunk.getHashString());
+                    List<String> hashes = new ArrayList<String>();
+                    for(RecipeChunk chunk : recipe.getChunk()) {
+                        hashes.add(chunk.getHashString());
                     }
+                    // preload workers transfer queued chunks in batches
+                    this.transportManager.schedulePreload(remoteCluster, recipe.getHashAlgorithm(), hashes, PreloadRequest.DEFAULT_PRIORITY);
                 } else {
                     throw new IOException("unable to find a remote cluster for " + absPath.getClusterName());
                 }
@@ -599,16 +938,20 @@ public class VolumeManager {
         }
     }
     
-    public synchronized long getLastUpdateTime() {
-        return this.lastUpdateTime;
+    public long getLastUpdateTime() throws IOException {
+        String time = (String) this.updateTime.get(UPDATE_TIME_KEY);
+        if(time == null) {
+            return 0;
+        }
+        return Long.parseLong(time);
     }
     
-    public synchronized void setLastUpdateTime(long time) {
-        this.lastUpdateTime = time;
+    public void setLastUpdateTime(long time) throws IOException {
+        this.updateTime.put(UPDATE_TIME_KEY, Long.toString(time));
     }
     
     @Override
-    public synchronized String toString() {
+    public String toString() {
         return "VolumeManager";
     }
 }